@@ -0,0 +1,324 @@
+package net.coderodde.util;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import net.coderodde.util.LinkedArrayBlockList.Block;
+
+/**
+ * This class implements a slab allocator for the block storage that may be
+ * shared by any number of {@link LinkedArrayBlockList}s. Instead of a
+ * separate array per block, the arena allocates large slab arrays and carves
+ * them into regions of the block capacity; a block then refers to its slab
+ * and to the offset of its region in it. The lists using an arena return the
+ * regions of the blocks they unlink or clear, and the arena hands the
+ * returned regions out to the next blocks of the same capacity, whichever
+ * list allocates them.
+ * <p>
+ * A slab of {@code s} slots saves the header of {@code s / capacity - 1}
+ * arrays, and the garbage collector traces a single array instead of one
+ * per block. A slab is retained as long as any of its regions is in use,
+ * and a slab whose regions are all free is dropped as soon as another slab
+ * of the same region capacity has room, so an arena retains at most one
+ * empty slab per region capacity and stripe.
+ * <p>
+ * The regions shared with clones or snapshots are never returned to the
+ * arena, since the storage is still referenced by the other list, and the
+ * region of a block released to another arena, or to a list using no arena,
+ * is left in its slab. Such a slab is never empty again, so it is retained
+ * as long as the arena is.
+ * <p>
+ * The arena is thread-safe. The slabs are spread over several stripes, each
+ * guarded by its own lock. A thread carves its regions from the slabs of the
+ * stripe selected by its ID, so that the lists used by different threads
+ * rarely contend for a lock, and a region is returned to the stripe of its
+ * slab.
+ * 
+ * @author Rodion "rodde" Efremov
+ * @see LinkedArrayBlockList#useArena(BlockArena)
+ */
+public final class BlockArena {
+    
+    /**
+     * The maximum number of stripes.
+     */
+    private static final int MAXIMUM_STRIPES = 64;
+    
+    /**
+     * The number of slots in a slab. A slab holds at least one region, even
+     * if the region capacity exceeds this.
+     */
+    private final int slabSlots;
+    
+    /**
+     * The stripes of slabs. The length is a power of two.
+     */
+    private final Stripe[] stripes;
+    
+    /**
+     * Maps each slab array to its slab. The arrays compare by identity.
+     */
+    private final Map<Object[], Slab> slabs = new ConcurrentHashMap<>();
+    
+    /**
+     * The number of the free regions that were returned to this arena.
+     */
+    private final AtomicInteger freeRegions = new AtomicInteger();
+    
+    /**
+     * The number of regions handed out again after being returned.
+     */
+    private final LongAdder reuses = new LongAdder();
+    
+    /**
+     * Constructs an arena whose slabs hold {@code slabSlots} elements.
+     * 
+     * @param slabSlots the number of slots in a slab.
+     */
+    public BlockArena(int slabSlots) {
+        if (slabSlots < 1) {
+            throw new IllegalArgumentException(
+                    "The number of slab slots (" + slabSlots +
+                    ") is not positive.");
+        }
+        
+        this.slabSlots = slabSlots;
+        int processors = Runtime.getRuntime().availableProcessors();
+        int stripeCount =
+                Integer.highestOneBit(Math.min(MAXIMUM_STRIPES,
+                                               Math.max(1, processors)));
+        this.stripes = new Stripe[stripeCount];
+        
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+    
+    /**
+     * Returns the number of slabs retained by this arena.
+     * 
+     * @return the number of slabs.
+     */
+    public int getSlabs() {
+        return slabs.size();
+    }
+    
+    /**
+     * Returns the number of free regions returned to the retained slabs.
+     * 
+     * @return the number of free regions.
+     */
+    public int getFreeRegions() {
+        return freeRegions.get();
+    }
+    
+    /**
+     * Returns the number of regions handed out again after being returned.
+     * 
+     * @return the number of reuses.
+     */
+    public long getReuses() {
+        return reuses.sum();
+    }
+    
+    /**
+     * Assigns {@code block} a cleared region of {@code block.capacity} slots
+     * from a slab of the stripe of the calling thread. A returned region is
+     * preferred to carving a new one.
+     * 
+     * @param <E>   the element type.
+     * @param block the block to assign the region to.
+     */
+    <E> void allocate(Block<E> block) {
+        Stripe stripe = stripes[stripeIndex()];
+        Slab slab;
+        int offset;
+        
+        synchronized (stripe) {
+            slab = stripe.slabWithRoom(block.capacity);
+            
+            if (slab == null) {
+                int regions = Math.max(1, slabSlots / block.capacity);
+                slab = new Slab(new Object[regions * block.capacity],
+                                block.capacity,
+                                stripe);
+                slabs.put(slab.array, slab);
+                stripe.available(slab);
+            }
+            
+            if (slab.freeCount > 0) {
+                offset = slab.freeOffsets[--slab.freeCount];
+                freeRegions.decrementAndGet();
+                reuses.increment();
+            } else {
+                offset = slab.carved;
+                slab.carved += block.capacity;
+            }
+            
+            slab.liveRegions++;
+            
+            if (!slab.hasRoom()) {
+                stripe.unavailable(slab);
+            }
+        }
+        
+        block.array = (E[]) slab.array;
+        block.offset = offset;
+    }
+    
+    /**
+     * Returns the region {@code [offset, offset + capacity)} of
+     * {@code array} to this arena. No block may refer to the region anymore.
+     * Does nothing if {@code array} is not a slab of this arena.
+     * 
+     * @param array    the slab array.
+     * @param offset   the offset of the region.
+     * @param capacity the length of the region.
+     */
+    void release(Object[] array, int offset, int capacity) {
+        Slab slab = slabs.get(array);
+        
+        if (slab == null) {
+            return;
+        }
+        
+        Arrays.fill(array, offset, offset + capacity, null);
+        Stripe stripe = slab.stripe;
+        
+        synchronized (stripe) {
+            boolean hadRoom = slab.hasRoom();
+            slab.free(offset);
+            slab.liveRegions--;
+            freeRegions.incrementAndGet();
+            
+            if (slab.liveRegions == 0
+                    && stripe.hasOtherSlabWithRoom(slab)) {
+                // Let the GC reclaim the empty slab.
+                stripe.unavailable(slab);
+                slabs.remove(array);
+                freeRegions.addAndGet(-slab.freeCount);
+            } else if (!hadRoom) {
+                stripe.available(slab);
+            }
+        }
+    }
+    
+    private int stripeIndex() {
+        return (int) Thread.currentThread().getId() & (stripes.length - 1);
+    }
+    
+    /**
+     * This static inner class implements a slab, a large array carved into
+     * regions of the same capacity.
+     */
+    private static final class Slab {
+        
+        /**
+         * The slab array.
+         */
+        final Object[] array;
+        
+        /**
+         * The capacity of each region.
+         */
+        final int regionCapacity;
+        
+        /**
+         * The stripe guarding this slab.
+         */
+        final Stripe stripe;
+        
+        /**
+         * The number of the slots carved so far. Only the regions below
+         * this were ever handed out.
+         */
+        int carved;
+        
+        /**
+         * The offsets of the returned regions. Only the first
+         * {@code freeCount} are valid.
+         */
+        int[] freeOffsets = new int[1];
+        
+        /**
+         * The number of returned regions.
+         */
+        int freeCount;
+        
+        /**
+         * The number of regions handed out and not returned.
+         */
+        int liveRegions;
+        
+        Slab(Object[] array, int regionCapacity, Stripe stripe) {
+            this.array = array;
+            this.regionCapacity = regionCapacity;
+            this.stripe = stripe;
+        }
+        
+        boolean hasRoom() {
+            return freeCount > 0 || carved < array.length;
+        }
+        
+        void free(int offset) {
+            if (freeCount == freeOffsets.length) {
+                freeOffsets = Arrays.copyOf(freeOffsets, 2 * freeCount);
+            }
+            
+            freeOffsets[freeCount++] = offset;
+        }
+    }
+    
+    /**
+     * This static inner class implements a stripe of slabs. All the accesses
+     * to a stripe and to its slabs synchronize on the stripe.
+     */
+    private static final class Stripe {
+        
+        /**
+         * Maps each region capacity to the slabs of that region capacity
+         * that have room for another region.
+         */
+        private final Map<Integer, ArrayDeque<Slab>> available =
+                new HashMap<>();
+        
+        Slab slabWithRoom(int regionCapacity) {
+            ArrayDeque<Slab> slabs = available.get(regionCapacity);
+            return slabs == null ? null : slabs.peek();
+        }
+        
+        boolean hasOtherSlabWithRoom(Slab slab) {
+            ArrayDeque<Slab> slabs = available.get(slab.regionCapacity);
+            
+            if (slabs == null) {
+                return false;
+            }
+            
+            for (Slab other : slabs) {
+                if (other != slab) {
+                    return true;
+                }
+            }
+            
+            return false;
+        }
+        
+        void available(Slab slab) {
+            available.computeIfAbsent(slab.regionCapacity,
+                                      (capacity) -> new ArrayDeque<>())
+                     .push(slab);
+        }
+        
+        void unavailable(Slab slab) {
+            ArrayDeque<Slab> slabs = available.get(slab.regionCapacity);
+            
+            if (slabs != null) {
+                slabs.remove(slab);
+            }
+        }
+    }
+}
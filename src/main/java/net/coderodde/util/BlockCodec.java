@@ -0,0 +1,37 @@
+package net.coderodde.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * This interface defines the API for serializing the elements of the blocks
+ * evicted to a spill file and of the elements written to a change log.
+ * 
+ * @param <E> the element type.
+ * @author Rodion "rodde" Efremov
+ * @see LinkedArrayBlockList#enableSpilling(java.nio.file.Path, BlockCodec, 
+ *      int)
+ * @see LinkedArrayBlockList#enableChangeLog(java.nio.file.Path, BlockCodec,
+ *      int)
+ */
+public interface BlockCodec<E> {
+    
+    /**
+     * Writes {@code element} to {@code output}.
+     * 
+     * @param element the element to write.
+     * @param output  the output to write to.
+     * @throws IOException if writing fails.
+     */
+    void encode(E element, DataOutput output) throws IOException;
+    
+    /**
+     * Reads an element written by {@link #encode(Object, DataOutput)}.
+     * 
+     * @param input the input to read from.
+     * @return the read element.
+     * @throws IOException if reading fails.
+     */
+    E decode(DataInput input) throws IOException;
+}
@@ -0,0 +1,38 @@
+package net.coderodde.util;
+
+/**
+ * This interface defines the API for compressing the contents of the idle 
+ * blocks in memory. The elements of a block are passed as a ring buffer: the
+ * element with logical index <tt>i</tt> resides in 
+ * <tt>array[(headIndex + i) % array.length]</tt>.
+ * 
+ * @param <E> the element type.
+ * @author Rodion "rodde" Efremov
+ * @see BlockCompressors
+ * @see LinkedArrayBlockList#enableCompression(BlockCompressor, int, long)
+ */
+public interface BlockCompressor<E> {
+    
+    /**
+     * Compresses the elements of a block.
+     * 
+     * @param array     the storage array of the block.
+     * @param headIndex the physical index of the first element.
+     * @param size      the number of elements.
+     * @return the compressed data, or {@code null} if this compressor cannot
+     *         handle the elements, in which case the block is left intact.
+     */
+    byte[] compress(Object[] array, int headIndex, int size);
+    
+    /**
+     * Decompresses the elements of a block into their original physical 
+     * positions in {@code array}.
+     * 
+     * @param data      the data returned by 
+     *                  {@link #compress(Object[], int, int)}.
+     * @param array     the array to decompress into.
+     * @param headIndex the physical index of the first element.
+     * @param size      the number of elements.
+     */
+    void decompress(byte[] data, Object[] array, int headIndex, int size);
+}
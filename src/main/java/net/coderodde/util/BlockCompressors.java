@@ -0,0 +1,245 @@
+package net.coderodde.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class provides the standard {@link BlockCompressor} implementations.
+ * 
+ * @author Rodion "rodde" Efremov
+ */
+public final class BlockCompressors {
+    
+    private BlockCompressors() {}
+    
+    /**
+     * Returns a compressor storing {@code Integer} elements as zigzag-encoded
+     * variable-length deltas. Blocks containing {@code null} are not 
+     * compressed.
+     * 
+     * @return the integer compressor.
+     */
+    public static BlockCompressor<Integer> integers() {
+        return IntegerDeltaCompressor.INSTANCE;
+    }
+    
+    /**
+     * Returns a compressor storing {@code Long} elements as zigzag-encoded 
+     * variable-length deltas. Blocks containing {@code null} are not 
+     * compressed.
+     * 
+     * @return the long compressor.
+     */
+    public static BlockCompressor<Long> longs() {
+        return LongDeltaCompressor.INSTANCE;
+    }
+    
+    /**
+     * Returns a compressor storing {@code String} elements as a dictionary of
+     * the distinct strings in UTF-8 followed by a dictionary index per 
+     * element.
+     * 
+     * @return the string compressor.
+     */
+    public static BlockCompressor<String> strings() {
+        return StringDictionaryCompressor.INSTANCE;
+    }
+    
+    private static final class IntegerDeltaCompressor 
+            implements BlockCompressor<Integer> {
+        
+        static final IntegerDeltaCompressor INSTANCE = 
+                new IntegerDeltaCompressor();
+
+        @Override
+        public byte[] compress(Object[] array, int headIndex, int size) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream(size);
+            int previous = 0;
+            
+            for (int i = 0; i < size; i++) {
+                Object element = array[(headIndex + i) % array.length];
+                
+                if (element == null) {
+                    return null;
+                }
+                
+                int value = (Integer) element;
+                writeVarLong(output, zigzag(value - previous));
+                previous = value;
+            }
+            
+            return output.toByteArray();
+        }
+
+        @Override
+        public void decompress(byte[] data, 
+                               Object[] array, 
+                               int headIndex, 
+                               int size) {
+            Input input = new Input(data);
+            int previous = 0;
+            
+            for (int i = 0; i < size; i++) {
+                previous += (int) unzigzag(input.readVarLong());
+                array[(headIndex + i) % array.length] = previous;
+            }
+        }
+    }
+    
+    private static final class LongDeltaCompressor 
+            implements BlockCompressor<Long> {
+        
+        static final LongDeltaCompressor INSTANCE = new LongDeltaCompressor();
+
+        @Override
+        public byte[] compress(Object[] array, int headIndex, int size) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream(size);
+            long previous = 0L;
+            
+            for (int i = 0; i < size; i++) {
+                Object element = array[(headIndex + i) % array.length];
+                
+                if (element == null) {
+                    return null;
+                }
+                
+                long value = (Long) element;
+                writeVarLong(output, zigzag(value - previous));
+                previous = value;
+            }
+            
+            return output.toByteArray();
+        }
+
+        @Override
+        public void decompress(byte[] data, 
+                               Object[] array, 
+                               int headIndex, 
+                               int size) {
+            Input input = new Input(data);
+            long previous = 0L;
+            
+            for (int i = 0; i < size; i++) {
+                previous += unzigzag(input.readVarLong());
+                array[(headIndex + i) % array.length] = previous;
+            }
+        }
+    }
+    
+    private static final class StringDictionaryCompressor 
+            implements BlockCompressor<String> {
+        
+        static final StringDictionaryCompressor INSTANCE = 
+                new StringDictionaryCompressor();
+
+        @Override
+        public byte[] compress(Object[] array, int headIndex, int size) {
+            Map<String, Integer> codes = new HashMap<>();
+            List<String> dictionary = new ArrayList<>();
+            int[] elementCodes = new int[size];
+            
+            // Code 0 stands for null.
+            for (int i = 0; i < size; i++) {
+                String element = (String) array[(headIndex + i) % array.length];
+                
+                if (element != null) {
+                    Integer code = codes.get(element);
+                    
+                    if (code == null) {
+                        dictionary.add(element);
+                        code = dictionary.size();
+                        codes.put(element, code);
+                    }
+                    
+                    elementCodes[i] = code;
+                }
+            }
+            
+            ByteArrayOutputStream output = new ByteArrayOutputStream(size);
+            writeVarLong(output, dictionary.size());
+            
+            for (String word : dictionary) {
+                byte[] bytes = word.getBytes(StandardCharsets.UTF_8);
+                writeVarLong(output, bytes.length);
+                output.write(bytes, 0, bytes.length);
+            }
+            
+            for (int code : elementCodes) {
+                writeVarLong(output, code);
+            }
+            
+            return output.toByteArray();
+        }
+
+        @Override
+        public void decompress(byte[] data, 
+                               Object[] array, 
+                               int headIndex, 
+                               int size) {
+            Input input = new Input(data);
+            String[] dictionary = new String[(int) input.readVarLong() + 1];
+            
+            for (int i = 1; i < dictionary.length; i++) {
+                int length = (int) input.readVarLong();
+                dictionary[i] = new String(data, 
+                                           input.position, 
+                                           length, 
+                                           StandardCharsets.UTF_8);
+                input.position += length;
+            }
+            
+            for (int i = 0; i < size; i++) {
+                array[(headIndex + i) % array.length] = 
+                        dictionary[(int) input.readVarLong()];
+            }
+        }
+    }
+    
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+    
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+    
+    private static void writeVarLong(ByteArrayOutputStream output, 
+                                     long value) {
+        while ((value & ~0x7FL) != 0L) {
+            output.write((int)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        
+        output.write((int) value);
+    }
+    
+    /**
+     * This class implements a cursor over compressed data.
+     */
+    private static final class Input {
+        
+        final byte[] data;
+        int position;
+        
+        Input(byte[] data) {
+            this.data = data;
+        }
+        
+        long readVarLong() {
+            long value = 0L;
+            
+            for (int shift = 0; ; shift += 7) {
+                byte b = data[position++];
+                value |= (long)(b & 0x7F) << shift;
+                
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+    }
+}
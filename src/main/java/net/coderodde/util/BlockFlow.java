@@ -0,0 +1,352 @@
+package net.coderodde.util;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import net.coderodde.util.LinkedArrayBlockList.Block;
+
+/**
+ * This class contains the reactive stream adapters of
+ * {@link LinkedArrayBlockList}. The nested {@link Publisher},
+ * {@link Subscriber} and {@link Subscription} interfaces have the same
+ * methods and contracts as their counterparts in
+ * {@code java.util.concurrent.Flow}, which is not available on Java 8; on a
+ * newer platform they can be bridged to {@code Flow} with method references.
+ * <p>
+ * The publishers emit synchronously on the thread calling
+ * {@link Subscription#request(long)}, and signal
+ * {@link ConcurrentModificationException} via {@code onError} if the list is
+ * structurally modified while being published.
+ * 
+ * @author Rodion "rodde" Efremov
+ * @see LinkedArrayBlockList#publisher()
+ * @see LinkedArrayBlockList#batchPublisher()
+ * @see LinkedArrayBlockList#subscriber(int)
+ */
+public final class BlockFlow {
+    
+    private BlockFlow() {}
+    
+    /**
+     * A producer of items received by subscribers.
+     * 
+     * @param <T> the published item type.
+     */
+    @FunctionalInterface
+    public interface Publisher<T> {
+        
+        /**
+         * Adds the given subscriber.
+         * 
+         * @param subscriber the subscriber.
+         */
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+    
+    /**
+     * A receiver of items.
+     * 
+     * @param <T> the subscribed item type.
+     */
+    public interface Subscriber<T> {
+        
+        /**
+         * Invoked prior to any other method for the given subscription.
+         * 
+         * @param subscription the new subscription.
+         */
+        void onSubscribe(Subscription subscription);
+        
+        /**
+         * Invoked with the next item of the subscription.
+         * 
+         * @param item the item.
+         */
+        void onNext(T item);
+        
+        /**
+         * Invoked upon an unrecoverable error, after which no other method is
+         * invoked.
+         * 
+         * @param throwable the error.
+         */
+        void onError(Throwable throwable);
+        
+        /**
+         * Invoked when no more items will be received.
+         */
+        void onComplete();
+    }
+    
+    /**
+     * The link between a publisher and a subscriber.
+     */
+    public interface Subscription {
+        
+        /**
+         * Adds {@code n} items to the unfulfilled demand of this
+         * subscription.
+         * 
+         * @param n the number of additional items; must be positive.
+         */
+        void request(long n);
+        
+        /**
+         * Causes the subscriber to eventually stop receiving items.
+         */
+        void cancel();
+    }
+    
+    /**
+     * The subscriber appending each received batch to the tail blocks of a
+     * list. It keeps {@code prefetch} batches requested, and completes
+     * {@link #completion()} when the upstream completes or fails.
+     * 
+     * @param <E> the element type.
+     */
+    public static final class BlockSubscriber<E>
+            implements Subscriber<List<? extends E>> {
+        
+        /**
+         * The target list.
+         */
+        private final LinkedArrayBlockList<E> list;
+        
+        /**
+         * The number of batches to keep requested.
+         */
+        private final int prefetch;
+        
+        /**
+         * The future completed by the terminal signal.
+         */
+        private final CompletableFuture<LinkedArrayBlockList<E>> completion =
+                new CompletableFuture<>();
+        
+        /**
+         * The current subscription, or {@code null}.
+         */
+        private Subscription subscription;
+        
+        BlockSubscriber(LinkedArrayBlockList<E> list, int prefetch) {
+            if (prefetch <= 0) {
+                throw new IllegalArgumentException(
+                        "The prefetch (" + prefetch + ") must be positive.");
+            }
+            
+            this.list = list;
+            this.prefetch = prefetch;
+        }
+        
+        /**
+         * Returns the future completed with the target list upon
+         * {@code onComplete}, or exceptionally upon {@code onError}.
+         * 
+         * @return the completion future.
+         */
+        public CompletableFuture<LinkedArrayBlockList<E>> completion() {
+            return completion;
+        }
+        
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            Objects.requireNonNull(subscription, "The subscription is null.");
+            
+            if (this.subscription != null) {
+                subscription.cancel();
+                return;
+            }
+            
+            this.subscription = subscription;
+            subscription.request(prefetch);
+        }
+        
+        @Override
+        public void onNext(List<? extends E> batch) {
+            Objects.requireNonNull(batch, "The batch is null.");
+            list.addAll(batch);
+            subscription.request(1L);
+        }
+        
+        @Override
+        public void onError(Throwable throwable) {
+            Objects.requireNonNull(throwable, "The throwable is null.");
+            completion.completeExceptionally(throwable);
+        }
+        
+        @Override
+        public void onComplete() {
+            completion.complete(list);
+        }
+    }
+    
+    /**
+     * Returns a publisher emitting the elements of {@code list} one by one.
+     * 
+     * @param <E>  the element type.
+     * @param list the list to publish.
+     * @return the element publisher.
+     */
+    static <E> Publisher<E> elementPublisher(LinkedArrayBlockList<E> list) {
+        return (subscriber) -> subscribe(list, subscriber, false);
+    }
+    
+    /**
+     * Returns a publisher emitting the contents of each non-empty block of
+     * {@code list} as a single batch.
+     * 
+     * @param <E>  the element type.
+     * @param list the list to publish.
+     * @return the batch publisher.
+     */
+    static <E> Publisher<List<E>> batchPublisher(LinkedArrayBlockList<E> list) {
+        return (subscriber) -> subscribe(list, subscriber, true);
+    }
+    
+    private static <E, T> void subscribe(LinkedArrayBlockList<E> list,
+                                         Subscriber<? super T> subscriber,
+                                         boolean batched) {
+        Objects.requireNonNull(subscriber, "The subscriber is null.");
+        subscriber.onSubscribe(
+                new BlockSubscription<>(list, subscriber, batched));
+    }
+    
+    /**
+     * The subscription emitting the elements or blocks of a list as demanded.
+     * 
+     * @param <E> the element type.
+     * @param <T> the emitted item type.
+     */
+    private static final class BlockSubscription<E, T>
+            implements Subscription {
+        
+        private final LinkedArrayBlockList<E> list;
+        private final Subscriber<? super T> subscriber;
+        private final boolean batched;
+        
+        /**
+         * The modification count the list is expected to have.
+         */
+        private final int expectedModificationCount;
+        
+        /**
+         * The block to emit from next.
+         */
+        private Block<E> block;
+        
+        /**
+         * The logical index of the next element to emit within
+         * {@code block}.
+         */
+        private int index;
+        
+        /**
+         * The unfulfilled demand.
+         */
+        private long demand;
+        
+        /**
+         * Indicates whether the emission loop is running further up the
+         * stack; reentrant requests only add to the demand.
+         */
+        private boolean emitting;
+        
+        /**
+         * Indicates whether this subscription is cancelled or terminated.
+         */
+        private boolean done;
+        
+        BlockSubscription(LinkedArrayBlockList<E> list,
+                          Subscriber<? super T> subscriber,
+                          boolean batched) {
+            this.list = list;
+            this.subscriber = subscriber;
+            this.batched = batched;
+            this.expectedModificationCount = list.getModificationCount();
+            this.block = list.getHeadBlock();
+        }
+        
+        @Override
+        public void request(long n) {
+            if (done) {
+                return;
+            }
+            
+            if (n <= 0L) {
+                done = true;
+                subscriber.onError(new IllegalArgumentException(
+                        "The request (" + n + ") must be positive."));
+                return;
+            }
+            
+            demand += n;
+            
+            if (demand < 0L) {
+                // Overflow: the demand is effectively unbounded.
+                demand = Long.MAX_VALUE;
+            }
+            
+            if (emitting) {
+                return;
+            }
+            
+            emitting = true;
+            
+            try {
+                emit();
+            } finally {
+                emitting = false;
+            }
+        }
+        
+        @Override
+        public void cancel() {
+            done = true;
+            block = null;
+        }
+        
+        private void emit() {
+            while (!done) {
+                if (list.getModificationCount() != expectedModificationCount) {
+                    done = true;
+                    subscriber.onError(new ConcurrentModificationException());
+                    return;
+                }
+                
+                while (block != null && index == block.size) {
+                    block = block.nextBlock;
+                    index = 0;
+                }
+                
+                if (block == null) {
+                    done = true;
+                    subscriber.onComplete();
+                    return;
+                }
+                
+                if (demand == 0L) {
+                    return;
+                }
+                
+                if (demand != Long.MAX_VALUE) {
+                    demand--;
+                }
+                
+                subscriber.onNext(nextItem());
+            }
+        }
+        
+        private T nextItem() {
+            if (!batched) {
+                return (T) block.get(index++);
+            }
+            
+            Object[] batch = new Object[block.size - index];
+            block.copyTo(index, batch, 0, batch.length);
+            index = block.size;
+            return (T) Arrays.asList(batch);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package net.coderodde.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import net.coderodde.util.LinkedArrayBlockList.Block;
+
+/**
+ * This class implements the bulk loading of a {@link LinkedArrayBlockList}
+ * from a byte channel. The records are decoded directly into the storage
+ * arrays of a private block chain, which is then linked to the list at once.
+ * 
+ * @param <E> the element type.
+ * @author Rodion "rodde" Efremov
+ */
+final class BlockLoader<E> {
+    
+    /**
+     * The size of the I/O buffers. No record may be longer than this.
+     */
+    static final int BUFFER_SIZE = 64 * 1024;
+    
+    /**
+     * The number of buffers circulating between the reader thread and the
+     * parsing thread in the read-ahead mode.
+     */
+    private static final int READ_AHEAD_BUFFERS = 2;
+    
+    /**
+     * Signals the end of input from the reader thread.
+     */
+    private static final ByteBuffer END_OF_INPUT = ByteBuffer.allocate(0);
+    
+    /**
+     * The list to load into.
+     */
+    private final LinkedArrayBlockList<E> list;
+    
+    /**
+     * The record parser.
+     */
+    private final RecordParser<E> parser;
+    
+    /**
+     * The first block of the loaded chain.
+     */
+    private Block<E> chainHeadBlock;
+    
+    /**
+     * The last block of the loaded chain.
+     */
+    private Block<E> chainTailBlock;
+    
+    /**
+     * The number of blocks in the loaded chain.
+     */
+    private int chainBlocks;
+    
+    /**
+     * The number of elements in the loaded chain.
+     */
+    private int chainSize;
+    
+    /**
+     * The exception thrown in the reader thread, if any.
+     */
+    private volatile IOException readFailure;
+    
+    BlockLoader(LinkedArrayBlockList<E> list, RecordParser<E> parser) {
+        this.list = list;
+        this.parser = parser;
+    }
+    
+    /**
+     * Loads all the records from {@code channel} to the end of the list.
+     * 
+     * @param channel   the channel to read.
+     * @param readAhead whether to read in a separate thread.
+     * @throws IOException if reading or parsing fails.
+     */
+    void load(ReadableByteChannel channel, boolean readAhead) 
+            throws IOException {
+        if (readAhead) {
+            loadWithReadAhead(channel);
+        } else {
+            loadSequentially(channel);
+        }
+        
+        if (chainTailBlock != null && chainTailBlock.isEmpty()) {
+            chainTailBlock = chainTailBlock.previousBlock;
+            chainBlocks--;
+            
+            if (chainTailBlock == null) {
+                chainHeadBlock = null;
+            } else {
+                chainTailBlock.nextBlock = null;
+            }
+        }
+        
+        if (chainSize > 0) {
+            list.appendChain(chainHeadBlock, 
+                             chainTailBlock, 
+                             chainBlocks, 
+                             chainSize);
+        }
+    }
+    
+    private void loadSequentially(ReadableByteChannel channel) 
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        boolean endOfInput = false;
+        
+        while (!endOfInput) {
+            endOfInput = channel.read(buffer) < 0;
+            buffer.flip();
+            parse(buffer, endOfInput);
+            buffer.compact();
+            checkRecordLength(buffer);
+        }
+    }
+    
+    private void loadWithReadAhead(ReadableByteChannel channel) 
+            throws IOException {
+        BlockingQueue<ByteBuffer> freeBuffers = 
+                new ArrayBlockingQueue<>(READ_AHEAD_BUFFERS);
+        BlockingQueue<ByteBuffer> filledBuffers = 
+                new ArrayBlockingQueue<>(READ_AHEAD_BUFFERS + 1);
+        
+        for (int i = 0; i < READ_AHEAD_BUFFERS; i++) {
+            freeBuffers.add(ByteBuffer.allocateDirect(BUFFER_SIZE));
+        }
+        
+        Thread readerThread = new Thread(() -> {
+            try {
+                while (true) {
+                    ByteBuffer buffer = freeBuffers.take();
+                    buffer.clear();
+                    
+                    if (channel.read(buffer) < 0) {
+                        filledBuffers.put(END_OF_INPUT);
+                        return;
+                    }
+                    
+                    buffer.flip();
+                    filledBuffers.put(buffer);
+                }
+            } catch (IOException ex) {
+                readFailure = ex;
+                filledBuffers.offer(END_OF_INPUT);
+            } catch (InterruptedException ex) {
+                // The parsing thread gave up.
+            }
+        }, "LinkedArrayBlockList-reader");
+        
+        readerThread.setDaemon(true);
+        readerThread.start();
+        
+        // Holds the trailing incomplete record plus one filled buffer.
+        ByteBuffer parseBuffer = ByteBuffer.allocateDirect(2 * BUFFER_SIZE);
+        boolean completed = false;
+        
+        try {
+            while (true) {
+                ByteBuffer buffer = filledBuffers.take();
+                
+                if (buffer == END_OF_INPUT) {
+                    if (readFailure != null) {
+                        throw readFailure;
+                    }
+                    
+                    parseBuffer.flip();
+                    parse(parseBuffer, true);
+                    completed = true;
+                    return;
+                }
+                
+                parseBuffer.put(buffer);
+                freeBuffers.put(buffer);
+                parseBuffer.flip();
+                parse(parseBuffer, false);
+                parseBuffer.compact();
+                checkRecordLength(parseBuffer);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Loading was interrupted.");
+        } finally {
+            if (!completed) {
+                readerThread.interrupt();
+            }
+        }
+    }
+    
+    /**
+     * Decodes the records in {@code buffer} into the loaded block chain, 
+     * appending new blocks as needed.
+     * 
+     * @param buffer     the buffer to decode.
+     * @param endOfInput whether no more bytes follow.
+     * @throws IOException if parsing fails.
+     */
+    private void parse(ByteBuffer buffer, boolean endOfInput) 
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            if (chainTailBlock == null || chainTailBlock.isFull()) {
+                appendBlock();
+            }
+            
+            Block<E> block = chainTailBlock;
+            int position = buffer.position();
+            int records = parser.parse(buffer,
+                                       block.array, 
+                                       block.size, 
+                                       block.capacity - block.size,
+                                       endOfInput);
+            block.size += records;
+            chainSize += records;
+            
+            if (records == 0 && buffer.position() == position) {
+                break; // Needs more bytes.
+            }
+        }
+        
+        if (endOfInput && buffer.hasRemaining()) {
+            throw new IOException(
+                    "The input ends with an incomplete record (" + 
+                    buffer.remaining() + " bytes).");
+        }
+    }
+    
+    private void appendBlock() {
+        Block<E> block = new Block<>(list.getBlockCapacity());
+        
+        if (chainTailBlock == null) {
+            chainHeadBlock = block;
+        } else {
+            chainTailBlock.nextBlock = block;
+            block.previousBlock = chainTailBlock;
+        }
+        
+        chainTailBlock = block;
+        chainBlocks++;
+    }
+    
+    private static void checkRecordLength(ByteBuffer buffer) 
+            throws IOException {
+        if (buffer.position() >= BUFFER_SIZE) {
+            throw new IOException(
+                    "A record is longer than " + BUFFER_SIZE + " bytes.");
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package net.coderodde.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import net.coderodde.util.LinkedArrayBlockList.Block;
+
+/**
+ * This class evicts the interior blocks of a {@link LinkedArrayBlockList} to
+ * a spill file and faults them back in on access. An evicted block stays in
+ * the chain as a stub whose {@code array} is {@code null}. The resident 
+ * interior blocks are selected for eviction by the CLOCK policy: the clock 
+ * hand sweeps the block chain, giving a second chance to the blocks accessed
+ * since the previous sweep.
+ * <p>
+ * The spill file is append-only: a block is written only if modified since 
+ * it was last read, and the written records are never overwritten. 
+ * Therefore, the stubs shared by clones keep pointing to valid records.
+ * 
+ * @param <E> the element type.
+ * @author Rodion "rodde" Efremov
+ */
+final class BlockSpiller<E> implements BlockStore<E> {
+    
+    /**
+     * The list whose blocks this spiller manages.
+     */
+    private final LinkedArrayBlockList<E> list;
+    
+    /**
+     * The element codec.
+     */
+    private final BlockCodec<E> codec;
+    
+    /**
+     * The spill file channel.
+     */
+    private final FileChannel channel;
+    
+    /**
+     * The maximum number of resident blocks.
+     */
+    private final int maxResidentBlocks;
+    
+    /**
+     * The current estimate of the number of resident blocks in the list.
+     */
+    private int residentBlocks;
+    
+    /**
+     * The next block to consider for eviction.
+     */
+    private Block<E> clockHand;
+    
+    /**
+     * Indicates whether this spiller is closing, in which case no blocks are
+     * evicted anymore.
+     */
+    private boolean closing;
+    
+    /**
+     * The number of evictions so far.
+     */
+    private long evictions;
+    
+    /**
+     * The number of faults so far.
+     */
+    private long faults;
+    
+    BlockSpiller(LinkedArrayBlockList<E> list,
+                 Path file,
+                 BlockCodec<E> codec,
+                 int maxResidentBlocks) throws IOException {
+        this.list = list;
+        this.codec = codec;
+        this.maxResidentBlocks = maxResidentBlocks;
+        this.channel = FileChannel.open(file, 
+                                        StandardOpenOption.CREATE,
+                                        StandardOpenOption.TRUNCATE_EXISTING,
+                                        StandardOpenOption.READ,
+                                        StandardOpenOption.WRITE,
+                                        StandardOpenOption.DELETE_ON_CLOSE);
+        recount();
+    }
+    
+    long getEvictions() {
+        return evictions;
+    }
+    
+    long getFaults() {
+        return faults;
+    }
+    
+    /**
+     * Reads the contents of the evicted {@code block} from the spill file.
+     * 
+     * @param block the evicted block.
+     */
+    @Override
+    public void fault(Block<E> block) {
+        if (!channel.isOpen()) {
+            throw new IllegalStateException(
+                    "The spill file of the block is closed.");
+        }
+        
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(block.spillLength);
+            
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, 
+                                        block.spillPosition + 
+                                        buffer.position());
+                
+                if (read < 0) {
+                    throw new IOException("The spill file is truncated.");
+                }
+            }
+            
+            DataInputStream input = 
+                    new DataInputStream(
+                            new ByteArrayInputStream(buffer.array()));
+            E[] array = (E[]) new Object[block.capacity];
+            
+            // Restore the physical layout so that 'headIndex' stays valid.
+            for (int i = 0; i < block.size; i++) {
+                array[(block.headIndex + i) % block.capacity] = 
+                        codec.decode(input);
+            }
+            
+            block.array = array;
+            block.offset = 0;
+            block.shared = false;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        
+        faults++;
+        residentBlocks++;
+        enforceBudget(block);
+    }
+    
+    /**
+     * Notifies this spiller that a new resident block was added to the list.
+     */
+    void blockAllocated() {
+        residentBlocks++;
+        enforceBudget(null);
+    }
+    
+    /**
+     * Notifies this spiller that {@code block} was unlinked from the list.
+     * 
+     * @param block the unlinked block.
+     */
+    void blockUnlinked(Block<E> block) {
+        if (block.array != null) {
+            residentBlocks--;
+        }
+        
+        if (clockHand == block) {
+            clockHand = block.nextBlock;
+        }
+    }
+    
+    /**
+     * Recomputes the number of resident blocks after the chain of the list 
+     * was changed in bulk.
+     */
+    void recount() {
+        residentBlocks = 0;
+        clockHand = null;
+        
+        for (Block<E> block = list.getHeadBlock();
+                block != null;
+                block = block.nextBlock) {
+            if (block.array != null) {
+                residentBlocks++;
+            }
+        }
+        
+        enforceBudget(null);
+    }
+    
+    /**
+     * Faults in all the blocks of the list and closes the spill file.
+     * 
+     * @throws IOException if closing fails.
+     */
+    void close() throws IOException {
+        closing = true;
+        
+        for (Block<E> block = list.getHeadBlock();
+                block != null;
+                block = block.nextBlock) {
+            block.ensureResident();
+            
+            if (block.store == this) {
+                block.store = null;
+            }
+            
+            block.spillPosition = -1L;
+        }
+        
+        channel.close();
+    }
+    
+    /**
+     * Evicts resident interior blocks until the budget is met or no more 
+     * blocks can be evicted.
+     * 
+     * @param pinnedBlock the block that must not be evicted, or {@code null}.
+     */
+    private void enforceBudget(Block<E> pinnedBlock) {
+        // Two rounds suffice: the first one clears the reference bits.
+        int stepsLeft = 2 * list.getBlocks();
+        
+        while (!closing 
+                && residentBlocks > maxResidentBlocks 
+                && stepsLeft-- > 0) {
+            if (clockHand == null) {
+                clockHand = list.getHeadBlock();
+                
+                if (clockHand == null) {
+                    return;
+                }
+            }
+            
+            Block<E> block = clockHand;
+            clockHand = block.nextBlock;
+            
+            if (block == pinnedBlock
+                    || block.array == null
+                    || block.previousBlock == null 
+                    || block.nextBlock == null) {
+                // Do not evict the pinned, evicted, head or tail blocks.
+                continue;
+            }
+            
+            if (block.referenced || !block.tracked) {
+                // An untracked block gets the same second chance as a 
+                // referenced one.
+                block.referenced = false;
+                block.tracked = true;
+            } else {
+                evict(block);
+            }
+        }
+    }
+    
+    private void evict(Block<E> block) {
+        if (block.spillPosition < 0L) {
+            write(block);
+        }
+        
+        // Returns the storage to the arena of the list, if any.
+        list.releaseStorage(block);
+        block.array = null;
+        block.store = this;
+        residentBlocks--;
+        evictions++;
+    }
+    
+    private void write(Block<E> block) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(bytes);
+            
+            for (int i = 0; i < block.size; i++) {
+                codec.encode(block.get(i), output);
+            }
+            
+            output.flush();
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            long position = channel.size();
+            
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, position + buffer.position());
+            }
+            
+            block.spillPosition = position;
+            block.spillLength = buffer.capacity();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package net.coderodde.util;
+
+import net.coderodde.util.LinkedArrayBlockList.Block;
+
+/**
+ * This interface defines the API for the components that move the storage 
+ * array of a block out of the heap or into a compact form, leaving the block 
+ * in the chain as a stub with {@code array} set to {@code null}.
+ * 
+ * @param <E> the element type.
+ * @author Rodion "rodde" Efremov
+ */
+interface BlockStore<E> {
+    
+    /**
+     * Restores the storage array of the stub {@code block}. The elements must
+     * be put back to their original physical positions so that 
+     * {@code block.headIndex} stays valid.
+     * 
+     * @param block the block to restore.
+     */
+    void fault(Block<E> block);
+}
@@ -0,0 +1,491 @@
+package net.coderodde.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import net.coderodde.util.LinkedArrayBlockList.Block;
+
+/**
+ * This class implements the write-ahead change log of a
+ * {@link LinkedArrayBlockList}. The log file starts with a checkpoint record
+ * holding all the elements of the list, followed by one record per mutation.
+ * Each record is framed as
+ * <tt>[int payload length][int CRC32 of the payload][payload]</tt>, the
+ * payload being an opcode followed by its operands, so that a record torn by
+ * a crash is detected and ignored on recovery.
+ * <p>
+ * The records are buffered and written with a single {@code fsync} per group
+ * of {@code groupCommitRecords} records, so a crash may lose at most the last
+ * {@code groupCommitRecords - 1} mutations.
+ * 
+ * @param <E> the element type.
+ * @author Rodion "rodde" Efremov
+ */
+final class ChangeLog<E> {
+    
+    private static final byte CHECKPOINT = 1;
+    private static final byte ADD = 2;
+    private static final byte INSERT = 3;
+    private static final byte REMOVE_AT = 4;
+    private static final byte SET = 5;
+    private static final byte FILL = 6;
+    private static final byte SET_RANGE = 7;
+    private static final byte APPEND = 8;
+    private static final byte PREPEND = 9;
+    private static final byte REMOVE_FIRST = 10;
+    private static final byte TRUNCATE = 11;
+    private static final byte CLEAR = 12;
+    
+    /**
+     * The size of the record frame header in bytes.
+     */
+    private static final int FRAME_HEADER_SIZE = 8;
+    
+    /**
+     * The log file.
+     */
+    private final Path file;
+    
+    /**
+     * The element codec.
+     */
+    private final BlockCodec<E> codec;
+    
+    /**
+     * The number of records written per {@code fsync}.
+     */
+    private final int groupCommitRecords;
+    
+    /**
+     * The buffer of the current record payload.
+     */
+    private final ByteArrayOutputStream payloadBytes =
+            new ByteArrayOutputStream();
+    
+    /**
+     * The output writing to {@code payloadBytes}.
+     */
+    private final DataOutputStream payload =
+            new DataOutputStream(payloadBytes);
+    
+    /**
+     * The buffer of the records not yet written to the log file.
+     */
+    private final ByteArrayOutputStream pendingRecords =
+            new ByteArrayOutputStream();
+    
+    /**
+     * The checksum of the current record.
+     */
+    private final CRC32 crc = new CRC32();
+    
+    /**
+     * The number of records in {@code pendingRecords}.
+     */
+    private int pendingRecordCount;
+    
+    /**
+     * The log file channel.
+     */
+    private FileChannel channel;
+    
+    ChangeLog(Path file, BlockCodec<E> codec, int groupCommitRecords) {
+        this.file = file;
+        this.codec = codec;
+        this.groupCommitRecords = groupCommitRecords;
+    }
+    
+    /**
+     * Replaces the log file with a checkpoint of the elements of
+     * {@code list}. The checkpoint is written to a temporary file first and
+     * then atomically moved over the log file, so a crash leaves either the
+     * old or the new log in place.
+     * 
+     * @param list the list to checkpoint.
+     * @throws IOException if writing fails.
+     */
+    void checkpoint(LinkedArrayBlockList<E> list) throws IOException {
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        pendingRecords.reset();
+        pendingRecordCount = 0;
+        startRecord(CHECKPOINT);
+        payload.writeInt(list.size());
+        
+        for (E element : list) {
+            codec.encode(element, payload);
+        }
+        
+        // Not endRecord(): a group commit would write the checkpoint to the 
+        // old log file, leaving the temporary file empty.
+        frameRecord();
+        
+        try (FileChannel temporaryChannel =
+                FileChannel.open(temporaryFile,
+                                 StandardOpenOption.CREATE,
+                                 StandardOpenOption.TRUNCATE_EXISTING,
+                                 StandardOpenOption.WRITE)) {
+            write(temporaryChannel);
+            temporaryChannel.force(true);
+        }
+        
+        if (channel != null) {
+            channel.close();
+        }
+        
+        Files.move(temporaryFile,
+                   file,
+                   StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file,
+                                   StandardOpenOption.WRITE,
+                                   StandardOpenOption.APPEND);
+    }
+    
+    void add(E element) {
+        try {
+            startRecord(ADD);
+            codec.encode(element, payload);
+            endRecord();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    void insert(int index, E element) {
+        try {
+            startRecord(INSERT);
+            payload.writeInt(index);
+            codec.encode(element, payload);
+            endRecord();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    void removeAt(int index) {
+        try {
+            startRecord(REMOVE_AT);
+            payload.writeInt(index);
+            endRecord();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    void set(int index, E element) {
+        try {
+            startRecord(SET);
+            payload.writeInt(index);
+            codec.encode(element, payload);
+            endRecord();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    void fill(int fromIndex, int toIndex, E value) {
+        try {
+            startRecord(FILL);
+            payload.writeInt(fromIndex);
+            payload.writeInt(toIndex);
+            codec.encode(value, payload);
+            endRecord();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    void setRange(int fromIndex, Object[] array, int offset, int length) {
+        elements(SET_RANGE, fromIndex, array, offset, length);
+    }
+    
+    void append(Object[] array, int offset, int length) {
+        elements(APPEND, 0, array, offset, length);
+    }
+    
+    void prepend(Object[] array) {
+        elements(PREPEND, 0, array, 0, array.length);
+    }
+    
+    /**
+     * Logs appending the elements of the block chain starting at
+     * {@code headBlock}.
+     * 
+     * @param headBlock  the head block of the chain.
+     * @param chainSize  the number of elements in the chain.
+     */
+    void appendChain(Block<E> headBlock, int chainSize) {
+        try {
+            startRecord(APPEND);
+            payload.writeInt(0);
+            payload.writeInt(chainSize);
+            
+            for (Block<E> block = headBlock;
+                    block != null;
+                    block = block.nextBlock) {
+                for (int i = 0; i < block.size; i++) {
+                    codec.encode(block.get(i), payload);
+                }
+            }
+            
+            endRecord();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    void removeFirst(int count) {
+        operand(REMOVE_FIRST, count);
+    }
+    
+    void truncate(int newSize) {
+        operand(TRUNCATE, newSize);
+    }
+    
+    void clear() {
+        try {
+            startRecord(CLEAR);
+            endRecord();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    /**
+     * Writes all the pending records to the log file and forces them to the
+     * storage device.
+     * 
+     * @throws IOException if writing fails.
+     */
+    void sync() throws IOException {
+        if (pendingRecordCount > 0) {
+            write(channel);
+            channel.force(false);
+        }
+    }
+    
+    /**
+     * Syncs and closes the log file.
+     * 
+     * @throws IOException if writing or closing fails.
+     */
+    void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+    
+    /**
+     * Reads the log file {@code file} and replays its records into
+     * {@code list}. Reading stops at the end of the file or at the first torn
+     * or corrupted record.
+     * 
+     * @param <E>   the element type.
+     * @param file  the log file.
+     * @param codec the element codec.
+     * @param list  the empty list to replay into.
+     * @throws IOException if reading fails.
+     */
+    static <E> void replay(Path file,
+                           BlockCodec<E> codec,
+                           LinkedArrayBlockList<E> list) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        CRC32 crc = new CRC32();
+        
+        while (buffer.remaining() >= FRAME_HEADER_SIZE) {
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            
+            if (length <= 0 || length > buffer.remaining()) {
+                // A torn record: the crash happened while writing it.
+                return;
+            }
+            
+            crc.reset();
+            crc.update(bytes, buffer.position(), length);
+            
+            if ((int) crc.getValue() != checksum) {
+                return;
+            }
+            
+            DataInputStream input =
+                    new DataInputStream(
+                            new ByteArrayInputStream(bytes,
+                                                     buffer.position(),
+                                                     length));
+            buffer.position(buffer.position() + length);
+            apply(input, codec, list);
+        }
+    }
+    
+    private static <E> void apply(DataInputStream input,
+                                  BlockCodec<E> codec,
+                                  LinkedArrayBlockList<E> list)
+            throws IOException {
+        byte opcode = input.readByte();
+        
+        switch (opcode) {
+            case CHECKPOINT:
+                list.clear();
+                list.addAll(readElements(input, codec, input.readInt()));
+                break;
+            
+            case ADD:
+                list.add(codec.decode(input));
+                break;
+            
+            case INSERT:
+                list.add(input.readInt(), codec.decode(input));
+                break;
+            
+            case REMOVE_AT:
+                list.remove(input.readInt());
+                break;
+            
+            case SET:
+                list.set(input.readInt(), codec.decode(input));
+                break;
+            
+            case FILL:
+                list.fill(input.readInt(),
+                          input.readInt(),
+                          codec.decode(input));
+                break;
+            
+            case SET_RANGE: {
+                int fromIndex = input.readInt();
+                E[] elements = readElements(input, codec, input.readInt());
+                list.setRange(fromIndex, elements, 0, elements.length);
+                break;
+            }
+            
+            case APPEND:
+                input.readInt();
+                list.addAll(readElements(input, codec, input.readInt()));
+                break;
+            
+            case PREPEND:
+                input.readInt();
+                list.addAllFirst(
+                        Arrays.asList(
+                                readElements(input, codec, input.readInt())));
+                break;
+            
+            case REMOVE_FIRST:
+                list.pollFirst(input.readInt(), (e) -> {});
+                break;
+            
+            case TRUNCATE:
+                list.splitAt(input.readInt());
+                break;
+            
+            case CLEAR:
+                list.clear();
+                break;
+            
+            default:
+                throw new IOException("Unknown change log opcode: " + opcode);
+        }
+    }
+    
+    private static <E> E[] readElements(DataInputStream input,
+                                        BlockCodec<E> codec,
+                                        int count) throws IOException {
+        E[] elements = (E[]) new Object[count];
+        
+        for (int i = 0; i < count; i++) {
+            elements[i] = codec.decode(input);
+        }
+        
+        return elements;
+    }
+    
+    private void elements(byte opcode,
+                          int fromIndex,
+                          Object[] array,
+                          int offset,
+                          int length) {
+        try {
+            startRecord(opcode);
+            payload.writeInt(fromIndex);
+            payload.writeInt(length);
+            
+            for (int i = offset; i < offset + length; i++) {
+                codec.encode((E) array[i], payload);
+            }
+            
+            endRecord();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    private void operand(byte opcode, int operand) {
+        try {
+            startRecord(opcode);
+            payload.writeInt(operand);
+            endRecord();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+    
+    private void startRecord(byte opcode) throws IOException {
+        payloadBytes.reset();
+        payload.writeByte(opcode);
+    }
+    
+    /**
+     * Frames the current record payload and appends it to the pending
+     * records. Commits the group if it is full.
+     */
+    private void endRecord() throws IOException {
+        frameRecord();
+        
+        if (pendingRecordCount >= groupCommitRecords && channel != null) {
+            sync();
+        }
+    }
+    
+    /**
+     * Frames the current record payload and appends it to the pending
+     * records.
+     */
+    private void frameRecord() throws IOException {
+        payload.flush();
+        byte[] bytes = payloadBytes.toByteArray();
+        crc.reset();
+        crc.update(bytes, 0, bytes.length);
+        DataOutputStream record = new DataOutputStream(pendingRecords);
+        record.writeInt(bytes.length);
+        record.writeInt((int) crc.getValue());
+        record.write(bytes);
+        record.flush();
+        pendingRecordCount++;
+    }
+    
+    private void write(FileChannel target) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(pendingRecords.toByteArray());
+        
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+        
+        pendingRecords.reset();
+        pendingRecordCount = 0;
+    }
+}
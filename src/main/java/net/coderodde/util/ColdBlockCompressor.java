@@ -0,0 +1,184 @@
+package net.coderodde.util;
+
+import java.util.Arrays;
+import net.coderodde.util.LinkedArrayBlockList.Block;
+
+/**
+ * This class compresses the idle interior blocks of a 
+ * {@link LinkedArrayBlockList} and decompresses them transparently on access.
+ * A compressed block stays in the chain as a stub whose {@code array} is 
+ * {@code null} and whose {@code compressedData} holds the contents.
+ * <p>
+ * The idle blocks are detected by sweeps over the block chain: a sweep 
+ * compresses every interior block not accessed since the previous sweep and
+ * clears the reference bit of the others. A sweep runs after the given number
+ * of modifications or, checked once per 256 modifications, after the given
+ * time has passed since the previous sweep.
+ * 
+ * @param <E> the element type.
+ * @author Rodion "rodde" Efremov
+ */
+final class ColdBlockCompressor<E> implements BlockStore<E> {
+    
+    /**
+     * The modification count mask selecting the modifications on which the 
+     * sweep timer is checked.
+     */
+    private static final int TIMER_CHECK_MASK = 255;
+    
+    /**
+     * The list whose blocks this compressor manages.
+     */
+    private final LinkedArrayBlockList<E> list;
+    
+    /**
+     * The element compressor.
+     */
+    private final BlockCompressor<E> compressor;
+    
+    /**
+     * The number of modifications between two sweeps, or 0 if the sweeps are
+     * not triggered by modifications.
+     */
+    private final int idleModifications;
+    
+    /**
+     * The time between two sweeps in nanoseconds, or 0 if the sweeps are not
+     * triggered by time.
+     */
+    private final long idleNanos;
+    
+    /**
+     * The modification count of the list at the previous sweep.
+     */
+    private int lastSweepModificationCount;
+    
+    /**
+     * The time of the previous sweep.
+     */
+    private long lastSweepNanos;
+    
+    /**
+     * Indicates whether this compressor is closing, in which case no blocks 
+     * are compressed anymore.
+     */
+    private boolean closing;
+    
+    ColdBlockCompressor(LinkedArrayBlockList<E> list,
+                        BlockCompressor<E> compressor,
+                        int idleModifications,
+                        long idleMillis) {
+        this.list = list;
+        this.compressor = compressor;
+        this.idleModifications = idleModifications;
+        this.idleNanos = idleMillis * 1_000_000L;
+        this.lastSweepModificationCount = list.getModificationCount();
+        this.lastSweepNanos = System.nanoTime();
+    }
+    
+    /**
+     * Notifies this compressor about a modification of the list, and runs a
+     * sweep if it is due.
+     * 
+     * @param modificationCount the current modification count of the list.
+     */
+    void modified(int modificationCount) {
+        if (idleModifications > 0 
+                && modificationCount - lastSweepModificationCount 
+                    >= idleModifications) {
+            sweep();
+        } else if (idleNanos > 0L 
+                && (modificationCount & TIMER_CHECK_MASK) == 0
+                && System.nanoTime() - lastSweepNanos >= idleNanos) {
+            sweep();
+        }
+    }
+    
+    /**
+     * Compresses the interior blocks not accessed since the previous sweep.
+     */
+    void sweep() {
+        lastSweepModificationCount = list.getModificationCount();
+        lastSweepNanos = System.nanoTime();
+        
+        if (closing) {
+            return;
+        }
+        
+        Block<E> headBlock = list.getHeadBlock();
+        
+        if (headBlock == null) {
+            return;
+        }
+        
+        for (Block<E> block = headBlock.nextBlock;
+                block != null && block.nextBlock != null;
+                block = block.nextBlock) {
+            if (block.array == null) {
+                continue;
+            }
+            
+            if (block.referenced || !block.tracked) {
+                // An untracked block gets the same second chance as a 
+                // referenced one.
+                block.referenced = false;
+                block.tracked = true;
+            } else {
+                compress(block);
+            }
+        }
+    }
+    
+    @Override
+    public void fault(Block<E> block) {
+        E[] array = (E[]) new Object[block.capacity];
+        compressor.decompress(block.compressedData, 
+                              array, 
+                              block.headIndex, 
+                              block.size);
+        block.array = array;
+        block.offset = 0;
+        block.compressedData = null;
+        block.shared = false;
+    }
+    
+    /**
+     * Decompresses all the blocks of the list.
+     */
+    void close() {
+        closing = true;
+        
+        for (Block<E> block = list.getHeadBlock();
+                block != null;
+                block = block.nextBlock) {
+            block.ensureResident();
+            
+            if (block.store == this) {
+                block.store = null;
+            }
+        }
+    }
+    
+    private void compress(Block<E> block) {
+        E[] array = block.array;
+        
+        if (block.offset != 0 || array.length != block.capacity) {
+            // The block compressors expect a whole ring buffer, not a region
+            // of an arena slab.
+            array = Arrays.copyOfRange(array, 
+                                       block.offset, 
+                                       block.offset + block.capacity);
+        }
+        
+        byte[] data = compressor.compress(array, 
+                                          block.headIndex,
+                                          block.size);
+        
+        if (data != null) {
+            block.compressedData = data;
+            list.releaseStorage(block);
+            block.array = null;
+            block.store = this;
+        }
+    }
+}
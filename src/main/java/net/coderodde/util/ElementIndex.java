@@ -0,0 +1,111 @@
+package net.coderodde.util;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * This class implements a secondary index mapping each element of a
+ * {@link LinkedArrayBlockList} to the blocks holding it. In order to save
+ * memory, an element stored in a single position maps directly to its block.
+ * An element with multiple occurrences maps to an identity map from each
+ * block holding it to the number of its occurrences in that block, so that
+ * every update runs in expected constant time no matter how many duplicates
+ * the element has.
+ * 
+ * @param <E> the element type.
+ * @author Rodion "rodde" Efremov
+ */
+final class ElementIndex<E> {
+    
+    /**
+     * Maps each element either to a block or to a map from blocks to
+     * occurrence counts.
+     */
+    private final Map<Object, Object> map = new HashMap<>();
+    
+    /**
+     * Records an occurrence of {@code element} in {@code block}.
+     * 
+     * @param element the element.
+     * @param block   the block holding the element.
+     */
+    void add(Object element, LinkedArrayBlockList.Block<E> block) {
+        Object value = map.get(element);
+        
+        if (value == null) {
+            map.put(element, block);
+        } else if (value instanceof LinkedArrayBlockList.Block) {
+            Map<Object, int[]> blockMap = new IdentityHashMap<>(4);
+            blockMap.put(value, new int[]{ 1 });
+            increment(blockMap, block);
+            map.put(element, blockMap);
+        } else {
+            increment((Map<Object, int[]>) value, block);
+        }
+    }
+    
+    /**
+     * Removes a single occurrence of {@code element} in {@code block}.
+     * 
+     * @param element the element.
+     * @param block   the block that held the element.
+     */
+    void remove(Object element, LinkedArrayBlockList.Block<E> block) {
+        Object value = map.get(element);
+        
+        if (value == block) {
+            map.remove(element);
+        } else if (value instanceof Map) {
+            Map<Object, int[]> blockMap = (Map<Object, int[]>) value;
+            int[] count = blockMap.get(block);
+            
+            if (count != null && --count[0] == 0) {
+                blockMap.remove(block);
+                
+                if (blockMap.isEmpty()) {
+                    map.remove(element);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Returns <tt>true</tt> if the indexed list contains {@code element}.
+     * 
+     * @param element the element to query.
+     * @return <tt>true</tt> if the element is indexed.
+     */
+    boolean contains(Object element) {
+        return map.containsKey(element);
+    }
+    
+    /**
+     * Returns the blocks holding {@code element}: {@code null} if there are
+     * none, the block itself if the element occurs once, and otherwise an
+     * identity map whose keys are the blocks holding the element.
+     * 
+     * @param element the element to query.
+     * @return the blocks holding the element.
+     */
+    Object blocksOf(Object element) {
+        return map.get(element);
+    }
+    
+    /**
+     * Removes all the entries from this index.
+     */
+    void clear() {
+        map.clear();
+    }
+    
+    private static void increment(Map<Object, int[]> blockMap, Object block) {
+        int[] count = blockMap.get(block);
+        
+        if (count == null) {
+            blockMap.put(block, new int[]{ 1 });
+        } else {
+            count[0]++;
+        }
+    }
+}
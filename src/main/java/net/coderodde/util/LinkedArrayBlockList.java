@@ -1,20 +1,33 @@
 package net.coderodde.util;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
 import java.lang.reflect.Array;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.Random;
 import java.util.Spliterator;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
 import java.util.function.UnaryOperator;
+import java.util.stream.Collector;
 import java.util.stream.Stream;
 
 /**
@@ -23,7 +36,7 @@ import java.util.stream.Stream;
  */
 public final class LinkedArrayBlockList<E>
         implements List<E>, Deque<E>, Queue<E>, Cloneable, Serializable {
-
+    
     private static final long serialVersionUID = 6372710952572697241L;
     
     /**
@@ -43,13 +56,29 @@ public final class LinkedArrayBlockList<E>
     /**
      * The default initial capacity.
      */
-    private static final int DEFAULT_BLOCK_CAPACITY = 100;
+    static final int DEFAULT_BLOCK_CAPACITY = 100;
     
     /**
      * The minimum allowed capacity.
      */
     private static final int MINIMUM_BLOCK_CAPACITY = 4;
     
+    /**
+     * The capacity of the head block allocated for an empty list. The head 
+     * block grows geometrically up to the block capacity of the list so that
+     * small lists do not pay for a full block.
+     */
+    private static final int INITIAL_BLOCK_CAPACITY = MINIMUM_BLOCK_CAPACITY;
+    
+    /**
+     * Indicates whether the lists may collect runtime statistics. Since this
+     * is a compile-time switch for the JIT, the instrumentation costs nothing
+     * when disabled.
+     */
+    static final boolean STATISTICS_ENABLED = 
+            Boolean.getBoolean(
+                    "net.coderodde.util.LinkedArrayBlockList.statistics");
+    
     /**
      * This static inner class defines the data type for representing the
      * blocks.
@@ -59,9 +88,10 @@ public final class LinkedArrayBlockList<E>
     static final class Block<E> {
         
         /**
-         * The capacity of {@code array}.
+         * The capacity of this block, that is, the length of its storage 
+         * region in {@code array}.
          */
-        final int capacity;
+        int capacity;
         
         /**
          * The number of elements stored in this block.
@@ -74,10 +104,18 @@ public final class LinkedArrayBlockList<E>
         int headIndex;
         
         /**
-         * The actual storage array.
+         * The actual storage array, or {@code null} if this block is evicted
+         * to a spill file.
          */
         E[] array;
         
+        /**
+         * The index of the first component of the storage region of this 
+         * block in {@code array}. Nonzero only if the region is carved from a
+         * slab of a {@link BlockArena}.
+         */
+        int offset;
+        
         /**
          * The predecessor block or is set to {@code null} if this block is at
          * the head of the list.
@@ -90,11 +128,128 @@ public final class LinkedArrayBlockList<E>
          */
         Block<E> nextBlock;
         
+        /**
+         * Indicates whether {@code array} may be referenced by a block of 
+         * another list. A shared array is copied on the first write.
+         */
+        boolean shared;
+        
+        /**
+         * The store that last moved the storage array of this block away, or
+         * {@code null} if no store has done so.
+         */
+        BlockStore<E> store;
+        
+        /**
+         * The position of the spill record holding the current contents of 
+         * this block, or -1 if the contents were not spilled since the last
+         * modification.
+         */
+        long spillPosition = -1L;
+        
+        /**
+         * The length of the spill record at {@code spillPosition}.
+         */
+        int spillLength;
+        
+        /**
+         * The compressed contents of this block, or {@code null} if this block
+         * is not compressed.
+         */
+        byte[] compressedData;
+        
+        /**
+         * Indicates whether this block was accessed since the clock hand of 
+         * the spiller or the compressor last passed it.
+         */
+        boolean referenced;
+        
+        /**
+         * Indicates whether the accesses to this block are tracked. The clock
+         * hand of the spiller or the compressor marks a block tracked on its 
+         * first pass, and only the tracked blocks may be evicted, so the 
+         * blocks of the lists that neither spill nor compress skip the 
+         * residency check and the reference bit altogether. A block stays 
+         * tracked when it moves to another list.
+         */
+        boolean tracked;
+        
         Block(int capacity) {
             this.capacity = capacity;
             this.array = (E[]) new Object[capacity];
         }
         
+        Block(E[] array, int offset, int capacity) {
+            this.capacity = capacity;
+            this.array = array;
+            this.offset = offset;
+        }
+        
+        /**
+         * Returns a new block that shares the storage array of this block.
+         * Both blocks are marked as shared so that the first write through
+         * either of them copies the array first.
+         * 
+         * @return a block sharing the storage array with this block.
+         */
+        Block<E> share() {
+            Block<E> copy = new Block<>(array, offset, capacity);
+            copy.size = size;
+            copy.headIndex = headIndex;
+            copy.store = store;
+            copy.compressedData = compressedData;
+            copy.spillPosition = spillPosition;
+            copy.spillLength = spillLength;
+            copy.tracked = tracked;
+            copy.shared = true;
+            shared = true;
+            return copy;
+        }
+        
+        /**
+         * Faults in the storage array if this block is evicted and marks this
+         * block as referenced. Does nothing unless this block is tracked.
+         */
+        void ensureResident() {
+            if (!tracked) {
+                return;
+            }
+            
+            referenced = true;
+            
+            if (array == null) {
+                store.fault(this);
+            }
+        }
+        
+        /**
+         * Returns the resident storage array of this block.
+         * 
+         * @return the storage array.
+         */
+        E[] residentArray() {
+            ensureResident();
+            return array;
+        }
+        
+        /**
+         * Prepares this block for a write: makes sure that {@code array} is 
+         * resident and owned by this block only, and invalidates the spilled
+         * copy of the contents.
+         */
+        void unshare() {
+            if (tracked) {
+                ensureResident();
+                spillPosition = -1L;
+            }
+            
+            if (shared) {
+                array = Arrays.copyOfRange(array, offset, offset + capacity);
+                offset = 0;
+                shared = false;
+            }
+        }
+        
         boolean isFull() {
             return size == capacity;
         }
@@ -104,16 +259,18 @@ public final class LinkedArrayBlockList<E>
         }
         
         E get(int logicalIndex) {
-            return array[logicalIndexToPhysical(logicalIndex)];
+            ensureResident();
+            return array[offset + logicalIndexToPhysical(logicalIndex)];
         }
         
         void set(int logicalIndex, E element) {
-            array[logicalIndexToPhysical(logicalIndex)] = element;
+            unshare();
+            array[offset + logicalIndexToPhysical(logicalIndex)] = element;
         }
         
         /**
          * Shifts array components <tt>array[startIndex], array[startIndex + 1],
-         * ..., array[startIndex + shiftLength - 1]</tt> {@code shiftLeft}
+         * ..., array[startIndex + portionLength - 1]</tt> {@code shiftLength}
          * array components to the left. If necessary, this method will wrap 
          * over the beginning of the array and shift from the right end of the
          * array.
@@ -124,19 +281,20 @@ public final class LinkedArrayBlockList<E>
          * @param shiftLength   the number of elements to shift.
          */
         void shiftLeft(int startIndex, int portionLength, int shiftLength) {
+            unshare();
             int sourceIndex = startIndex;
-            int targetIndex = mod(startIndex - portionLength, capacity);
+            int targetIndex = mod(startIndex - shiftLength, capacity);
             
             for (int i = 0; i < portionLength; i++) {
-                array[targetIndex] = array[sourceIndex];
-                targetIndex = mod(targetIndex - 1, capacity);
-                sourceIndex = mod(sourceIndex - 1, capacity);
+                array[offset + targetIndex] = array[offset + sourceIndex];
+                targetIndex = mod(targetIndex + 1, capacity);
+                sourceIndex = mod(sourceIndex + 1, capacity);
             }
         }
         
         /**
          * Shifts array components <tt>array[startIndex], array[startIndex + 1],
-         * ..., array[startIndex + portionLength - 1]</tt> {@code shiftLeft}
+         * ..., array[startIndex + portionLength - 1]</tt> {@code shiftLength}
          * array components to the <b>right</b>. If necessary, this method will 
          * wrap over the end of the array and shift from the left end.
          * 
@@ -146,11 +304,12 @@ public final class LinkedArrayBlockList<E>
          * @param shiftLength   the number of elements to shift.
          */
         void shiftRight(int startIndex, int portionLength, int shiftLength) {
+            unshare();
             int sourceIndex = mod(startIndex + portionLength - 1, capacity);
             int targetIndex = mod(sourceIndex + shiftLength, capacity);
             
             for (int i = 0; i < portionLength; i++) {
-                array[targetIndex] = array[sourceIndex];
+                array[offset + targetIndex] = array[offset + sourceIndex];
                 targetIndex = mod(targetIndex - 1, capacity);
                 sourceIndex = mod(sourceIndex - 1, capacity);
             }
@@ -164,11 +323,366 @@ public final class LinkedArrayBlockList<E>
             shiftRight(startIndex, 1, 1);
         }
         
+        /**
+         * Returns the index of the first element of the first contiguous 
+         * segment of this block in {@code array}.
+         * 
+         * @return the start of the first segment.
+         */
+        int firstSegmentStart() {
+            return offset + headIndex;
+        }
+        
+        /**
+         * Returns the index one past the last element of the first contiguous
+         * segment of this block in {@code array}.
+         * 
+         * @return the exclusive end of the first segment.
+         */
+        int firstSegmentEnd() {
+            return offset + Math.min(headIndex + size, capacity);
+        }
+        
+        /**
+         * Returns the index of the first element of the second contiguous 
+         * segment of this block in {@code array}, which is the start of the 
+         * storage region. The second segment is empty unless the elements 
+         * wrap over the end of the region.
+         * 
+         * @return the start of the second segment.
+         */
+        int secondSegmentStart() {
+            return offset;
+        }
+        
+        /**
+         * Returns the index one past the last element of the second 
+         * contiguous segment of this block in {@code array}.
+         * 
+         * @return the exclusive end of the second segment.
+         */
+        int secondSegmentEnd() {
+            return offset + Math.max(headIndex + size - capacity, 0);
+        }
+        
+        /**
+         * Returns the logical index of the first occurrence of {@code o} in 
+         * this block, or -1 if there is no such. Scans the contiguous segments
+         * of {@code array} directly.
+         * 
+         * @param o the element to search.
+         * @return the logical index of {@code o} or -1.
+         */
+        int indexOf(Object o) {
+            ensureResident();
+            int firstSegmentStart = firstSegmentStart();
+            int firstSegmentEnd = firstSegmentEnd();
+            int secondSegmentEnd = secondSegmentEnd();
+            int firstSegmentLength = firstSegmentEnd - firstSegmentStart;
+            
+            if (o == null) {
+                for (int i = firstSegmentStart; i < firstSegmentEnd; i++) {
+                    if (array[i] == null) {
+                        return i - firstSegmentStart;
+                    }
+                }
+                
+                for (int i = offset; i < secondSegmentEnd; i++) {
+                    if (array[i] == null) {
+                        return firstSegmentLength + i - offset;
+                    }
+                }
+            } else {
+                for (int i = firstSegmentStart; i < firstSegmentEnd; i++) {
+                    if (o.equals(array[i])) {
+                        return i - firstSegmentStart;
+                    }
+                }
+                
+                for (int i = offset; i < secondSegmentEnd; i++) {
+                    if (o.equals(array[i])) {
+                        return firstSegmentLength + i - offset;
+                    }
+                }
+            }
+            
+            return -1;
+        }
+        
+        /**
+         * Returns the logical index of the last occurrence of {@code o} in 
+         * this block, or -1 if there is no such.
+         * 
+         * @param o the element to search.
+         * @return the logical index of {@code o} or -1.
+         */
+        int lastIndexOf(Object o) {
+            ensureResident();
+            int firstSegmentStart = firstSegmentStart();
+            int firstSegmentEnd = firstSegmentEnd();
+            int secondSegmentEnd = secondSegmentEnd();
+            int firstSegmentLength = firstSegmentEnd - firstSegmentStart;
+            
+            if (o == null) {
+                for (int i = secondSegmentEnd - 1; i >= offset; i--) {
+                    if (array[i] == null) {
+                        return firstSegmentLength + i - offset;
+                    }
+                }
+                
+                for (int i = firstSegmentEnd - 1; 
+                        i >= firstSegmentStart; 
+                        i--) {
+                    if (array[i] == null) {
+                        return i - firstSegmentStart;
+                    }
+                }
+            } else {
+                for (int i = secondSegmentEnd - 1; i >= offset; i--) {
+                    if (o.equals(array[i])) {
+                        return firstSegmentLength + i - offset;
+                    }
+                }
+                
+                for (int i = firstSegmentEnd - 1; 
+                        i >= firstSegmentStart; 
+                        i--) {
+                    if (o.equals(array[i])) {
+                        return i - firstSegmentStart;
+                    }
+                }
+            }
+            
+            return -1;
+        }
+        
+        /**
+         * Replaces the storage region of this block with the larger, empty
+         * region of {@code newArray}. The elements are moved to the beginning
+         * of the new region.
+         * 
+         * @param newArray    the array of the new storage region.
+         * @param newOffset   the start of the new region in the array.
+         * @param newCapacity the length of the new region.
+         */
+        void grow(E[] newArray, int newOffset, int newCapacity) {
+            copyTo(0, newArray, newOffset, size);
+            array = newArray;
+            offset = newOffset;
+            capacity = newCapacity;
+            headIndex = 0;
+            shared = false;
+            spillPosition = -1L;
+        }
+        
+        /**
+         * Appends up to {@code length} elements from {@code source} starting 
+         * at {@code offset} to the free slots of this block. Copies at most two
+         * contiguous runs via {@code System.arraycopy}.
+         * 
+         * @param source the source array.
+         * @param offset the index of the first element to copy.
+         * @param length the maximum number of elements to copy.
+         * @return the number of copied elements.
+         */
+        int append(Object[] source, int offset, int length) {
+            unshare();
+            int count = Math.min(length, capacity - size);
+            int start = logicalIndexToPhysical(size);
+            int firstRunLength = Math.min(count, capacity - start);
+            System.arraycopy(source, 
+                             offset, 
+                             array, 
+                             this.offset + start, 
+                             firstRunLength);
+            System.arraycopy(source, 
+                             offset + firstRunLength,
+                             array,
+                             this.offset, 
+                             count - firstRunLength);
+            size += count;
+            return count;
+        }
+        
+        /**
+         * Prepends the elements 
+         * <tt>source[offset], ..., source[offset + length - 1]</tt> to this
+         * block, in that order. The block must have at least {@code length}
+         * free slots.
+         * 
+         * @param source the source array.
+         * @param offset the index of the first element to copy.
+         * @param length the number of elements to copy.
+         */
+        void prepend(Object[] source, int offset, int length) {
+            unshare();
+            headIndex = (headIndex - length + capacity) % capacity;
+            int firstRunLength = Math.min(length, capacity - headIndex);
+            System.arraycopy(source, 
+                             offset, 
+                             array, 
+                             this.offset + headIndex, 
+                             firstRunLength);
+            System.arraycopy(source, 
+                             offset + firstRunLength, 
+                             array, 
+                             this.offset, 
+                             length - firstRunLength);
+            size += length;
+        }
+        
+        /**
+         * Assigns {@code value} to {@code length} elements starting at 
+         * {@code logicalIndex}, in at most two contiguous runs.
+         * 
+         * @param logicalIndex the logical index of the first element.
+         * @param length       the number of elements to assign.
+         * @param value        the value to assign.
+         */
+        void fill(int logicalIndex, int length, E value) {
+            unshare();
+            int start = logicalIndexToPhysical(logicalIndex);
+            int firstRunLength = Math.min(length, capacity - start);
+            Arrays.fill(array, 
+                        offset + start, 
+                        offset + start + firstRunLength, 
+                        value);
+            Arrays.fill(array, offset, offset + length - firstRunLength, value);
+        }
+        
+        /**
+         * Overwrites {@code length} elements starting at {@code logicalIndex}
+         * with the elements of {@code source} starting at {@code offset}, in 
+         * at most two contiguous runs.
+         * 
+         * @param logicalIndex the logical index of the first element.
+         * @param source       the source array.
+         * @param offset       the index of the first source element.
+         * @param length       the number of elements to overwrite.
+         */
+        void copyFrom(int logicalIndex, 
+                      Object[] source, 
+                      int offset, 
+                      int length) {
+            unshare();
+            int start = logicalIndexToPhysical(logicalIndex);
+            int firstRunLength = Math.min(length, capacity - start);
+            System.arraycopy(source, 
+                             offset, 
+                             array, 
+                             this.offset + start, 
+                             firstRunLength);
+            System.arraycopy(source, 
+                             offset + firstRunLength, 
+                             array, 
+                             this.offset, 
+                             length - firstRunLength);
+        }
+        
+        /**
+         * Overwrites {@code length} elements of {@code target} starting at
+         * {@code targetLogicalIndex} with the elements of this block starting
+         * at {@code logicalIndex}, copying directly between the two storage
+         * arrays.
+         * 
+         * @param logicalIndex       the logical index of the first element to
+         *                           copy.
+         * @param target             the target block.
+         * @param targetLogicalIndex the logical index of the first 
+         *                           overwritten element.
+         * @param length             the number of elements to copy.
+         */
+        void copyTo(int logicalIndex, 
+                    Block<E> target, 
+                    int targetLogicalIndex, 
+                    int length) {
+            target.unshare();
+            int targetStart = target.logicalIndexToPhysical(targetLogicalIndex);
+            int firstRunLength = Math.min(length, target.capacity - targetStart);
+            copyTo(logicalIndex, 
+                   target.array, 
+                   target.offset + targetStart, 
+                   firstRunLength);
+            copyTo(logicalIndex + firstRunLength,
+                   target.array,
+                   target.offset,
+                   length - firstRunLength);
+        }
+        
+        /**
+         * Removes the elements at the logical indices {@code newSize} and 
+         * above.
+         * 
+         * @param newSize the new size of this block.
+         */
+        void truncate(int newSize) {
+            unshare();
+            
+            for (int i = newSize; i < size; i++) {
+                array[offset + logicalIndexToPhysical(i)] = null;
+            }
+            
+            size = newSize;
+        }
+        
+        /**
+         * Copies {@code length} elements starting at {@code logicalIndex} to
+         * {@code target} starting at {@code targetIndex}. Copies at most two 
+         * contiguous runs via {@code System.arraycopy}.
+         * 
+         * @param logicalIndex the logical index of the first element to copy.
+         * @param target       the target array.
+         * @param targetIndex  the index of the first target component.
+         * @param length       the number of elements to copy.
+         */
+        void copyTo(int logicalIndex, 
+                    Object[] target, 
+                    int targetIndex, 
+                    int length) {
+            ensureResident();
+            int start = logicalIndexToPhysical(logicalIndex);
+            int firstRunLength = Math.min(length, capacity - start);
+            System.arraycopy(array, 
+                             offset + start, 
+                             target, 
+                             targetIndex, 
+                             firstRunLength);
+            System.arraycopy(array, 
+                             offset, 
+                             target, 
+                             targetIndex + firstRunLength,
+                             length - firstRunLength);
+        }
+        
+        /**
+         * Removes the first {@code count} elements of this block.
+         * 
+         * @param count the number of elements to remove.
+         */
+        void removeFirst(int count) {
+            unshare();
+            int firstRunLength = Math.min(count, capacity - headIndex);
+            Arrays.fill(array, 
+                        offset + headIndex, 
+                        offset + headIndex + firstRunLength, 
+                        null);
+            Arrays.fill(array, offset, offset + count - firstRunLength, null);
+            headIndex = (headIndex + count) % capacity;
+            size -= count;
+        }
+        
         private int logicalIndexToPhysical(int logicalIndex) {
             return (headIndex + logicalIndex) % capacity;
         }
         
-        private void remove(int logicalIndex) {
+        /**
+         * Removes the element at the given logical index by shifting the 
+         * shorter side of the block.
+         * 
+         * @param logicalIndex the logical index of the element to remove.
+         * @return the number of shifted array components.
+         */
+        int remove(int logicalIndex) {
             int elementsOnLeft = logicalIndex;
             int elementsOnRight = size - logicalIndex - 1;
             
@@ -177,9 +691,41 @@ public final class LinkedArrayBlockList<E>
                 set(0, null); // Let the GC do its job.
                 incrementHeadIndex();
                 size--;
+                return elementsOnLeft;
             } else {
-                shiftLeft(headIndex, elementsOnRight, 1);
+                shiftLeft(logicalIndexToPhysical(logicalIndex + 1),
+                          elementsOnRight, 
+                          1);
                 set(--size, null); // Let the GC do its job.
+                return elementsOnRight;
+            }
+        }
+        
+        /**
+         * Inserts {@code element} at the given logical index by shifting the
+         * shorter side of the block. This block must not be full.
+         * 
+         * @param logicalIndex the logical index of the new element.
+         * @param element      the element to insert.
+         * @return the number of shifted array components.
+         */
+        int insert(int logicalIndex, E element) {
+            int elementsOnLeft = logicalIndex;
+            int elementsOnRight = size - logicalIndex;
+            
+            if (elementsOnLeft < elementsOnRight) {
+                shiftLeft(headIndex, elementsOnLeft, 1);
+                headIndex = mod(headIndex - 1, capacity);
+                size++;
+                set(logicalIndex, element);
+                return elementsOnLeft;
+            } else {
+                shiftRight(logicalIndexToPhysical(logicalIndex),
+                           elementsOnRight,
+                           1);
+                size++;
+                set(logicalIndex, element);
+                return elementsOnRight;
             }
         }
         
@@ -226,9 +772,139 @@ public final class LinkedArrayBlockList<E>
      */
     private Block<E> tailBlock;
     
+    /**
+     * The runtime statistics of this list, or {@code null} if not collected.
+     */
+    private transient LinkedArrayBlockListStatistics statistics;
+    
+    /**
+     * The optional index mapping the elements to the blocks holding them, or
+     * {@code null} if not maintained.
+     */
+    private transient ElementIndex<E> elementIndex;
+    
+    /**
+     * The spiller evicting the interior blocks to a spill file, or 
+     * {@code null} if spilling is disabled.
+     */
+    private transient BlockSpiller<E> spiller;
+    
+    /**
+     * The compressor of the idle blocks, or {@code null} if compression is
+     * disabled.
+     */
+    private transient ColdBlockCompressor<E> coldBlockCompressor;
+    
+    /**
+     * The maximum size of this list in the sliding window mode, or 0 if this
+     * list is unbounded.
+     */
+    private int windowSize;
+    
+    /**
+     * Indicates whether any of the optional features observing the appended
+     * elements is enabled. Lets {@link #add(Object)} skip all of them with a
+     * single check. Not transient, since {@code windowSize} is not either.
+     */
+    private boolean appendHooks;
+    
+    /**
+     * The listener notified about the elements evicted from the sliding 
+     * window, or {@code null}.
+     */
+    private transient SegmentVisitor<? super E> evictionListener;
+    
+    /**
+     * Indicates whether the blocks evicted from the sliding window are reused
+     * as new tail blocks.
+     */
+    private boolean recycleEvictedBlocks;
+    
+    /**
+     * An evicted block waiting for reuse, or {@code null}.
+     */
+    private transient Block<E> spareBlock;
+    
+    /**
+     * Indicates whether the hash code of this list is cached.
+     */
+    private transient boolean hashCodeCaching;
+    
+    /**
+     * Indicates whether {@code cachedHashCode} holds a hash code computed at 
+     * the modification count {@code cachedHashCodeModificationCount}.
+     */
+    private transient boolean hashCodeCached;
+    
+    /**
+     * The cached hash code.
+     */
+    private transient int cachedHashCode;
+    
+    /**
+     * The modification count at which {@code cachedHashCode} was valid.
+     */
+    private transient int cachedHashCodeModificationCount;
+    
+    /**
+     * Indicates whether the positional edits keep a gap at the edit point.
+     */
+    private boolean gapEditing;
+    
+    /**
+     * The block containing the most recently edited position, or 
+     * {@code null}.
+     */
+    private transient Block<E> cursorBlock;
+    
+    /**
+     * The index of the first element of {@code cursorBlock} in this list.
+     */
+    private transient int cursorBlockStart;
+    
+    /**
+     * The modification count at which {@code cursorBlock} and 
+     * {@code gapBlock} were valid.
+     */
+    private transient int cursorModificationCount;
+    
+    /**
+     * The block whose free tail slots and the free head slots of its next 
+     * block form the current gap, or {@code null}.
+     */
+    private transient Block<E> gapBlock;
+    
+    /**
+     * The arena providing the block storage, or {@code null}.
+     */
+    private transient BlockArena arena;
+    
+    /**
+     * The write-ahead log of the modifications of this list, or 
+     * {@code null} if logging is disabled.
+     */
+    private transient ChangeLog<E> changeLog;
+    
+    /**
+     * The lock-free reader of this list, or {@code null} if the concurrent 
+     * reads are disabled.
+     */
+    private transient LinkedArrayBlockListReader<E> reader;
+    
+    /**
+     * The chain of the empty full-capacity blocks allocated ahead of time by
+     * {@link #ensureCapacity(int)}, linked via {@code nextBlock}, or 
+     * {@code null}.
+     */
+    private transient Block<E> reservedBlocks;
+    
+    /**
+     * The number of blocks in {@code reservedBlocks}.
+     */
+    private transient int reservedBlockCount;
+    
     public LinkedArrayBlockList(int blockCapacity) {
         this.blockCapacity = checkBlockCapacity(blockCapacity);
-        tailBlock = headBlock = new Block<>(blockCapacity);
     }
     
     public LinkedArrayBlockList() {
@@ -236,25 +912,141 @@ public final class LinkedArrayBlockList<E>
     }
     
     /**
-     * Returns the number of elements in this list.
+     * Constructs a list holding the elements of {@code c} in its iteration 
+     * order, with the default block capacity.
      * 
-     * @return the number of elements in this list. 
+     * @param c the collection whose elements to hold.
+     * @see #LinkedArrayBlockList(int, Collection)
      */
-    @Override
-    public int size() {
-        return size;
+    public LinkedArrayBlockList(Collection<? extends E> c) {
+        this(DEFAULT_BLOCK_CAPACITY, c);
     }
-
+    
     /**
-     * Returns <tt>true</tt> if this list contains no elements.
+     * Constructs a list holding the elements of {@code c} in its iteration 
+     * order. The exact number of blocks is allocated and linked up front: 
+     * all the blocks but the last one are full, and the last one is only as 
+     * large as the remaining elements need. The elements are copied from 
+     * {@code c.toArray()} in block-sized {@code System.arraycopy} chunks.
      * 
-     * @return <tt>true</tt> if this list contains no elements.
+     * @param blockCapacity the block capacity.
+     * @param c             the collection whose elements to hold.
      */
-    @Override
+    public LinkedArrayBlockList(int blockCapacity, 
+                                Collection<? extends E> c) {
+        this(blockCapacity);
+        Objects.requireNonNull(c, "The input collection is null.");
+        Object[] array = c.toArray();
+        
+        for (int index = 0; index < array.length; index += blockCapacity) {
+            int length = Math.min(blockCapacity, array.length - index);
+            Block<E> block = 
+                    allocateBlock(Math.max(INITIAL_BLOCK_CAPACITY, length));
+            block.append(array, index, length);
+            
+            if (tailBlock == null) {
+                headBlock = block;
+            } else {
+                tailBlock.nextBlock = block;
+                block.previousBlock = tailBlock;
+            }
+            
+            tailBlock = block;
+            blocks++;
+        }
+        
+        size = array.length;
+    }
+    
+    /**
+     * Returns a copy of this list. The copy shares the storage arrays of the
+     * blocks with this list; a storage array is copied only when it is written
+     * to through either of the lists. Cloning runs in time proportional to
+     * the number of blocks, not to the number of elements.
+     * 
+     * @return a copy of this list.
+     */
+    @Override
+    public LinkedArrayBlockList<E> clone() {
+        LinkedArrayBlockList<E> copy;
+        
+        try {
+            copy = (LinkedArrayBlockList<E>) super.clone();
+        } catch (CloneNotSupportedException ex) {
+            throw new InternalError(ex);
+        }
+        
+        copy.modificationCount = 0;
+        copy.statistics = null;
+        copy.elementIndex = null;
+        copy.spiller = null;
+        copy.coldBlockCompressor = null;
+        copy.spareBlock = null;
+        copy.hashCodeCaching = false;
+        copy.hashCodeCached = false;
+        copy.cursorBlock = null;
+        // The stamp of this list must not become valid as the modification
+        // count of the copy grows back.
+        copy.cursorModificationCount = -1;
+        copy.gapBlock = null;
+        copy.changeLog = null;
+        copy.reader = null;
+        copy.updateAppendHooks();
+        copy.reservedBlocks = null;
+        copy.reservedBlockCount = 0;
+        copy.headBlock = null;
+        copy.tailBlock = null;
+        
+        for (Block<E> block = headBlock;
+                block != null;
+                block = block.nextBlock) {
+            Block<E> blockCopy = block.share();
+            
+            if (copy.tailBlock == null) {
+                copy.headBlock = blockCopy;
+            } else {
+                copy.tailBlock.nextBlock = blockCopy;
+                blockCopy.previousBlock = copy.tailBlock;
+            }
+            
+            copy.tailBlock = blockCopy;
+        }
+        
+        return copy;
+    }
+    
+    /**
+     * Returns an unmodifiable snapshot of the current contents of this list.
+     * Subsequent modifications of this list are not visible through the 
+     * snapshot. Just like {@link #clone()}, the snapshot shares the block 
+     * storage with this list until either one is modified.
+     * 
+     * @return an unmodifiable snapshot of this list.
+     */
+    public List<E> snapshot() {
+        return Collections.unmodifiableList(clone());
+    }
+    
+    /**
+     * Returns the number of elements in this list.
+     * 
+     * @return the number of elements in this list. 
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Returns <tt>true</tt> if this list contains no elements.
+     * 
+     * @return <tt>true</tt> if this list contains no elements.
+     */
+    @Override
     public boolean isEmpty() {
         return size == 0;
     }
-
+    
     /**
      * Returns <tt>true</tt> if this list contains the specified element.
      * More formally, returns <tt>true</tt> if and only if this list contains
@@ -270,47 +1062,40 @@ public final class LinkedArrayBlockList<E>
             return false; // Empty list.
         }
         
+        if (elementIndex != null) {
+            return elementIndex.contains(o);
+        }
+        
         return indexOf(o) >= 0;
     }
-
+    
+    /**
+     * Returns an iterator over the elements of this list in proper sequence.
+     * The iterator is fail-fast and does not support removal.
+     * 
+     * @return an iterator over the elements of this list.
+     */
     @Override
     public Iterator<E> iterator() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        return new BlockIterator();
     }
-
+    
     @Override
     public Object[] toArray() {
         Object[] array = new Object[size];
-        int index = 0;
-        
-        for (Block<E> block = headBlock; 
-                block != null; 
-                block = block.nextBlock) {
-            for (int i = 0; i < block.size; i++, index++) {
-                array[index] = block.get(i);
-            }
-        }
-        
+        copyToArray(array);
         return array;
     }
-
+    
     @Override
-    public <E> E[] toArray(E[] a) {
-        E[] targetArray = 
+    public <T> T[] toArray(T[] a) {
+        T[] targetArray = 
                 a.length < size ? 
-                (E[]) Array.newInstance(a.getClass()
+                (T[]) Array.newInstance(a.getClass()
                                          .getComponentType(), size) :
                 a;
         
-        int index = 0;
-
-        for (Block<E> block = (Block<E>) headBlock; 
-                block != null;
-                block = block.nextBlock) {
-            for (int i = 0; i < block.size; i++, index++) {
-                targetArray[index] = block.get(i);
-            }
-        }
+        copyToArray(targetArray);
         
         if (targetArray.length > size) {
             targetArray[size] = null;
@@ -318,7 +1103,24 @@ public final class LinkedArrayBlockList<E>
         
         return targetArray;
     }
-
+    
+    /**
+     * Copies all the elements of this list to the beginning of 
+     * {@code target}, one or two contiguous runs per block.
+     * 
+     * @param target the target array.
+     */
+    private void copyToArray(Object[] target) {
+        int index = 0;
+        
+        for (Block<E> block = headBlock; 
+                block != null; 
+                block = block.nextBlock) {
+            block.copyTo(0, target, index, block.size);
+            index += block.size;
+        }
+    }
+    
     /**
      * Appends the specified element to the end of this list.
      *
@@ -327,394 +1129,3428 @@ public final class LinkedArrayBlockList<E>
      */
     @Override
     public boolean add(E e) {
+        if (appendHooks && windowSize > 0 && size == windowSize) {
+            evictFirst(1);
+        }
+        
         if (headBlock == null) {
-            headBlock = new Block<>(blockCapacity);
-            tailBlock = headBlock;
-            blocks = 1;
+            allocateHeadBlock(1);
+        } else if (tailBlock.isFull() && tailBlock.capacity < blockCapacity) {
+            growBlock(tailBlock, size - tailBlock.size, tailBlock.size + 1);
         }
         
         if (tailBlock.isFull()) {
-            Block<E> newBlock = new Block<>(blockCapacity);
-            newBlock.array[0] = e;
+            Block<E> newBlock = allocateBlock();
+            newBlock.array[newBlock.offset] = e;
             newBlock.size = 1;
             tailBlock.nextBlock = newBlock;
             newBlock.previousBlock = tailBlock;
             tailBlock = newBlock;
             blocks++;
         } else {
+            if (appendHooks) {
+                unshareTailBlock(size - tailBlock.size);
+            }
+            
             tailBlock.set(tailBlock.size, e);
             tailBlock.size++;
         }
         
         modificationCount++;
         size++;
+        
+        if (appendHooks) {
+            appended(e);
+        }
+        
         return true;
     }
-
+    
+    /**
+     * Notifies the enabled optional features about the element {@code e} 
+     * just appended by {@link #add(Object)}.
+     * 
+     * @param e the appended element.
+     */
+    private void appended(E e) {
+        if (elementIndex != null) {
+            elementIndex.add(e, tailBlock);
+        }
+        
+        if (changeLog != null) {
+            changeLog.add(e);
+        }
+        
+        if (hashCodeCached 
+                && cachedHashCodeModificationCount == modificationCount - 1) {
+            // Appending extends the list hash incrementally.
+            cachedHashCode = 31 * cachedHashCode + Objects.hashCode(e);
+            cachedHashCodeModificationCount = modificationCount;
+        }
+        
+        if (coldBlockCompressor != null) {
+            coldBlockCompressor.modified(modificationCount);
+        }
+        
+        if (reader != null) {
+            reader.publish(size);
+        }
+    }
+    
+    /**
+     * Recomputes {@code appendHooks} after an optional feature was enabled or
+     * disabled.
+     */
+    private void updateAppendHooks() {
+        appendHooks = windowSize > 0 
+                || elementIndex != null
+                || changeLog != null
+                || hashCodeCaching
+                || coldBlockCompressor != null
+                || reader != null;
+    }
+    
     @Override
     public boolean remove(Object o) {
+        if (elementIndex != null) {
+            Block<E> block = firstIndexedBlock(o);
+            
+            if (block == null) {
+                return false;
+            }
+            
+            // The block start is needed only for logging the removal and for
+            // the concurrent readers.
+            removeFromBlock(block, 
+                            changeLog == null && reader == null 
+                                    ? 0 : blockStart(block), 
+                            block.indexOf(o));
+            return true;
+        }
+        
+        int blockStart = 0;
+        
         for (Block<E> block = headBlock;
                 block != null;
-                block = block.nextBlock) {
-            for (int i = 0; i < block.size; i++) {
-                if (Objects.equals(block.get(i), o)) {
-                    block.remove(i);
-
-                    if (block.isEmpty()) {
-                        blocks--;
-                        unlinkBlock(block);
-                    }
-
-                    modificationCount++;
-                    size--;
-                    return true;
-                }
+                blockStart += block.size, block = block.nextBlock) {
+            int i = block.indexOf(o);
+            
+            if (i >= 0) {
+                removeFromBlock(block, blockStart, i);
+                return true;
             }
         }
         
         return false;
     }
-
+    
+    /**
+     * Removes the element at {@code localIndex} in {@code block}, whose first
+     * element is at {@code blockStart} in this list.
+     * 
+     * @param block      the block holding the element.
+     * @param blockStart the index of the first element of the block.
+     * @param localIndex the logical index of the element in the block.
+     */
+    private void removeFromBlock(Block<E> block, 
+                                 int blockStart, 
+                                 int localIndex) {
+        beginStructuralChange(blockStart);
+        
+        try {
+            if (elementIndex != null) {
+                elementIndex.remove(block.get(localIndex), block);
+            }
+            
+            int shifted = block.remove(localIndex);
+            
+            if (changeLog != null) {
+                changeLog.removeAt(blockStart + localIndex);
+            }
+            
+            if (STATISTICS_ENABLED && statistics != null) {
+                statistics.shiftedElements += shifted;
+            }
+            
+            if (block.isEmpty()) {
+                blocks--;
+                unlinkBlock(block);
+                releaseStorage(block);
+            }
+            
+            modificationCount++;
+            
+            if (coldBlockCompressor != null) {
+                coldBlockCompressor.modified(modificationCount);
+            }
+            
+            size--;
+        } finally {
+            endStructuralChange();
+        }
+    }
+    
     @Override
     public boolean containsAll(Collection<?> c) {
         for (Object o : c) {
-            if (indexOf(o) < 0) {
+            if (!contains(o)) {
                 return false;
             }
         }
         
         return true;
     }
-
+    
     @Override
     public boolean addAll(Collection<? extends E> c) {
-        if (c.isEmpty()) {
-            return false;
-        }
-        
-        if (headBlock == null) {
-            headBlock = new Block<>(blockCapacity);
-            tailBlock = headBlock;
-            blocks = 1;
-        }
+        Object[] array = c.toArray();
+        return appendArray(array, 0, array.length);
+    }
+    
+    /**
+     * Appends all the elements of {@code array} to the end of this list.
+     * 
+     * @param array the array of elements to append.
+     * @return <tt>true</tt> if this list changed as a result of the call.
+     */
+    public boolean addAll(E[] array) {
+        return appendArray(array, 0, array.length);
+    }
+    
+    /**
+     * Appends the elements <tt>array[offset], array[offset + 1], ...,
+     * array[offset + length - 1]</tt> to the end of this list. The elements
+     * are copied to the blocks in contiguous runs via 
+     * {@code System.arraycopy}.
+     * 
+     * @param array  the array of elements to append.
+     * @param offset the index of the first element to append.
+     * @param length the number of elements to append.
+     * @return <tt>true</tt> if this list changed as a result of the call.
+     * @throws IndexOutOfBoundsException if the range is out of the array 
+     *         bounds.
+     */
+    public boolean addAll(E[] array, int offset, int length) {
+        checkArrayRange(array, offset, length);
+        return appendArray(array, offset, length);
+    }
+    
+    /**
+     * Removes up to {@code array.length} elements from the head of this list
+     * and stores them to {@code array} starting at index 0. The elements are 
+     * copied in contiguous runs, and the fully drained blocks are unlinked.
+     * 
+     * @param array the array to drain to.
+     * @return the number of drained elements.
+     */
+    public int drainTo(E[] array) {
+        int count = Math.min(size, array.length);
+        int index = 0;
         
-        Block<E> lastBlock = tailBlock;
+        beginStructuralChange(0);
         
-        for (E element : c) {
-            if (lastBlock.isFull()) {
-                Block<E> newTailBlock = new Block<>(blockCapacity);
-                lastBlock.nextBlock = newTailBlock;
-                newTailBlock.previousBlock = lastBlock;
-                blocks++;
-                lastBlock = newTailBlock;
+        try {
+            while (index < count) {
+                Block<E> block = headBlock;
+                int length = Math.min(count - index, block.size);
+                block.copyTo(0, array, index, length);
+                
+                if (elementIndex != null) {
+                    for (int i = 0; i < length; i++) {
+                        elementIndex.remove(array[index + i], block);
+                    }
+                }
+                
+                index += length;
+                
+                if (length == block.size) {
+                    blocks--;
+                    unlinkBlock(block);
+                    releaseStorage(block);
+                } else {
+                    block.removeFirst(length);
+                }
             }
             
-            lastBlock.set(lastBlock.size++, element);
+            if (count > 0) {
+                if (changeLog != null) {
+                    changeLog.removeFirst(count);
+                }
+                
+                size -= count;
+                modificationCount++;
+                
+                if (coldBlockCompressor != null) {
+                    coldBlockCompressor.modified(modificationCount);
+                }
+            }
+        } finally {
+            endStructuralChange();
         }
         
-        tailBlock = lastBlock;
-        modificationCount++;
-        size += c.size();
-        return true;
+        return count;
     }
     
-    @Override
-    public boolean addAll(int index, Collection<? extends E> c) {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
-    }
-
-    @Override
-    public boolean removeAll(Collection<?> c) {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
-    }
-
-    @Override
-    public boolean retainAll(Collection<?> c) {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
-    }
-
-    @Override
-    public void replaceAll(UnaryOperator<E> operator) {
-        List.super.replaceAll(operator); //To change body of generated methods, choose Tools | Templates.
-    }
-
-    @Override
-    public void sort(Comparator<? super E> c) {
-        List.super.sort(c); //To change body of generated methods, choose Tools | Templates.
-    }
-
-    @Override
-    public void clear() {
-        blocks = 0;
-        size = 0;
+    /**
+     * Removes up to {@code max} elements from the head of this list and 
+     * passes them to {@code sink} in order. The elements are handed off one
+     * block segment at a time, and the fully drained blocks are unlinked. The
+     * modification count is updated once per call.
+     * 
+     * @param max  the maximum number of elements to remove.
+     * @param sink the consumer of the removed elements.
+     * @return the number of removed elements.
+     * @throws ConcurrentModificationException if {@code sink} modifies this 
+     *         list.
+     */
+    public int pollFirst(int max, Consumer<? super E> sink) {
+        Objects.requireNonNull(sink, "The sink is null.");
+        checkMaxElements(max);
+        int count = Math.min(max, size);
+        
+        if (count == 0) {
+            return 0;
+        }
+        
+        removeFirst(count, (array, from, to) -> {
+            for (int i = from; i < to; i++) {
+                sink.accept((E) array[i]);
+            }
+        });
+        
         modificationCount++;
-        headBlock = null;
-        tailBlock = null;
-    }
-
-    @Override
-    public E get(int index) {
-        checkAccessIndex(index);
-        int elementsOnLeft = index;
-        int elementsOnRight = size - elementsOnLeft;
         
-        if (elementsOnLeft < elementsOnRight) {
-            return getFromBeginning(index);
-        } else {
-            return getFromEnding(index);
+        if (coldBlockCompressor != null) {
+            coldBlockCompressor.modified(modificationCount);
         }
+        
+        return count;
     }
     
-    private E getFromBeginning(int index) {
-        Block<E> block = headBlock;
+    /**
+     * Removes up to {@code max} elements from the head of this list and adds
+     * them to {@code c}. If {@code c} is a {@code LinkedArrayBlockList}, the 
+     * whole blocks are relinked to its tail without copying, and only the 
+     * remaining part of a partially drained block is copied.
+     * 
+     * @param c   the collection to drain to.
+     * @param max the maximum number of elements to drain.
+     * @return the number of drained elements.
+     * @throws IllegalArgumentException if {@code c} is this list or 
+     *         {@code max} is negative.
+     */
+    public int drainTo(Collection<? super E> c, int max) {
+        Objects.requireNonNull(c, "The target collection is null.");
         
-        while (true) {
-            if (index >= block.size) {
-                index -= block.size;
-                block = block.nextBlock;
-            } else {
-                return block.get(index);
+        if (c == this) {
+            throw new IllegalArgumentException(
+                    "Cannot drain a list to itself.");
+        }
+        
+        checkMaxElements(max);
+        int count = Math.min(max, size);
+        
+        if (count == 0) {
+            return 0;
+        }
+        
+        if (c instanceof LinkedArrayBlockList) {
+            LinkedArrayBlockList<E> target = (LinkedArrayBlockList<E>) c;
+            LinkedArrayBlockList<E> chain = 
+                    detachHeadBlocks(Integer.MAX_VALUE, count);
+            
+            if (!chain.isEmpty()) {
+                target.appendChain(chain.headBlock, 
+                                   chain.tailBlock, 
+                                   chain.blocks, 
+                                   chain.size);
             }
+            
+            removeFirst(count - chain.size, 
+                        (array, from, to) -> 
+                                target.appendArray(array, from, to - from));
+        } else {
+            removeFirst(count, (array, from, to) -> {
+                for (int i = from; i < to; i++) {
+                    c.add((E) array[i]);
+                }
+            });
+        }
+        
+        modificationCount++;
+        
+        if (coldBlockCompressor != null) {
+            coldBlockCompressor.modified(modificationCount);
         }
+        
+        return count;
     }
     
-    private E getFromEnding(int index) {
-        Block<E> block = tailBlock;
+    /**
+     * Detaches up to {@code maxBlocks} whole blocks from the head of this 
+     * list and returns them as a new list. Runs in <tt>O(maxBlocks)</tt> 
+     * time; no element is copied.
+     * 
+     * @param maxBlocks the maximum number of blocks to detach.
+     * @return the list of the detached blocks.
+     * @throws IllegalArgumentException if {@code maxBlocks} is negative.
+     */
+    public LinkedArrayBlockList<E> drainBlocks(int maxBlocks) {
+        if (maxBlocks < 0) {
+            throw new IllegalArgumentException(
+                    "The maximum number of blocks (" + maxBlocks + 
+                    ") is negative.");
+        }
         
-        while (true) {
-            if (index < block.size) {
-                return block.get(index);
+        LinkedArrayBlockList<E> result = 
+                detachHeadBlocks(maxBlocks, Integer.MAX_VALUE);
+        
+        if (!result.isEmpty()) {
+            modificationCount++;
+            
+            if (elementIndex != null) {
+                result.enableElementIndex();
+            }
+        }
+        
+        return result;
+    }
+    
+    /**
+     * Inserts all the elements of {@code c} at the beginning of this list, in
+     * the iteration order of {@code c}. The free slots in front of the head 
+     * block are filled first, after which new blocks are linked before it.
+     * 
+     * @param c the collection whose elements to prepend.
+     * @return <tt>true</tt> if this list changed as a result of the call.
+     */
+    public boolean addAllFirst(Collection<? extends E> c) {
+        Objects.requireNonNull(c, "The input collection is null.");
+        
+        if (headBlock == null) {
+            return addAll(c);
+        }
+        
+        Object[] array = c.toArray();
+        int index = array.length;
+        
+        if (index == 0) {
+            return false;
+        }
+        
+        beginStructuralChange(0);
+        
+        try {
+            if (headBlock.capacity - headBlock.size < index
+                    && headBlock.capacity < blockCapacity) {
+                growBlock(headBlock, 0, headBlock.size + index);
+            }
+            
+            int length = Math.min(index, headBlock.capacity - headBlock.size);
+            
+            if (length > 0) {
+                headBlock.prepend(array, index - length, length);
+                index -= length;
+                
+                if (elementIndex != null) {
+                    for (int i = 0; i < length; i++) {
+                        elementIndex.add(headBlock.get(i), headBlock);
+                    }
+                }
+            }
+            
+            while (index > 0) {
+                Block<E> newHeadBlock = allocateBlock();
+                length = Math.min(index, newHeadBlock.capacity);
+                newHeadBlock.append(array, index - length, length);
+                index -= length;
+                newHeadBlock.nextBlock = headBlock;
+                headBlock.previousBlock = newHeadBlock;
+                headBlock = newHeadBlock;
+                blocks++;
+                
+                if (elementIndex != null) {
+                    indexBlock(newHeadBlock);
+                }
+            }
+            
+            if (changeLog != null) {
+                changeLog.prepend(array);
+            }
+            
+            size += array.length;
+            modificationCount++;
+            
+            if (coldBlockCompressor != null) {
+                coldBlockCompressor.modified(modificationCount);
+            }
+            
+            if (windowSize > 0 && size > windowSize) {
+                evictFirst(size - windowSize);
+            }
+            
+            return true;
+        } finally {
+            endStructuralChange();
+        }
+    }
+    
+    /**
+     * Appends <tt>array[offset], ..., array[offset + length - 1]</tt> to the
+     * end of this list.
+     */
+    private boolean appendArray(Object[] array, int offset, int length) {
+        if (length == 0) {
+            return false;
+        }
+        
+        if (headBlock == null) {
+            allocateHeadBlock(length);
+        }
+        
+        int index = offset;
+        int end = offset + length;
+        
+        while (index < end) {
+            // The size is updated after the loop.
+            int tailBlockStart = size + index - offset - tailBlock.size;
+            
+            if (tailBlock.capacity < blockCapacity && 
+                    tailBlock.capacity - tailBlock.size < end - index) {
+                growBlock(tailBlock, 
+                          tailBlockStart, 
+                          tailBlock.size + end - index);
+            } else if (tailBlock.isFull()) {
+                Block<E> newTailBlock = allocateBlock();
+                tailBlock.nextBlock = newTailBlock;
+                newTailBlock.previousBlock = tailBlock;
+                tailBlock = newTailBlock;
+                blocks++;
+                tailBlockStart = size + index - offset;
+            }
+            
+            int oldBlockSize = tailBlock.size;
+            unshareTailBlock(tailBlockStart);
+            index += tailBlock.append(array, index, end - index);
+            
+            if (elementIndex != null) {
+                for (int i = oldBlockSize; i < tailBlock.size; i++) {
+                    elementIndex.add(tailBlock.get(i), tailBlock);
+                }
+            }
+        }
+        
+        if (hashCodeCached 
+                && cachedHashCodeModificationCount == modificationCount) {
+            for (int i = offset; i < end; i++) {
+                cachedHashCode = 31 * cachedHashCode + 
+                                 Objects.hashCode(array[i]);
+            }
+            
+            cachedHashCodeModificationCount = modificationCount + 1;
+        }
+        
+        if (changeLog != null) {
+            changeLog.append(array, offset, length);
+        }
+        
+        size += length;
+        modificationCount++;
+        
+        if (coldBlockCompressor != null) {
+            coldBlockCompressor.modified(modificationCount);
+        }
+        
+        if (reader != null) {
+            reader.publish(size);
+        }
+        
+        if (windowSize > 0 && size > windowSize) {
+            evictFirst(size - windowSize);
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Moves all the elements of {@code other} to the end of this list. Instead
+     * of copying the elements, this method links the block chain of 
+     * {@code other} after the tail block of this list, and so runs in constant
+     * time. After the call, {@code other} is empty.
+     * 
+     * @param other the list whose elements to move to this list.
+     * @return <tt>true</tt> if this list changed as a result of the call.
+     * @throws IllegalArgumentException if {@code other} is this list.
+     */
+    public boolean appendAll(LinkedArrayBlockList<E> other) {
+        Objects.requireNonNull(other, "The input list is null.");
+        
+        if (other == this) {
+            throw new IllegalArgumentException(
+                    "Cannot append a list to itself.");
+        }
+        
+        if (other.isEmpty()) {
+            return false;
+        }
+        
+        appendChain(other.headBlock, other.tailBlock, other.blocks, other.size);
+        
+        // Detach the moved blocks first, so that clearing does not return 
+        // their storage to the arena of the other list.
+        other.headBlock = null;
+        other.tailBlock = null;
+        other.clear();
+        return true;
+    }
+    
+    /**
+     * Links the chain of blocks starting at {@code chainHeadBlock} and ending 
+     * at {@code chainTailBlock} after the tail block of this list. None of the
+     * blocks in the chain may be empty.
+     * 
+     * @param chainHeadBlock the first block of the chain.
+     * @param chainTailBlock the last block of the chain.
+     * @param chainBlocks    the number of blocks in the chain.
+     * @param chainSize      the number of elements in the chain.
+     */
+    void appendChain(Block<E> chainHeadBlock,
+                     Block<E> chainTailBlock,
+                     int chainBlocks,
+                     int chainSize) {
+        if (elementIndex != null) {
+            for (Block<E> block = chainHeadBlock; 
+                    block != null; 
+                    block = block.nextBlock) {
+                indexBlock(block);
+            }
+        }
+        
+        if (changeLog != null) {
+            changeLog.appendChain(chainHeadBlock, chainSize);
+        }
+        
+        if (isEmpty()) {
+            // Drop the (possibly) empty block of this list.
+            headBlock = chainHeadBlock;
+            tailBlock = chainTailBlock;
+            blocks = chainBlocks;
+        } else {
+            tailBlock.nextBlock = chainHeadBlock;
+            chainHeadBlock.previousBlock = tailBlock;
+            tailBlock = chainTailBlock;
+            blocks += chainBlocks;
+        }
+        
+        size += chainSize;
+        modificationCount++;
+        
+        if (spiller != null) {
+            spiller.recount();
+        }
+        
+        if (reader != null) {
+            reader.publish(size);
+        }
+        
+        if (windowSize > 0 && size > windowSize) {
+            evictFirst(size - windowSize);
+        }
+    }
+    
+    /**
+     * Returns a {@link Collector} accumulating the input elements into a new
+     * {@code LinkedArrayBlockList} with the default block capacity.
+     * 
+     * @param <E> the element type.
+     * @return the collector.
+     * @see #collector(int)
+     */
+    public static <E> Collector<E, ?, LinkedArrayBlockList<E>> collector() {
+        return collector(DEFAULT_BLOCK_CAPACITY);
+    }
+    
+    /**
+     * Returns a {@link Collector} accumulating the input elements into a new
+     * {@code LinkedArrayBlockList}. In a parallel reduction, each thread fills
+     * the block chain of its own list, and the partial results are combined
+     * via {@link #appendAll(LinkedArrayBlockList)}, which links the chains in
+     * constant time instead of copying the elements. At most one partially 
+     * filled block per combination remains in the interior of the result.
+     * 
+     * @param <E>           the element type.
+     * @param blockCapacity the block capacity of the resulting list.
+     * @return the collector.
+     */
+    public static <E> Collector<E, ?, LinkedArrayBlockList<E>> 
+        collector(int blockCapacity) {
+        checkBlockCapacity(blockCapacity);
+        return Collector.of(() -> new LinkedArrayBlockList<E>(blockCapacity),
+                            LinkedArrayBlockList::add,
+                            (left, right) -> {
+                                left.appendAll(right);
+                                return left;
+                            },
+                            Collector.Characteristics.IDENTITY_FINISH);
+    }
+    
+    /**
+     * Loads a list from {@code inputStream}, decoding the records with 
+     * {@code parser}. The stream is read until its end but not closed.
+     * 
+     * @param <E>         the element type.
+     * @param inputStream the stream to read.
+     * @param parser      the record parser.
+     * @return the loaded list.
+     * @throws IOException if reading or parsing fails.
+     * @see #load(ReadableByteChannel, RecordParser, int, boolean)
+     */
+    public static <E> LinkedArrayBlockList<E> 
+        load(InputStream inputStream, RecordParser<E> parser) 
+            throws IOException {
+        return load(Channels.newChannel(inputStream), 
+                    parser, 
+                    DEFAULT_BLOCK_CAPACITY, 
+                    false);
+    }
+    
+    /**
+     * Loads a list from {@code channel}, decoding the records with 
+     * {@code parser}.
+     * 
+     * @param <E>     the element type.
+     * @param channel the channel to read.
+     * @param parser  the record parser.
+     * @return the loaded list.
+     * @throws IOException if reading or parsing fails.
+     * @see #load(ReadableByteChannel, RecordParser, int, boolean)
+     */
+    public static <E> LinkedArrayBlockList<E> 
+        load(ReadableByteChannel channel, RecordParser<E> parser) 
+            throws IOException {
+        return load(channel, parser, DEFAULT_BLOCK_CAPACITY, false);
+    }
+    
+    /**
+     * Loads a list from {@code channel}, decoding the records with 
+     * {@code parser} directly into the storage arrays of the blocks. The bytes
+     * are read via a reusable direct buffer, and the size and the 
+     * modification count of the list are updated only once at the end. If
+     * {@code readAhead} is set, a separate thread reads the channel while
+     * the calling thread parses. The channel is read until its end but not
+     * closed.
+     * 
+     * @param <E>           the element type.
+     * @param channel       the channel to read.
+     * @param parser        the record parser.
+     * @param blockCapacity the block capacity of the loaded list.
+     * @param readAhead     whether to read the channel in a separate thread.
+     * @return the loaded list.
+     * @throws IOException if reading or parsing fails.
+     */
+    public static <E> LinkedArrayBlockList<E> 
+        load(ReadableByteChannel channel,
+             RecordParser<E> parser,
+             int blockCapacity,
+             boolean readAhead) throws IOException {
+        Objects.requireNonNull(channel, "The input channel is null.");
+        Objects.requireNonNull(parser, "The input parser is null.");
+        LinkedArrayBlockList<E> list = 
+                new LinkedArrayBlockList<>(blockCapacity);
+        new BlockLoader<>(list, parser).load(channel, readAhead);
+        return list;
+    }
+    
+    /**
+     * Splits this list at the given index. After the call, this list contains
+     * the elements with indices <tt>0, 1, ..., index - 1</tt> and the returned
+     * list contains the elements with indices <tt>index, index + 1, ..., 
+     * size() - 1</tt>. Only the block containing the element at 
+     * {@code index} is copied (partially); all the blocks after it are 
+     * relinked into the returned list.
+     * 
+     * @param index the index of the first element of the returned list.
+     * @return the list of elements starting at {@code index}.
+     * @throws IndexOutOfBoundsException if {@code index} is out of range
+     *         <tt>(index &lt; 0 || index &gt; size())</tt>.
+     */
+    public LinkedArrayBlockList<E> splitAt(int index) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException(
+                    "The split index (" + index + ") is out of range [0, " +
+                    size + "].");
+        }
+        
+        LinkedArrayBlockList<E> result = 
+                new LinkedArrayBlockList<>(blockCapacity);
+        
+        if (index == size) {
+            return result;
+        }
+        
+        beginStructuralChange(index);
+        
+        try {
+            // Find the block containing the element at 'index'. 'blocksBefore' 
+            // counts the blocks preceding 'block'.
+            Block<E> block;
+            int localIndex;
+            int blocksBefore;
+            
+            if (index < size - index) {
+                block = headBlock;
+                localIndex = index;
+                blocksBefore = 0;
+                
+                while (localIndex >= block.size) {
+                    localIndex -= block.size;
+                    block = block.nextBlock;
+                    blocksBefore++;
+                }
             } else {
-                index -= block.size;
-                block = block.previousBlock;
+                block = tailBlock;
+                localIndex = block.size - (size - index);
+                blocksBefore = blocks - 1;
+                
+                while (localIndex < 0) {
+                    block = block.previousBlock;
+                    localIndex += block.size;
+                    blocksBefore--;
+                }
+            }
+            
+            if (elementIndex != null) {
+                // Unindex all the elements moving to the returned list.
+                for (int i = localIndex; i < block.size; i++) {
+                    elementIndex.remove(block.get(i), block);
+                }
+                
+                for (Block<E> b = block.nextBlock; b != null; b = b.nextBlock) {
+                    unindexBlock(b);
+                }
+            }
+            
+            Block<E> firstMovedBlock;
+            int movedBlocks = blocks - blocksBefore;
+            
+            if (localIndex == 0) {
+                // Cut the chain right before 'block'.
+                firstMovedBlock = block;
+            } else {
+                // Move the tail portion of 'block' to a new block.
+                firstMovedBlock = allocateBlock();
+                int movedElements = block.size - localIndex;
+                
+                for (int i = 0; i < movedElements; i++) {
+                    firstMovedBlock.array[firstMovedBlock.offset + i] = 
+                            block.get(localIndex + i);
+                    block.set(localIndex + i, null); // Let the GC do its job.
+                }
+                
+                firstMovedBlock.size = movedElements;
+                block.size = localIndex;
+                firstMovedBlock.nextBlock = block.nextBlock;
+                
+                if (block.nextBlock == null) {
+                    tailBlock = firstMovedBlock;
+                } else {
+                    block.nextBlock.previousBlock = firstMovedBlock;
+                }
+                
+                block.nextBlock = firstMovedBlock;
+                firstMovedBlock.previousBlock = block;
+                blocksBefore++;
+            }
+            
+            result.headBlock = firstMovedBlock;
+            result.tailBlock = tailBlock;
+            result.blocks = movedBlocks;
+            result.size = size - index;
+            
+            if (firstMovedBlock.previousBlock == null) {
+                headBlock = null;
+                tailBlock = null;
+            } else {
+                tailBlock = firstMovedBlock.previousBlock;
+                tailBlock.nextBlock = null;
+                firstMovedBlock.previousBlock = null;
+            }
+            
+            if (changeLog != null) {
+                changeLog.truncate(index);
             }
+            
+            blocks = blocksBefore;
+            size = index;
+            modificationCount++;
+            resetCursor();
+            
+            if (spiller != null) {
+                spiller.recount();
+            }
+            
+            if (elementIndex != null) {
+                result.enableElementIndex();
+            }
+            
+            return result;
+        } finally {
+            endStructuralChange();
         }
     }
-
+    
     @Override
-    public E set(int index, E element) {
+    public boolean addAll(int index, Collection<? extends E> c) {
         throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
     }
-
+    
     @Override
-    public void add(int index, E element) {
+    public boolean removeAll(Collection<?> c) {
         throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
     }
-
+    
     @Override
-    public E remove(int index) {
+    public boolean retainAll(Collection<?> c) {
         throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
     }
-
+    
     @Override
-    public int indexOf(Object o) {
-        int index = 0;
+    public void replaceAll(UnaryOperator<E> operator) {
+        List.super.replaceAll(operator); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public void sort(Comparator<? super E> c) {
+        List.super.sort(c); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public void clear() {
+        beginStructuralChange(0);
         
-        if (o == null) {
-            for (Block<E> block = headBlock; 
-                    block != null; 
-                    block = block.nextBlock) {
-                for (int i = 0; i < block.size; i++, index++) {
-                    if (block.get(i) == null) {
-                        return index;
-                    }
+        try {
+            if (elementIndex != null) {
+                elementIndex.clear();
+            }
+            
+            if (arena != null) {
+                for (Block<E> block = headBlock; 
+                        block != null; 
+                        block = block.nextBlock) {
+                    releaseStorage(block);
                 }
             }
-        } else {
-            for (Block<E> block = headBlock;
-                    block != null;
-                    block = block.nextBlock) {
-                for (int i = 0; i < block.size; i++, index++) {
-                    if (o.equals(block.get(i))) {
-                        return index;
-                    }
-                }
+            
+            if (changeLog != null) {
+                changeLog.clear();
+            }
+            
+            blocks = 0;
+            size = 0;
+            modificationCount++;
+            headBlock = null;
+            tailBlock = null;
+            resetCursor();
+            
+            if (spiller != null) {
+                spiller.recount();
+            }
+        } finally {
+            endStructuralChange();
+        }
+    }
+    
+    @Override
+    public E get(int index) {
+        checkAccessIndex(index);
+        int elementsOnLeft = index;
+        int elementsOnRight = size - elementsOnLeft;
+        
+        if (elementsOnLeft < elementsOnRight) {
+            return getFromBeginning(index);
+        } else {
+            return getFromEnding(index);
+        }
+    }
+    
+    private E getFromBeginning(int index) {
+        Block<E> block = headBlock;
+        int hops = 0;
+        
+        while (true) {
+            if (index >= block.size) {
+                index -= block.size;
+                block = block.nextBlock;
+                hops++;
+            } else {
+                recordGet(hops);
+                return block.get(index);
+            }
+        }
+    }
+    
+    private E getFromEnding(int index) {
+        Block<E> block = tailBlock;
+        int offset = size - index - 1; // The distance from the last element.
+        int hops = 0;
+        
+        while (true) {
+            if (offset < block.size) {
+                recordGet(hops);
+                return block.get(block.size - offset - 1);
+            } else {
+                offset -= block.size;
+                block = block.previousBlock;
+                hops++;
+            }
+        }
+    }
+    
+    private void recordGet(int hops) {
+        if (STATISTICS_ENABLED && statistics != null) {
+            statistics.gets++;
+            statistics.blockHops += hops;
+        }
+    }
+    
+    /**
+     * Replaces the element at position {@code index} with {@code element}. 
+     * The block holding the position is located as in 
+     * {@link #add(int, Object)}.
+     * 
+     * @param index   the index of the element to replace.
+     * @param element the new element.
+     * @return the replaced element.
+     */
+    @Override
+    public E set(int index, E element) {
+        checkAccessIndex(index);
+        beginStructuralChange(index);
+        
+        try {
+            moveCursor(index);
+            Block<E> block = cursorBlock;
+            int localIndex = index - cursorBlockStart;
+            E oldElement = block.get(localIndex);
+            block.set(localIndex, element);
+            
+            if (elementIndex != null) {
+                elementIndex.remove(oldElement, block);
+                elementIndex.add(element, block);
+            }
+            
+            if (changeLog != null) {
+                changeLog.set(index, element);
+            }
+            
+            elementsReplaced();
+            return oldElement;
+        } finally {
+            endStructuralChange();
+        }
+    }
+    
+    /**
+     * Assigns {@code value} to all the positions in the range 
+     * <tt>[fromIndex, toIndex)</tt>. The first block of the range is located
+     * once, after which each block is filled in at most two contiguous runs.
+     * 
+     * @param fromIndex the first position to assign, inclusive.
+     * @param toIndex   the last position to assign, exclusive.
+     * @param value     the value to assign.
+     */
+    public void fill(int fromIndex, int toIndex, E value) {
+        checkRange(fromIndex, toIndex);
+        
+        if (fromIndex == toIndex) {
+            return;
+        }
+        
+        beginStructuralChange(fromIndex);
+        
+        try {
+            moveCursor(fromIndex);
+            Block<E> block = cursorBlock;
+            int localIndex = fromIndex - cursorBlockStart;
+            int remaining = toIndex - fromIndex;
+            
+            while (remaining > 0) {
+                int length = Math.min(remaining, block.size - localIndex);
+                
+                if (elementIndex != null) {
+                    for (int i = 0; i < length; i++) {
+                        elementIndex.remove(block.get(localIndex + i), block);
+                        elementIndex.add(value, block);
+                    }
+                }
+                
+                block.fill(localIndex, length, value);
+                remaining -= length;
+                block = block.nextBlock;
+                localIndex = 0;
+            }
+            
+            if (changeLog != null) {
+                changeLog.fill(fromIndex, toIndex, value);
+            }
+            
+            elementsReplaced();
+        } finally {
+            endStructuralChange();
+        }
+    }
+    
+    /**
+     * Overwrites the positions starting at {@code fromIndex} with the 
+     * elements <tt>source[offset], ..., source[offset + length - 1]</tt>. 
+     * The first block of the range is located once, after which each block 
+     * is written in at most two {@code System.arraycopy} runs.
+     * 
+     * @param fromIndex the first position to overwrite.
+     * @param source    the source array.
+     * @param offset    the index of the first source element.
+     * @param length    the number of elements to copy.
+     */
+    public void setRange(int fromIndex, E[] source, int offset, int length) {
+        Objects.requireNonNull(source, "The source array is null.");
+        checkArrayRange(source, offset, length);
+        checkRange(fromIndex, fromIndex + length);
+        
+        if (length == 0) {
+            return;
+        }
+        
+        beginStructuralChange(fromIndex);
+        
+        try {
+            moveCursor(fromIndex);
+            Block<E> block = cursorBlock;
+            int localIndex = fromIndex - cursorBlockStart;
+            int index = offset;
+            int end = offset + length;
+            
+            while (index < end) {
+                int runLength = Math.min(end - index, block.size - localIndex);
+                
+                if (elementIndex != null) {
+                    for (int i = 0; i < runLength; i++) {
+                        elementIndex.remove(block.get(localIndex + i), block);
+                        elementIndex.add(source[index + i], block);
+                    }
+                }
+                
+                block.copyFrom(localIndex, source, index, runLength);
+                index += runLength;
+                block = block.nextBlock;
+                localIndex = 0;
+            }
+            
+            if (changeLog != null) {
+                changeLog.setRange(fromIndex, source, offset, length);
+            }
+            
+            elementsReplaced();
+        } finally {
+            endStructuralChange();
+        }
+    }
+    
+    /**
+     * Overwrites {@code length} positions of this list starting at 
+     * {@code targetIndex} with the elements of {@code source} starting at 
+     * {@code sourceIndex}. Both starting blocks are located once, after which
+     * the elements are copied directly between the storage arrays of the 
+     * overlapping block runs. If {@code source} is this list, the ranges may
+     * overlap.
+     * 
+     * @param source      the source list.
+     * @param sourceIndex the first source position.
+     * @param targetIndex the first target position.
+     * @param length      the number of elements to copy.
+     */
+    public void copyRange(LinkedArrayBlockList<E> source, 
+                          int sourceIndex, 
+                          int targetIndex, 
+                          int length) {
+        Objects.requireNonNull(source, "The source list is null.");
+        
+        if (length < 0) {
+            throw new IllegalArgumentException(
+                    "The length (" + length + ") is negative.");
+        }
+        
+        source.checkRange(sourceIndex, sourceIndex + length);
+        checkRange(targetIndex, targetIndex + length);
+        
+        if (length == 0) {
+            return;
+        }
+        
+        beginStructuralChange(targetIndex);
+        
+        try {
+            if (source == this) {
+                // The ranges may overlap, so copy through a buffer.
+                Object[] buffer = new Object[length];
+                copyRangeToArray(sourceIndex, buffer, length);
+                setRange(targetIndex, (E[]) buffer, 0, length);
+                return;
+            }
+            
+            source.moveCursor(sourceIndex);
+            Block<E> sourceBlock = source.cursorBlock;
+            int sourceLocalIndex = sourceIndex - source.cursorBlockStart;
+            moveCursor(targetIndex);
+            Block<E> block = cursorBlock;
+            int localIndex = targetIndex - cursorBlockStart;
+            int remaining = length;
+            
+            while (remaining > 0) {
+                if (sourceLocalIndex == sourceBlock.size) {
+                    sourceBlock = sourceBlock.nextBlock;
+                    sourceLocalIndex = 0;
+                }
+                
+                if (localIndex == block.size) {
+                    block = block.nextBlock;
+                    localIndex = 0;
+                }
+                
+                int runLength = Math.min(remaining,
+                                         Math.min(sourceBlock.size - 
+                                                  sourceLocalIndex,
+                                                  block.size - localIndex));
+                
+                if (elementIndex != null) {
+                    for (int i = 0; i < runLength; i++) {
+                        elementIndex.remove(block.get(localIndex + i), block);
+                        elementIndex.add(sourceBlock.get(sourceLocalIndex + i), 
+                                         block);
+                    }
+                }
+                
+                sourceBlock.copyTo(sourceLocalIndex, 
+                                   block, 
+                                   localIndex, 
+                                   runLength);
+                sourceLocalIndex += runLength;
+                localIndex += runLength;
+                remaining -= runLength;
+            }
+            
+            elementsReplaced();
+            
+            if (changeLog != null) {
+                Object[] copied = new Object[length];
+                copyRangeToArray(targetIndex, copied, length);
+                changeLog.setRange(targetIndex, copied, 0, length);
+            }
+        } finally {
+            endStructuralChange();
+        }
+    }
+    
+    /**
+     * Copies {@code length} elements starting at position {@code fromIndex} 
+     * to the beginning of {@code target}.
+     * 
+     * @param fromIndex the first position to copy.
+     * @param target    the target array.
+     * @param length    the number of elements to copy.
+     */
+    private void copyRangeToArray(int fromIndex, Object[] target, int length) {
+        moveCursor(fromIndex);
+        Block<E> block = cursorBlock;
+        int localIndex = fromIndex - cursorBlockStart;
+        int index = 0;
+        
+        while (index < length) {
+            int runLength = Math.min(length - index, block.size - localIndex);
+            block.copyTo(localIndex, target, index, runLength);
+            index += runLength;
+            block = block.nextBlock;
+            localIndex = 0;
+        }
+    }
+    
+    /**
+     * Records a write that replaced elements without changing the block 
+     * structure of this list. The modification count is incremented, which 
+     * invalidates the cached hash code, but the edit cursor stays valid.
+     */
+    private void elementsReplaced() {
+        boolean cursorValid = cursorModificationCount == modificationCount;
+        modificationCount++;
+        
+        if (cursorValid) {
+            cursorModificationCount = modificationCount;
+        }
+        
+        if (coldBlockCompressor != null) {
+            coldBlockCompressor.modified(modificationCount);
+        }
+    }
+    
+    /**
+     * Inserts {@code element} at position {@code index}. The block holding 
+     * the position is located starting from the block of the previous edit,
+     * so that edits near each other do not walk the chain from its ends. An
+     * insertion at a block boundary goes to the previous block if it has 
+     * room. A full block first makes room by moving its last or first 
+     * element to a neighbour block with a free slot, and is split at the 
+     * insertion point only if neither neighbour has room. In the gap editing
+     * mode, an insertion into the interior of a block splits it there as 
+     * well, leaving a gap that the following edits at the same position fill
+     * without splitting again.
+     * 
+     * @param index   the insertion index.
+     * @param element the element to insert.
+     * @see #enableGapEditing()
+     */
+    @Override
+    public void add(int index, E element) {
+        checkInsertionIndex(index);
+        
+        if (index == size) {
+            add(element);
+            return;
+        }
+        
+        moveCursor(index);
+        
+        // The previous block may take the element, and the evictions of the
+        // sliding window shift every index.
+        beginStructuralChange(windowSize > 0 ? 0 : 
+                Math.min(Math.max(0, cursorBlockStart - 1), gapBlockStart()));
+        
+        try {
+            Block<E> block = cursorBlock;
+            int localIndex = index - cursorBlockStart;
+            
+            if (localIndex == 0 
+                    && block.previousBlock != null 
+                    && !block.previousBlock.isFull()) {
+                // Append to the previous block instead of shifting this one.
+                block = block.previousBlock;
+                localIndex = block.size;
+                cursorBlockStart -= block.size;
+            } else if (gapEditing 
+                    && localIndex == 0 
+                    && gapBlock != null
+                    && block == gapBlock.nextBlock) {
+                // The gap block is full: open a new gap block at the gap.
+                Block<E> newBlock = allocateBlock();
+                linkBlockBefore(block, newBlock);
+                block = newBlock;
+                gapBlock = newBlock;
+            } else if (block.isFull() && block.capacity < blockCapacity) {
+                growBlock(block, cursorBlockStart, block.size + 1);
+            } else if (block.isFull()) {
+                Block<E> nextBlock = block.nextBlock;
+                Block<E> previousBlock = block.previousBlock;
+                
+                if (nextBlock != null && !nextBlock.isFull()) {
+                    moveElement(block, block.size - 1, nextBlock, 0);
+                } else if (localIndex > 0 
+                        && previousBlock != null 
+                        && !previousBlock.isFull()) {
+                    moveElement(block, 0, previousBlock, previousBlock.size);
+                    localIndex--;
+                    cursorBlockStart++;
+                } else if (localIndex == 0) {
+                    Block<E> newBlock = allocateBlock();
+                    linkBlockBefore(block, newBlock);
+                    block = newBlock;
+                } else {
+                    closeGap(block);
+                    splitBlock(block, localIndex);
+                    gapBlock = block;
+                }
+            } else if (gapEditing && localIndex > 0 && !isGapBlock(block)) {
+                // Keep the new edit point at a block end.
+                closeGap(block);
+                splitBlock(block, localIndex);
+                gapBlock = block;
+            }
+            
+            int shifted = block.insert(localIndex, element);
+            
+            if (STATISTICS_ENABLED && statistics != null) {
+                statistics.shiftedElements += shifted;
+            }
+            
+            if (elementIndex != null) {
+                elementIndex.add(element, block);
+            }
+            
+            if (changeLog != null) {
+                changeLog.insert(index, element);
+            }
+            
+            size++;
+            modificationCount++;
+            
+            if (coldBlockCompressor != null) {
+                coldBlockCompressor.modified(modificationCount);
+            }
+            
+            cursorBlock = block;
+            cursorModificationCount = modificationCount;
+            
+            if (windowSize > 0 && size > windowSize) {
+                evictFirst(size - windowSize);
+                cursorBlock = null;
+            }
+        } finally {
+            endStructuralChange();
+        }
+    }
+    
+    /**
+     * Removes the element at position {@code index}. The block holding the 
+     * position is located as in {@link #add(int, Object)}. In the gap editing
+     * mode, a removal from the interior of a block splits it at the removal
+     * point, so that the following removals around the same position take 
+     * constant time.
+     * 
+     * @param index the index of the element to remove.
+     * @return the removed element.
+     */
+    @Override
+    public E remove(int index) {
+        checkAccessIndex(index);
+        moveCursor(index);
+        beginStructuralChange(Math.min(cursorBlockStart, gapBlockStart()));
+        
+        try {
+            Block<E> block = cursorBlock;
+            int localIndex = index - cursorBlockStart;
+            
+            if (gapEditing 
+                    && localIndex > 0 
+                    && localIndex < block.size - 1
+                    && !isGapBlock(block)) {
+                closeGap(block);
+                splitBlock(block, localIndex);
+                gapBlock = block;
+                block = block.nextBlock;
+                cursorBlockStart += localIndex;
+                localIndex = 0;
+            }
+            
+            E element = block.get(localIndex);
+            int shifted = block.remove(localIndex);
+            
+            if (STATISTICS_ENABLED && statistics != null) {
+                statistics.shiftedElements += shifted;
+            }
+            
+            if (elementIndex != null) {
+                elementIndex.remove(element, block);
+            }
+            
+            if (changeLog != null) {
+                changeLog.removeAt(index);
+            }
+            
+            size--;
+            modificationCount++;
+            
+            if (coldBlockCompressor != null) {
+                coldBlockCompressor.modified(modificationCount);
+            }
+            
+            if (block.isEmpty()) {
+                blocks--;
+                unlinkBlock(block);
+                releaseStorage(block);
+                cursorBlock = null;
+            } else {
+                cursorBlock = block;
+            }
+            
+            cursorModificationCount = modificationCount;
+            return element;
+        } finally {
+            endStructuralChange();
+        }
+    }
+    
+    @Override
+    public int indexOf(Object o) {
+        if (elementIndex != null) {
+            Block<E> block = firstIndexedBlock(o);
+            return block == null ? -1 : blockStart(block) + block.indexOf(o);
+        }
+        
+        int index = 0;
+        
+        for (Block<E> block = headBlock; 
+                block != null; 
+                block = block.nextBlock) {
+            int localIndex = block.indexOf(o);
+            
+            if (localIndex >= 0) {
+                return index + localIndex;
+            }
+            
+            index += block.size;
+        }
+        
+        return -1;
+    }
+    
+    @Override
+    public int lastIndexOf(Object o) {
+        if (elementIndex != null) {
+            Block<E> block = lastIndexedBlock(o);
+            
+            if (block == null) {
+                return -1;
+            }
+            
+            int index = size;
+            
+            for (Block<E> b = block; b != null; b = b.nextBlock) {
+                index -= b.size;
+            }
+            
+            return index + block.lastIndexOf(o);
+        }
+        
+        int index = size;
+        
+        for (Block<E> block = tailBlock; 
+                block != null; 
+                block = block.previousBlock) {
+            index -= block.size;
+            int localIndex = block.lastIndexOf(o);
+            
+            if (localIndex >= 0) {
+                return index + localIndex;
+            }
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * Returns the number of elements in this list satisfying 
+     * {@code predicate}.
+     * 
+     * @param predicate the predicate to test the elements with.
+     * @return the number of matching elements.
+     */
+    public int count(Predicate<? super E> predicate) {
+        Objects.requireNonNull(predicate, "The input predicate is null.");
+        int count = 0;
+        
+        for (Block<E> block = headBlock; 
+                block != null; 
+                block = block.nextBlock) {
+            E[] array = block.residentArray();
+            
+            for (int i = block.firstSegmentStart(), 
+                    end = block.firstSegmentEnd();
+                    i < end;
+                    i++) {
+                if (predicate.test(array[i])) {
+                    count++;
+                }
+            }
+            
+            for (int i = block.secondSegmentStart(), 
+                    end = block.secondSegmentEnd();
+                    i < end;
+                    i++) {
+                if (predicate.test(array[i])) {
+                    count++;
+                }
+            }
+        }
+        
+        return count;
+    }
+    
+    /**
+     * Returns the sum of {@code mapper} over all the elements in this list.
+     * 
+     * @param mapper the function mapping each element to a {@code long}.
+     * @return the sum of mapped elements.
+     */
+    public long sum(ToLongFunction<? super E> mapper) {
+        Objects.requireNonNull(mapper, "The input mapper is null.");
+        long sum = 0L;
+        
+        for (Block<E> block = headBlock; 
+                block != null; 
+                block = block.nextBlock) {
+            E[] array = block.residentArray();
+            
+            for (int i = block.firstSegmentStart(), 
+                    end = block.firstSegmentEnd();
+                    i < end;
+                    i++) {
+                sum += mapper.applyAsLong(array[i]);
+            }
+            
+            for (int i = block.secondSegmentStart(), 
+                    end = block.secondSegmentEnd();
+                    i < end;
+                    i++) {
+                sum += mapper.applyAsLong(array[i]);
+            }
+        }
+        
+        return sum;
+    }
+    
+    /**
+     * Returns the minimum element of this list according to 
+     * {@code comparator}. If there are several minimum elements, the first
+     * one is returned.
+     * 
+     * @param comparator the comparator.
+     * @return the minimum element.
+     * @throws NoSuchElementException if this list is empty.
+     */
+    public E min(Comparator<? super E> comparator) {
+        Objects.requireNonNull(comparator, "The input comparator is null.");
+        
+        if (isEmpty()) {
+            throw new NoSuchElementException("The list is empty.");
+        }
+        
+        E best = headBlock.get(0);
+        
+        for (Block<E> block = headBlock; 
+                block != null; 
+                block = block.nextBlock) {
+            E[] array = block.residentArray();
+            
+            for (int i = block.firstSegmentStart(), 
+                    end = block.firstSegmentEnd();
+                    i < end;
+                    i++) {
+                if (comparator.compare(array[i], best) < 0) {
+                    best = array[i];
+                }
+            }
+            
+            for (int i = block.secondSegmentStart(), 
+                    end = block.secondSegmentEnd();
+                    i < end;
+                    i++) {
+                if (comparator.compare(array[i], best) < 0) {
+                    best = array[i];
+                }
+            }
+        }
+        
+        return best;
+    }
+    
+    /**
+     * Returns the maximum element of this list according to 
+     * {@code comparator}. If there are several maximum elements, the first
+     * one is returned.
+     * 
+     * @param comparator the comparator.
+     * @return the maximum element.
+     * @throws NoSuchElementException if this list is empty.
+     */
+    public E max(Comparator<? super E> comparator) {
+        Objects.requireNonNull(comparator, "The input comparator is null.");
+        return min(Collections.reverseOrder(comparator));
+    }
+    
+    /**
+     * Returns the element that would be at position {@code k} if this list 
+     * was sorted by {@code comparator}. This list is neither reordered nor 
+     * copied: the candidate values are narrowed down by counting passes over 
+     * the blocks, run in parallel, until few enough candidates remain to be
+     * copied out and selected from. Runs in expected linear time.
+     * 
+     * @param k          the rank of the element to select.
+     * @param comparator the comparator.
+     * @return the element of rank {@code k}.
+     * @throws IndexOutOfBoundsException if {@code k} is out of range 
+     *         <tt>(k &lt; 0 || k &gt;= size())</tt>.
+     */
+    public E select(int k, Comparator<? super E> comparator) {
+        Objects.requireNonNull(comparator, "The input comparator is null.");
+        checkAccessIndex(k);
+        return orderStatistics(comparator).select(k);
+    }
+    
+    /**
+     * Returns the {@code k} greatest elements of this list according to 
+     * {@code comparator}, in descending order. If {@code k} is at least the 
+     * size of this list, all the elements are returned. The 
+     * {@code k}<sup>th</sup> greatest element is found by 
+     * {@link #select(int, Comparator)}, after which only the elements not 
+     * less than it are copied. Runs in expected <tt>O(n + k log k)</tt> time.
+     * 
+     * @param k          the number of elements to return.
+     * @param comparator the comparator.
+     * @return the list of the greatest elements.
+     * @throws IllegalArgumentException if {@code k} is negative.
+     */
+    public List<E> topK(int k, Comparator<? super E> comparator) {
+        Objects.requireNonNull(comparator, "The input comparator is null.");
+        checkMaxElements(k);
+        return orderStatistics(comparator).topK(k);
+    }
+    
+    /**
+     * Returns the elements at the given percentiles of this list according
+     * to the natural ordering of the elements. 
+     * 
+     * @param percentiles the percentiles in the range <tt>[0, 100]</tt>.
+     * @return the list of the percentile elements.
+     * @throws ClassCastException if the elements are not 
+     *         {@link Comparable}.
+     * @see #percentiles(Comparator, double...)
+     */
+    public List<E> percentiles(double... percentiles) {
+        return percentiles((a, b) -> ((Comparable<Object>) a).compareTo(b),
+                           percentiles);
+    }
+    
+    /**
+     * Returns the elements at the given percentiles of this list according
+     * to {@code comparator}. The element at percentile {@code p} is the 
+     * element of rank <tt>ceil(p / 100 * size()) - 1</tt> (the nearest-rank
+     * definition), or the minimum element if {@code p} is 0. Each percentile
+     * is selected by {@link #select(int, Comparator)}.
+     * 
+     * @param comparator  the comparator.
+     * @param percentiles the percentiles in the range <tt>[0, 100]</tt>.
+     * @return the list of the percentile elements, in the order of 
+     *         {@code percentiles}.
+     * @throws IllegalArgumentException if a percentile is out of range.
+     * @throws NoSuchElementException if this list is empty.
+     */
+    public List<E> percentiles(Comparator<? super E> comparator,
+                               double... percentiles) {
+        Objects.requireNonNull(comparator, "The input comparator is null.");
+        Objects.requireNonNull(percentiles, "The percentile array is null.");
+        
+        for (double percentile : percentiles) {
+            if (!(percentile >= 0.0 && percentile <= 100.0)) {
+                throw new IllegalArgumentException(
+                        "The percentile (" + percentile + 
+                        ") is out of range [0, 100].");
+            }
+        }
+        
+        if (isEmpty()) {
+            throw new NoSuchElementException("The list is empty.");
+        }
+        
+        OrderStatistics<E> orderStatistics = orderStatistics(comparator);
+        List<E> result = new ArrayList<>(percentiles.length);
+        
+        for (double percentile : percentiles) {
+            int rank = (int) Math.ceil(percentile / 100.0 * size) - 1;
+            result.add(orderStatistics.select(Math.max(0, rank)));
+        }
+        
+        return result;
+    }
+    
+    private OrderStatistics<E> orderStatistics(
+            Comparator<? super E> comparator) {
+        // Faulting in the spilled or compressed blocks is not thread-safe.
+        boolean parallel = spiller == null && coldBlockCompressor == null;
+        return new OrderStatistics<>(this, comparator, parallel);
+    }
+    
+    @Override
+    public ListIterator<E> listIterator() {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public ListIterator<E> listIterator(int index) {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public List<E> subList(int fromIndex, int toIndex) {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public Spliterator<E> spliterator() {
+        return List.super.spliterator(); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        return List.super.removeIf(filter); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public Stream<E> stream() {
+        return List.super.stream(); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public Stream<E> parallelStream() {
+        return List.super.parallelStream(); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    /**
+     * Performs {@code action} for each element of this list in order. Runs 
+     * over the contiguous runs of the blocks without an iterator.
+     * 
+     * @param action the action to perform.
+     */
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        Objects.requireNonNull(action, "The input action is null.");
+        int expectedModificationCount = modificationCount;
+        
+        for (Block<E> block = headBlock; 
+                block != null; 
+                block = block.nextBlock) {
+            E[] array = block.residentArray();
+            
+            for (int i = block.firstSegmentStart(), 
+                    end = block.firstSegmentEnd();
+                    i < end;
+                    i++) {
+                action.accept(array[i]);
+            }
+            
+            for (int i = block.secondSegmentStart(), 
+                    end = block.secondSegmentEnd();
+                    i < end;
+                    i++) {
+                action.accept(array[i]);
+            }
+            
+            if (expectedModificationCount != modificationCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+    
+    /**
+     * Compares {@code o} with this list for equality as specified by 
+     * {@link List#equals(Object)}. If {@code o} is a 
+     * {@code LinkedArrayBlockList}, both block chains are walked in lockstep,
+     * one run of overlapping segments at a time, and the runs sharing the 
+     * same storage array (as after {@link #clone()}) are skipped without 
+     * comparing their elements.
+     * 
+     * @param o the object to compare with.
+     * @return <tt>true</tt> if {@code o} is a list with equal elements in the
+     *         same order.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        
+        if (!(o instanceof List)) {
+            return false;
+        }
+        
+        List<?> other = (List<?>) o;
+        
+        if (other.size() != size) {
+            return false;
+        }
+        
+        if (o instanceof LinkedArrayBlockList) {
+            return chainEquals((LinkedArrayBlockList<?>) o);
+        }
+        
+        Iterator<?> iterator = other.iterator();
+        
+        for (Block<E> block = headBlock; 
+                block != null; 
+                block = block.nextBlock) {
+            E[] array = block.residentArray();
+            
+            for (int i = block.firstSegmentStart(), 
+                    end = block.firstSegmentEnd();
+                    i < end;
+                    i++) {
+                if (!Objects.equals(array[i], iterator.next())) {
+                    return false;
+                }
+            }
+            
+            for (int i = block.secondSegmentStart(), 
+                    end = block.secondSegmentEnd();
+                    i < end;
+                    i++) {
+                if (!Objects.equals(array[i], iterator.next())) {
+                    return false;
+                }
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Returns the hash code of this list as specified by 
+     * {@link List#hashCode()}. If hash code caching is enabled, the hash code
+     * is recomputed only if this list was modified since the previous call, 
+     * and appending extends the cached hash code incrementally.
+     * 
+     * @return the hash code of this list.
+     */
+    @Override
+    public int hashCode() {
+        if (hashCodeCached 
+                && cachedHashCodeModificationCount == modificationCount) {
+            return cachedHashCode;
+        }
+        
+        int hashCode = 1;
+        
+        for (Block<E> block = headBlock; 
+                block != null; 
+                block = block.nextBlock) {
+            E[] array = block.residentArray();
+            
+            for (int i = block.firstSegmentStart(), 
+                    end = block.firstSegmentEnd();
+                    i < end;
+                    i++) {
+                hashCode = 31 * hashCode + Objects.hashCode(array[i]);
+            }
+            
+            for (int i = block.secondSegmentStart(), 
+                    end = block.secondSegmentEnd();
+                    i < end;
+                    i++) {
+                hashCode = 31 * hashCode + Objects.hashCode(array[i]);
+            }
+        }
+        
+        if (hashCodeCaching) {
+            cachedHashCode = hashCode;
+            cachedHashCodeModificationCount = modificationCount;
+            hashCodeCached = true;
+        }
+        
+        return hashCode;
+    }
+    
+    /**
+     * Enables caching the hash code of this list. The cached hash code is 
+     * invalidated by any modification of this list, but not by mutations of
+     * the elements themselves; enable caching only if the elements are 
+     * immutable.
+     */
+    public void enableHashCodeCaching() {
+        hashCodeCaching = true;
+        updateAppendHooks();
+    }
+    
+    /**
+     * Disables caching the hash code of this list.
+     */
+    public void disableHashCodeCaching() {
+        hashCodeCaching = false;
+        hashCodeCached = false;
+        updateAppendHooks();
+    }
+    
+    /**
+     * Compares the elements of this list and {@code other}, which has the 
+     * same size, walking both block chains in lockstep.
+     * 
+     * @param other the list to compare with.
+     * @return <tt>true</tt> if the elements are equal.
+     */
+    private boolean chainEquals(LinkedArrayBlockList<?> other) {
+        Block<E> block = headBlock;
+        Block<?> otherBlock = other.headBlock;
+        int index = 0;
+        int otherIndex = 0;
+        int remaining = size;
+        
+        while (remaining > 0) {
+            while (index == block.size) {
+                block = block.nextBlock;
+                index = 0;
+            }
+            
+            while (otherIndex == otherBlock.size) {
+                otherBlock = otherBlock.nextBlock;
+                otherIndex = 0;
+            }
+            
+            int length = Math.min(block.size - index, 
+                                  otherBlock.size - otherIndex);
+            
+            if (block.array == null 
+                    || block.array != otherBlock.array
+                    || block.offset != otherBlock.offset
+                    || block.headIndex + index != 
+                       otherBlock.headIndex + otherIndex) {
+                Object[] array = block.residentArray();
+                Object[] otherArray = otherBlock.residentArray();
+                int i = (block.headIndex + index) % block.capacity;
+                int j = (otherBlock.headIndex + otherIndex) % 
+                        otherBlock.capacity;
+                
+                for (int k = 0; k < length; k++) {
+                    if (!Objects.equals(array[block.offset + i], 
+                                        otherArray[otherBlock.offset + j])) {
+                        return false;
+                    }
+                    
+                    if (++i == block.capacity) {
+                        i = 0;
+                    }
+                    
+                    if (++j == otherBlock.capacity) {
+                        j = 0;
+                    }
+                }
+            }
+            
+            index += length;
+            otherIndex += length;
+            remaining -= length;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Estimates the heap memory retained by the structure of this list: the
+     * list and block objects, the chain pointers and the storage array slots,
+     * both live and empty. Runs in <tt>O(blocks)</tt>; the elements 
+     * themselves are not counted.
+     * 
+     * @return the footprint estimate.
+     */
+    public LinkedArrayBlockListFootprint estimateFootprint() {
+        return new LinkedArrayBlockListFootprint(this);
+    }
+    
+    /**
+     * Estimates the heap memory retained by this list including its 
+     * elements. The element sizes are estimated by applying 
+     * {@code elementSizer} to at most {@code sampleSize} evenly spaced 
+     * elements.
+     * 
+     * @param elementSizer the function returning the retained size of an 
+     *                     element in bytes.
+     * @param sampleSize   the maximum number of elements to sample.
+     * @return the footprint estimate.
+     */
+    public LinkedArrayBlockListFootprint estimateFootprint(
+            ToLongFunction<? super E> elementSizer,
+            int sampleSize) {
+        Objects.requireNonNull(elementSizer, "The element sizer is null.");
+        
+        if (sampleSize <= 0) {
+            throw new IllegalArgumentException(
+                    "The sample size (" + sampleSize + ") must be positive.");
+        }
+        
+        LinkedArrayBlockListFootprint footprint = 
+                new LinkedArrayBlockListFootprint(this);
+        footprint.sampleElements(this, elementSizer, sampleSize);
+        return footprint;
+    }
+    
+    /**
+     * Returns a publisher emitting the elements of this list one by one, as
+     * demanded by its subscribers.
+     * 
+     * @return the element publisher.
+     */
+    public BlockFlow.Publisher<E> publisher() {
+        return BlockFlow.elementPublisher(this);
+    }
+    
+    /**
+     * Returns a publisher emitting the contents of each non-empty block of 
+     * this list as a single batch; one unit of demand is one batch.
+     * 
+     * @return the batch publisher.
+     */
+    public BlockFlow.Publisher<List<E>> batchPublisher() {
+        return BlockFlow.batchPublisher(this);
+    }
+    
+    /**
+     * Returns a subscriber appending each received batch to the end of this
+     * list.
+     * 
+     * @param prefetch the number of batches to keep requested.
+     * @return the batch subscriber.
+     */
+    public BlockFlow.BlockSubscriber<E> subscriber(int prefetch) {
+        return new BlockFlow.BlockSubscriber<>(this, prefetch);
+    }
+    
+    /**
+     * Calls {@code visitor} for each contiguous run of elements in this list,
+     * in order. A block contributes at most two runs. This allows tight 
+     * indexed loops over the storage arrays with no per-element indirection.
+     * 
+     * @param visitor the segment visitor.
+     * @throws ConcurrentModificationException if the visitor modifies this 
+     *         list.
+     */
+    public void forEachSegment(SegmentVisitor<? super E> visitor) {
+        Objects.requireNonNull(visitor, "The input visitor is null.");
+        int expectedModificationCount = modificationCount;
+        
+        for (Block<E> block = headBlock; 
+                block != null; 
+                block = block.nextBlock) {
+            if (block.isEmpty()) {
+                continue;
+            }
+            
+            E[] array = block.residentArray();
+            visitor.visit(array, 
+                          block.firstSegmentStart(), 
+                          block.firstSegmentEnd());
+            int secondSegmentStart = block.secondSegmentStart();
+            int secondSegmentEnd = block.secondSegmentEnd();
+            
+            if (secondSegmentEnd > secondSegmentStart) {
+                visitor.visit(array, secondSegmentStart, secondSegmentEnd);
+            }
+            
+            if (expectedModificationCount != modificationCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+    
+    @Override
+    public void addFirst(E e) {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public void addLast(E e) {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public boolean offerFirst(E e) {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public boolean offerLast(E e) {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public E removeFirst() {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public E removeLast() {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public E pollFirst() {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public E pollLast() {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public E getFirst() {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public E getLast() {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public E peekFirst() {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public E peekLast() {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public boolean offer(E e) {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public E remove() {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public E poll() {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public E element() {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public E peek() {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public void push(E e) {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public E pop() {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    @Override
+    public Iterator<E> descendingIterator() {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+    
+    /**
+     * This inner class implements a forward iterator walking the block chain.
+     */
+    private final class BlockIterator implements Iterator<E> {
+        
+        /**
+         * The block containing the next element to return.
+         */
+        private Block<E> block = headBlock;
+        
+        /**
+         * The logical index of the next element within {@code block}.
+         */
+        private int localIndex;
+        
+        /**
+         * The number of elements returned so far.
+         */
+        private int iterated;
+        
+        /**
+         * The modification count this iterator expects the list to have.
+         */
+        private final int expectedModificationCount = modificationCount;
+        
+        @Override
+        public boolean hasNext() {
+            return iterated < size;
+        }
+        
+        @Override
+        public E next() {
+            if (expectedModificationCount != modificationCount) {
+                throw new ConcurrentModificationException();
+            }
+            
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            
+            while (localIndex >= block.size) {
+                block = block.nextBlock;
+                localIndex = 0;
+            }
+            
+            iterated++;
+            return block.get(localIndex++);
+        }
+    }
+    
+    /**
+     * Starts collecting the runtime statistics of this list, unless already
+     * started, and returns the statistics object. The returned object
+     * implements a standard MBean interface and may be registered with an 
+     * {@code MBeanServer}.
+     * 
+     * @return the statistics of this list.
+     * @throws IllegalStateException if the statistics are disabled via the 
+     *         system property 
+     *         <tt>net.coderodde.util.LinkedArrayBlockList.statistics</tt>.
+     */
+    public LinkedArrayBlockListStatistics enableStatistics() {
+        if (!STATISTICS_ENABLED) {
+            throw new IllegalStateException(
+                    "Statistics are disabled. Set the system property " +
+                    "'net.coderodde.util.LinkedArrayBlockList.statistics' " +
+                    "to 'true' in order to enable them.");
+        }
+        
+        if (statistics == null) {
+            statistics = new LinkedArrayBlockListStatistics(this);
+        }
+        
+        return statistics;
+    }
+    
+    /**
+     * Starts maintaining a hash index mapping each element to the blocks 
+     * holding it, unless already maintained. Building the index takes linear
+     * time. While the index is maintained, {@link #contains(Object)} and 
+     * {@link #containsAll(Collection)} run in expected constant time per 
+     * element. {@link #indexOf(Object)}, {@link #lastIndexOf(Object)} and
+     * {@link #remove(Object)} look the element up once and scan the elements
+     * of only one block holding it. The chain is still walked, without 
+     * looking at the elements, in order to compute the index of the element
+     * and to find the first (or the last) of several blocks holding it. 
+     * Every modification updates the index in expected constant time per 
+     * element regardless of the number of duplicates, and 
+     * {@link #appendAll(LinkedArrayBlockList)} and {@link #splitAt(int)} run 
+     * in time linear in the number of moved elements. The index is not 
+     * carried over to clones.
+     */
+    public void enableElementIndex() {
+        if (elementIndex != null) {
+            return;
+        }
+        
+        elementIndex = new ElementIndex<>();
+        updateAppendHooks();
+        
+        for (Block<E> block = headBlock;
+                block != null;
+                block = block.nextBlock) {
+            indexBlock(block);
+        }
+    }
+    
+    /**
+     * Stops maintaining the element index and releases it.
+     */
+    public void disableElementIndex() {
+        elementIndex = null;
+        updateAppendHooks();
+    }
+    
+    /**
+     * Starts evicting the interior blocks of this list to {@code file} 
+     * whenever more than {@code maxResidentBlocks} blocks are resident. The
+     * evicted blocks stay in the chain as stubs and are read back on access.
+     * The head and tail blocks are never evicted, so appending and removing 
+     * at the ends stays fast. The blocks to evict are chosen by the CLOCK
+     * policy, which approximates LRU. 
+     * <p>
+     * The file is created (or truncated) and deleted when spilling is 
+     * disabled. The clones and the lists split off this list may share the 
+     * evicted blocks; such blocks must be read (for example, by iterating)
+     * before spilling is disabled. The spill file is append-only and is not
+     * compacted. I/O errors while evicting or faulting are thrown as 
+     * {@link java.io.UncheckedIOException}.
+     * 
+     * @param file              the spill file.
+     * @param codec             the element codec.
+     * @param maxResidentBlocks the maximum number of resident blocks.
+     * @throws IOException if the spill file cannot be opened.
+     */
+    public void enableSpilling(Path file,
+                               BlockCodec<E> codec,
+                               int maxResidentBlocks) throws IOException {
+        Objects.requireNonNull(file, "The input file is null.");
+        Objects.requireNonNull(codec, "The input codec is null.");
+        
+        if (spiller != null) {
+            throw new IllegalStateException("Spilling is already enabled.");
+        }
+        
+        if (coldBlockCompressor != null) {
+            throw new IllegalStateException(
+                    "Spilling cannot be combined with compression.");
+        }
+        
+        if (reader != null) {
+            throw new IllegalStateException(
+                    "Spilling cannot be combined with concurrent reads.");
+        }
+        
+        if (maxResidentBlocks < 2) {
+            throw new IllegalArgumentException(
+                    "The maximum number of resident blocks (" + 
+                    maxResidentBlocks + ") must be at least 2.");
+        }
+        
+        spiller = new BlockSpiller<>(this, file, codec, maxResidentBlocks);
+    }
+    
+    /**
+     * Reads all the evicted blocks back into memory, stops spilling and 
+     * deletes the spill file.
+     * 
+     * @throws IOException if closing the spill file fails.
+     */
+    public void disableSpilling() throws IOException {
+        if (spiller != null) {
+            BlockSpiller<E> closingSpiller = spiller;
+            spiller = null;
+            closingSpiller.close();
+        }
+    }
+    
+    /**
+     * Starts logging the modifications of this list to {@code file}, so that
+     * the contents can be restored with {@link #recover(Path, BlockCodec, int)}
+     * after a crash. The file is replaced by a checkpoint of the current 
+     * contents, after which each modification appends a checksummed record 
+     * holding the operation and its operands. The records are buffered and 
+     * forced to the storage device once per {@code groupCommitRecords} 
+     * records, and on {@link #syncChangeLog()}; a crash loses at most the 
+     * modifications logged since the last sync. I/O errors while logging a 
+     * modification are thrown as {@link java.io.UncheckedIOException}.
+     * 
+     * @param file               the log file.
+     * @param codec              the element codec.
+     * @param groupCommitRecords the number of records per sync.
+     * @throws IOException if the checkpoint cannot be written.
+     */
+    public void enableChangeLog(Path file,
+                                BlockCodec<E> codec,
+                                int groupCommitRecords) throws IOException {
+        Objects.requireNonNull(file, "The input file is null.");
+        Objects.requireNonNull(codec, "The input codec is null.");
+        
+        if (changeLog != null) {
+            throw new IllegalStateException(
+                    "The change log is already enabled.");
+        }
+        
+        if (groupCommitRecords <= 0) {
+            throw new IllegalArgumentException(
+                    "The number of records per sync (" + groupCommitRecords +
+                    ") must be positive.");
+        }
+        
+        ChangeLog<E> newChangeLog = 
+                new ChangeLog<>(file, codec, groupCommitRecords);
+        newChangeLog.checkpoint(this);
+        changeLog = newChangeLog;
+        updateAppendHooks();
+    }
+    
+    /**
+     * Replaces the change log with a checkpoint of the current contents of 
+     * this list, so that the log stops growing and the recovery does not 
+     * replay the older modifications. The checkpoint is written to a 
+     * temporary file that atomically replaces the log.
+     * 
+     * @throws IOException if the checkpoint cannot be written.
+     * @throws IllegalStateException if the change log is not enabled.
+     */
+    public void checkpoint() throws IOException {
+        if (changeLog == null) {
+            throw new IllegalStateException("The change log is not enabled.");
+        }
+        
+        changeLog.checkpoint(this);
+    }
+    
+    /**
+     * Forces all the logged modifications to the storage device.
+     * 
+     * @throws IOException if writing the log fails.
+     * @throws IllegalStateException if the change log is not enabled.
+     */
+    public void syncChangeLog() throws IOException {
+        if (changeLog == null) {
+            throw new IllegalStateException("The change log is not enabled.");
+        }
+        
+        changeLog.sync();
+    }
+    
+    /**
+     * Syncs and closes the change log and stops logging. The log file is 
+     * kept.
+     * 
+     * @throws IOException if writing or closing the log fails.
+     */
+    public void disableChangeLog() throws IOException {
+        if (changeLog != null) {
+            ChangeLog<E> closingChangeLog = changeLog;
+            changeLog = null;
+            updateAppendHooks();
+            closingChangeLog.close();
+        }
+    }
+    
+    /**
+     * Restores a list from the change log {@code file} by replaying its 
+     * checkpoint and the modifications logged after it. The replay stops at 
+     * the first record that is torn or fails its checksum, which is where the
+     * crash happened.
+     * 
+     * @param <E>           the element type.
+     * @param file          the log file.
+     * @param codec         the element codec.
+     * @param blockCapacity the block capacity of the restored list.
+     * @return the restored list.
+     * @throws IOException if reading the log fails.
+     * @see #enableChangeLog(Path, BlockCodec, int)
+     */
+    public static <E> LinkedArrayBlockList<E> recover(Path file,
+                                                      BlockCodec<E> codec,
+                                                      int blockCapacity) 
+            throws IOException {
+        Objects.requireNonNull(file, "The input file is null.");
+        Objects.requireNonNull(codec, "The input codec is null.");
+        LinkedArrayBlockList<E> list = 
+                new LinkedArrayBlockList<>(blockCapacity);
+        ChangeLog.replay(file, codec, list);
+        return list;
+    }
+    
+    /**
+     * Starts compressing the interior blocks of this list that stay idle. A
+     * block is idle if it is not accessed between two sweeps over the chain.
+     * A sweep runs after every {@code idleModifications} modifications and,
+     * when {@code idleMillis} is positive, on a modification once 
+     * {@code idleMillis} milliseconds have passed since the previous sweep. 
+     * A compressed block is decompressed transparently on access. The head 
+     * and tail blocks are never compressed. Compression cannot be combined 
+     * with spilling.
+     * 
+     * @param compressor        the element compressor.
+     * @param idleModifications the number of modifications between sweeps, 
+     *                          or 0 for no modification-based sweeps.
+     * @param idleMillis        the time between sweeps in milliseconds, or 0
+     *                          for no time-based sweeps.
+     * @see BlockCompressors
+     */
+    public void enableCompression(BlockCompressor<E> compressor,
+                                  int idleModifications,
+                                  long idleMillis) {
+        Objects.requireNonNull(compressor, "The input compressor is null.");
+        
+        if (idleModifications < 0 || idleMillis < 0L) {
+            throw new IllegalArgumentException(
+                    "The idle thresholds must not be negative.");
+        }
+        
+        if (coldBlockCompressor != null) {
+            throw new IllegalStateException(
+                    "Compression is already enabled.");
+        }
+        
+        if (spiller != null) {
+            throw new IllegalStateException(
+                    "Compression cannot be combined with spilling.");
+        }
+        
+        if (reader != null) {
+            throw new IllegalStateException(
+                    "Compression cannot be combined with concurrent reads.");
+        }
+        
+        coldBlockCompressor = 
+                new ColdBlockCompressor<>(this, 
+                                          compressor, 
+                                          idleModifications,
+                                          idleMillis);
+        updateAppendHooks();
+    }
+    
+    /**
+     * Compresses right away all the interior blocks not accessed since the 
+     * previous sweep. This is useful for driving the sweeps from a timer.
+     * 
+     * @throws IllegalStateException if compression is not enabled.
+     */
+    public void compressIdleBlocks() {
+        if (coldBlockCompressor == null) {
+            throw new IllegalStateException("Compression is not enabled.");
+        }
+        
+        coldBlockCompressor.sweep();
+    }
+    
+    /**
+     * Decompresses all the blocks and stops compressing.
+     */
+    public void disableCompression() {
+        if (coldBlockCompressor != null) {
+            ColdBlockCompressor<E> closingCompressor = coldBlockCompressor;
+            coldBlockCompressor = null;
+            updateAppendHooks();
+            closingCompressor.close();
+        }
+    }
+    
+    /**
+     * Turns this list into a sliding window holding at most 
+     * {@code windowSize} most recently appended elements. Whenever an append
+     * would exceed the window size, the oldest elements are evicted from the
+     * head: the head index of the head block is advanced, and a fully 
+     * evicted head block is unlinked in constant time. Nothing is copied.
+     * If this list is larger than {@code windowSize}, the excess elements are
+     * evicted right away.
+     * 
+     * @param windowSize           the maximum number of elements.
+     * @param evictionListener     the listener receiving the contiguous runs
+     *                             of evicted elements before they are 
+     *                             cleared, or {@code null}.
+     * @param recycleEvictedBlocks whether to reuse a fully evicted block as
+     *                             the next tail block instead of allocating
+     *                             a new one.
+     */
+    public void enableSlidingWindow(int windowSize,
+                                    SegmentVisitor<? super E> evictionListener,
+                                    boolean recycleEvictedBlocks) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException(
+                    "The window size (" + windowSize + ") must be positive.");
+        }
+        
+        this.windowSize = windowSize;
+        updateAppendHooks();
+        this.evictionListener = evictionListener;
+        this.recycleEvictedBlocks = recycleEvictedBlocks;
+        
+        if (size > windowSize) {
+            evictFirst(size - windowSize);
+            modificationCount++;
+        }
+    }
+    
+    /**
+     * Makes this list unbounded again.
+     */
+    public void disableSlidingWindow() {
+        windowSize = 0;
+        updateAppendHooks();
+        evictionListener = null;
+        recycleEvictedBlocks = false;
+        spareBlock = null;
+    }
+    
+    /**
+     * Makes this list carve the storage of its new blocks from the slabs of
+     * {@code arena}, and return the storage of the blocks it unlinks or 
+     * clears to it. The blocks allocated before keep their own arrays. 
+     * Clearing a list that uses an arena takes time proportional to the 
+     * number of elements, since the returned regions are cleared.
+     * 
+     * @param arena the arena to use, or {@code null} to stop using one.
+     */
+    public void useArena(BlockArena arena) {
+        this.arena = arena;
+    }
+    
+    /**
+     * Makes sure that this list can grow to {@code minCapacity} elements by
+     * appending without allocating any blocks. The tail block is grown to 
+     * the block capacity if needed, and the missing blocks are allocated at
+     * once and reserved for the following appends. The reserved blocks are
+     * kept until used, also across {@link #clear()}.
+     * 
+     * @param minCapacity the desired minimum capacity.
+     */
+    public void ensureCapacity(int minCapacity) {
+        int needed = minCapacity - size;
+        
+        if (needed <= 0) {
+            return;
+        }
+        
+        if (headBlock == null) {
+            allocateHeadBlock(needed);
+        } else if (tailBlock.capacity - tailBlock.size < needed 
+                && tailBlock.capacity < blockCapacity) {
+            growBlock(tailBlock, 
+                      size - tailBlock.size, 
+                      tailBlock.size + needed);
+        }
+        
+        long available = (long) tailBlock.capacity - tailBlock.size +
+                         (long) reservedBlockCount * blockCapacity;
+        
+        while (available < needed) {
+            if (STATISTICS_ENABLED && statistics != null) {
+                statistics.blocksAllocated++;
+            }
+            
+            Block<E> block = newBlock(blockCapacity);
+            block.nextBlock = reservedBlocks;
+            reservedBlocks = block;
+            reservedBlockCount++;
+            available += blockCapacity;
+        }
+    }
+    
+    /**
+     * Enables lock-free reads of this list by other threads while a single 
+     * writer thread modifies it, and returns the reader to use in the 
+     * reading threads. Appending to the tail never disturbs the readers; 
+     * every other modification makes the reads in progress retry if they 
+     * traverse a block it may touch, so the edits near the tail do not 
+     * disturb the reads near the head. The concurrent reads cannot be 
+     * combined with spilling or compression, since faulting in a block is 
+     * not thread-safe.
+     * 
+     * @return the reader of this list.
+     * @throws IllegalStateException if the concurrent reads are already 
+     *         enabled, or spilling or compression is enabled.
+     */
+    public LinkedArrayBlockListReader<E> enableConcurrentReads() {
+        if (reader != null) {
+            throw new IllegalStateException(
+                    "The concurrent reads are already enabled.");
+        }
+        
+        if (spiller != null || coldBlockCompressor != null) {
+            throw new IllegalStateException(
+                    "Concurrent reads cannot be combined with spilling or " +
+                    "compression.");
+        }
+        
+        reader = new LinkedArrayBlockListReader<>(this);
+        updateAppendHooks();
+        return reader;
+    }
+    
+    /**
+     * Disables the concurrent reads. The subsequent reads through the reader
+     * throw {@link IllegalStateException}.
+     */
+    public void disableConcurrentReads() {
+        if (reader != null) {
+            LinkedArrayBlockListReader<E> closingReader = reader;
+            reader = null;
+            updateAppendHooks();
+            closingReader.close();
+        }
+    }
+    
+    /**
+     * Marks the beginning of a modification that moves or overwrites the 
+     * existing elements or blocks, none of which precedes the block holding
+     * the element at {@code fromIndex}. Invalidates the concurrent reads in
+     * progress that traverse that block or the blocks following it.
+     * 
+     * @param fromIndex the index of an element in the first block that may 
+     *                  be touched, or the size of this list if no block is.
+     */
+    private void beginStructuralChange(int fromIndex) {
+        if (reader != null) {
+            reader.beginWrite(fromIndex);
+        }
+    }
+    
+    /**
+     * Marks the end of a modification started by 
+     * {@link #beginStructuralChange(int)}.
+     */
+    private void endStructuralChange() {
+        if (reader != null) {
+            reader.endWrite(size);
+        }
+    }
+    
+    /**
+     * If the concurrent reads are enabled, copies the shared storage array of
+     * the tail block before an append as a structural change, since the 
+     * readers could otherwise see the new array reference before its 
+     * contents.
+     * 
+     * @param tailBlockStart the index of the first element of the tail block.
+     */
+    private void unshareTailBlock(int tailBlockStart) {
+        if (reader != null && tailBlock.shared) {
+            beginStructuralChange(tailBlockStart);
+            tailBlock.unshare();
+            endStructuralChange();
+        }
+    }
+    
+    /**
+     * Turns on the gap editing mode. A positional edit in the interior of a 
+     * block splits the block at the edit point, so that the free slots at the
+     * end of the left part and at the beginning of the right part form a gap
+     * at the edit position. The following insertions and removals at the gap
+     * run in constant time. The gap moves only when an edit happens 
+     * elsewhere: then the previous gap is closed by merging its two blocks 
+     * back if their elements fit in one block.
+     */
+    public void enableGapEditing() {
+        gapEditing = true;
+    }
+    
+    /**
+     * Turns off the gap editing mode.
+     */
+    public void disableGapEditing() {
+        gapEditing = false;
+        gapBlock = null;
+    }
+    
+    /**
+     * Forgets the edit cursor and the gap. Must be called whenever blocks 
+     * leave the chain of this list other than through 
+     * {@link #unlinkBlock(Block)}, since a later positional edit restamps 
+     * the cursor and would otherwise revive a gap at a detached block.
+     */
+    private void resetCursor() {
+        cursorBlock = null;
+        gapBlock = null;
+    }
+    
+    /**
+     * Points {@code cursorBlock} to the block containing the element at 
+     * {@code index} and sets {@code cursorBlockStart} accordingly. The search
+     * starts from the closest of the head block, the tail block and the 
+     * block of the previous edit, if that is still valid.
+     * 
+     * @param index the index of the element to locate.
+     */
+    private void moveCursor(int index) {
+        Block<E> block;
+        int start;
+        
+        if (cursorModificationCount != modificationCount) {
+            // The gap went stale, and its blocks may not even be in the chain
+            // any more.
+            gapBlock = null;
+        }
+        
+        if (cursorBlock != null 
+                && cursorModificationCount == modificationCount
+                && Math.abs(index - cursorBlockStart) < 
+                   Math.min(index, size - index)) {
+            block = cursorBlock;
+            start = cursorBlockStart;
+        } else if (index < size - index) {
+            block = headBlock;
+            start = 0;
+        } else {
+            block = tailBlock;
+            start = size - tailBlock.size;
+        }
+        
+        while (index < start) {
+            block = block.previousBlock;
+            start -= block.size;
+        }
+        
+        while (index >= start + block.size) {
+            start += block.size;
+            block = block.nextBlock;
+        }
+        
+        cursorBlock = block;
+        cursorBlockStart = start;
+        cursorModificationCount = modificationCount;
+    }
+    
+    /**
+     * Returns the index of the first element of the gap block, whose merge
+     * with the next block the next edit may touch, or the size of this list
+     * if there is no gap or the concurrent reads are disabled. Searches the 
+     * chain outwards from the cursor block, which is usually next to the 
+     * gap block. Called right after {@link #moveCursor(int)}.
+     * 
+     * @return the index of the first element of the gap block.
+     */
+    private int gapBlockStart() {
+        if (reader == null || gapBlock == null) {
+            return size;
+        }
+        
+        Block<E> backwardBlock = cursorBlock;
+        Block<E> forwardBlock = cursorBlock;
+        int backwardStart = cursorBlockStart;
+        int forwardStart = cursorBlockStart;
+        
+        while (backwardBlock != null || forwardBlock != null) {
+            if (backwardBlock == gapBlock) {
+                return backwardStart;
+            }
+            
+            if (forwardBlock == gapBlock) {
+                return forwardStart;
+            }
+            
+            if (backwardBlock != null) {
+                backwardBlock = backwardBlock.previousBlock;
+                
+                if (backwardBlock != null) {
+                    backwardStart -= backwardBlock.size;
+                }
+            }
+            
+            if (forwardBlock != null) {
+                forwardStart += forwardBlock.size;
+                forwardBlock = forwardBlock.nextBlock;
+            }
+        }
+        
+        // Not in the chain: take the whole list as touched.
+        return 0;
+    }
+    
+    /**
+     * Moves the elements of {@code block} at the logical indices 
+     * {@code localIndex} and above to a new block linked right after it.
+     * 
+     * @param block      the block to split.
+     * @param localIndex the logical index of the first moved element.
+     */
+    private void splitBlock(Block<E> block, int localIndex) {
+        int movedElements = block.size - localIndex;
+        Block<E> newBlock = 
+                allocateBlock(Math.max(blockCapacity, movedElements));
+        block.copyTo(localIndex, 
+                     newBlock.array, 
+                     newBlock.offset, 
+                     movedElements);
+        newBlock.size = movedElements;
+        block.truncate(localIndex);
+        
+        if (elementIndex != null) {
+            for (int i = 0; i < movedElements; i++) {
+                E element = newBlock.array[newBlock.offset + i];
+                elementIndex.remove(element, block);
+                elementIndex.add(element, newBlock);
+            }
+        }
+        
+        if (STATISTICS_ENABLED && statistics != null) {
+            statistics.shiftedElements += movedElements;
+        }
+        
+        newBlock.nextBlock = block.nextBlock;
+        newBlock.previousBlock = block;
+        
+        if (block.nextBlock == null) {
+            tailBlock = newBlock;
+        } else {
+            block.nextBlock.previousBlock = newBlock;
+        }
+        
+        block.nextBlock = newBlock;
+        blocks++;
+    }
+    
+    /**
+     * Returns <tt>true</tt> if {@code block} borders the current gap. The 
+     * edits in such a block shift only the few elements between the edit 
+     * point and the gap, so the block is not split again.
+     * 
+     * @param block the block to check.
+     * @return <tt>true</tt> if {@code block} is one of the gap blocks.
+     */
+    private boolean isGapBlock(Block<E> block) {
+        return gapBlock != null 
+                && (block == gapBlock || block == gapBlock.nextBlock);
+    }
+    
+    /**
+     * Moves the element of {@code sourceBlock} at {@code sourceIndex}, which
+     * must be its first or last element, to {@code targetBlock} at 
+     * {@code targetIndex}, which must be the first or the last position of 
+     * the target block. The target block must not be full.
+     * 
+     * @param sourceBlock the block to move the element from.
+     * @param sourceIndex the logical index of the element to move.
+     * @param targetBlock the block to move the element to.
+     * @param targetIndex the logical index of the element in the target 
+     *                    block.
+     */
+    private void moveElement(Block<E> sourceBlock, 
+                             int sourceIndex,
+                             Block<E> targetBlock,
+                             int targetIndex) {
+        E element = sourceBlock.get(sourceIndex);
+        sourceBlock.remove(sourceIndex);
+        targetBlock.insert(targetIndex, element);
+        
+        if (elementIndex != null) {
+            elementIndex.remove(element, sourceBlock);
+            elementIndex.add(element, targetBlock);
+        }
+    }
+    
+    /**
+     * Links {@code newBlock} right before {@code block}.
+     * 
+     * @param block    the block before which to link.
+     * @param newBlock the block to link.
+     */
+    private void linkBlockBefore(Block<E> block, Block<E> newBlock) {
+        newBlock.previousBlock = block.previousBlock;
+        newBlock.nextBlock = block;
+        
+        if (block.previousBlock == null) {
+            headBlock = newBlock;
+        } else {
+            block.previousBlock.nextBlock = newBlock;
+        }
+        
+        block.previousBlock = newBlock;
+        blocks++;
+    }
+    
+    /**
+     * Closes the current gap by merging the gap block with its next block if
+     * their elements fit in the gap block. Neither of the two blocks may be 
+     * {@code editedBlock}, which is about to be edited.
+     * 
+     * @param editedBlock the block about to be edited.
+     */
+    private void closeGap(Block<E> editedBlock) {
+        Block<E> block = gapBlock;
+        gapBlock = null;
+        
+        if (block == null || cursorModificationCount != modificationCount) {
+            return;
+        }
+        
+        Block<E> nextBlock = block.nextBlock;
+        
+        if (nextBlock == null 
+                || block == editedBlock 
+                || nextBlock == editedBlock
+                || block.size + nextBlock.size > block.capacity) {
+            return;
+        }
+        
+        Object[] elements = new Object[nextBlock.size];
+        nextBlock.copyTo(0, elements, 0, elements.length);
+        block.append(elements, 0, elements.length);
+        
+        if (elementIndex != null) {
+            for (Object element : elements) {
+                elementIndex.remove(element, nextBlock);
+                elementIndex.add(element, block);
+            }
+        }
+        
+        blocks--;
+        unlinkBlock(nextBlock);
+        releaseStorage(nextBlock);
+    }
+    
+    /**
+     * Evicts the first {@code count} elements of this list, notifying the 
+     * eviction listener. Does not update the modification count.
+     * 
+     * @param count the number of elements to evict.
+     */
+    private void evictFirst(int count) {
+        removeFirst(count, evictionListener);
+    }
+    
+    /**
+     * Removes the first {@code count} elements of this list, one head block 
+     * at a time. The contiguous runs of each block are passed to 
+     * {@code visitor} before they are cleared; a fully drained head block is
+     * unlinked, and kept as the spare block if block recycling is on. Does 
+     * not update the modification count.
+     * 
+     * @param count   the number of elements to remove.
+     * @param visitor the visitor of the removed runs, or {@code null}.
+     * @throws ConcurrentModificationException if the visitor modifies this
+     *         list.
+     */
+    private void removeFirst(int count, SegmentVisitor<? super E> visitor) {
+        beginStructuralChange(0);
+        int removed = 0;
+        
+        try {
+            int expectedModificationCount = modificationCount;
+            hashCodeCached = false;
+            
+            while (count > 0) {
+                Block<E> block = headBlock;
+                int length = Math.min(count, block.size);
+                
+                if (visitor != null) {
+                    if (changeLog != null && removed > 0) {
+                        // The visitor may log its own modifications.
+                        changeLog.removeFirst(removed);
+                        removed = 0;
+                    }
+                    
+                    E[] array = block.residentArray();
+                    int firstRunStart = block.firstSegmentStart();
+                    int firstRunLength = 
+                            Math.min(length, block.capacity - block.headIndex);
+                    visitor.visit(array, 
+                                  firstRunStart,
+                                  firstRunStart + firstRunLength);
+                    
+                    if (firstRunLength < length) {
+                        int secondRunStart = block.secondSegmentStart();
+                        visitor.visit(array, 
+                                      secondRunStart, 
+                                      secondRunStart + length - 
+                                              firstRunLength);
+                    }
+                    
+                    if (expectedModificationCount != modificationCount) {
+                        throw new ConcurrentModificationException();
+                    }
+                }
+                
+                if (elementIndex != null) {
+                    for (int i = 0; i < length; i++) {
+                        elementIndex.remove(block.get(i), block);
+                    }
+                }
+                
+                block.removeFirst(length);
+                count -= length;
+                size -= length;
+                removed += length;
+                
+                if (block.isEmpty()) {
+                    blocks--;
+                    unlinkBlock(block);
+                    
+                    if (recycleEvictedBlocks) {
+                        block.headIndex = 0;
+                        block.previousBlock = null;
+                        block.nextBlock = null;
+                        block.store = null;
+                        block.spillPosition = -1L;
+                        spareBlock = block;
+                    } else {
+                        releaseStorage(block);
+                    }
+                }
+            }
+        } finally {
+            // Log exactly the elements removed before a failing visitor.
+            if (changeLog != null && removed > 0) {
+                changeLog.removeFirst(removed);
+            }
+            
+            endStructuralChange();
+        }
+    }
+    
+    /**
+     * Detaches whole blocks from the head of this list as long as at most 
+     * {@code maxBlocks} blocks holding at most {@code maxElements} elements 
+     * in total are detached. The detached blocks are relinked into the 
+     * returned list without copying. Does not update the modification count.
+     * 
+     * @param maxBlocks   the maximum number of blocks to detach.
+     * @param maxElements the maximum number of elements to detach.
+     * @return the list of the detached blocks.
+     */
+    private LinkedArrayBlockList<E> detachHeadBlocks(int maxBlocks, 
+                                                     int maxElements) {
+        LinkedArrayBlockList<E> result = 
+                new LinkedArrayBlockList<>(blockCapacity);
+        Block<E> block = headBlock;
+        
+        while (block != null 
+                && result.blocks < maxBlocks
+                && block.size <= maxElements - result.size) {
+            if (elementIndex != null) {
+                unindexBlock(block);
+            }
+            
+            result.blocks++;
+            result.size += block.size;
+            block = block.nextBlock;
+        }
+        
+        if (result.blocks == 0) {
+            return result;
+        }
+        
+        beginStructuralChange(0);
+        
+        try {
+            result.headBlock = headBlock;
+            
+            if (block == null) {
+                result.tailBlock = tailBlock;
+                headBlock = null;
+                tailBlock = null;
+            } else {
+                result.tailBlock = block.previousBlock;
+                result.tailBlock.nextBlock = null;
+                block.previousBlock = null;
+                headBlock = block;
+            }
+            
+            blocks -= result.blocks;
+            size -= result.size;
+            resetCursor();
+            
+            if (changeLog != null) {
+                changeLog.removeFirst(result.size);
+            }
+            
+            if (spiller != null) {
+                spiller.recount();
             }
+        } finally {
+            endStructuralChange();
         }
         
-        return -1;
+        return result;
     }
-
-    @Override
-    public int lastIndexOf(Object o) {
-        int index = size - 1;
-        
-        if (o == null) {
-            for (Block<E> block = tailBlock; 
-                    block != block; 
-                    block = block.previousBlock) {
-                for (int i = block.size - 1; i >= 0; i--, index--) {
-                    if (block.get(i) == null) {
-                        return index;
-                    }
-                }
-            }
-        } else {
-            for (Block<E> block = tailBlock; 
-                    block != null; 
-                    block = block.previousBlock) {
-                for (int i = block.size - 1; i >= 0; i--, index--) {
-                    if (o.equals(block.get(i))) {
-                        return index;
-                    }
-                }
-            }
+    
+    /**
+     * Returns the first block holding {@code o} according to the element 
+     * index, or {@code null} if there is no such. The element is looked up 
+     * once; if several blocks hold it, the chain is walked from the head 
+     * block to the first of them without looking at any elements.
+     * 
+     * @param o the element to query.
+     * @return the first block holding the element or {@code null}.
+     */
+    private Block<E> firstIndexedBlock(Object o) {
+        Object candidates = elementIndex.blocksOf(o);
+        
+        if (!(candidates instanceof Map)) {
+            return (Block<E>) candidates;
         }
         
-        return -1;
-    }
-
-    @Override
-    public ListIterator<E> listIterator() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
-    }
-
-    @Override
-    public ListIterator<E> listIterator(int index) {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
-    }
-
-    @Override
-    public List<E> subList(int fromIndex, int toIndex) {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
-    }
-
-    @Override
-    public Spliterator<E> spliterator() {
-        return List.super.spliterator(); //To change body of generated methods, choose Tools | Templates.
-    }
-
-    @Override
-    public boolean removeIf(Predicate<? super E> filter) {
-        return List.super.removeIf(filter); //To change body of generated methods, choose Tools | Templates.
-    }
-
-    @Override
-    public Stream<E> stream() {
-        return List.super.stream(); //To change body of generated methods, choose Tools | Templates.
-    }
-
-    @Override
-    public Stream<E> parallelStream() {
-        return List.super.parallelStream(); //To change body of generated methods, choose Tools | Templates.
-    }
-
-    @Override
-    public void forEach(Consumer<? super E> action) {
-        List.super.forEach(action); //To change body of generated methods, choose Tools | Templates.
-    }
-
-    @Override
-    public void addFirst(E e) {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
-    }
-
-    @Override
-    public void addLast(E e) {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
-    }
-
-    @Override
-    public boolean offerFirst(E e) {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
-    }
-
-    @Override
-    public boolean offerLast(E e) {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
-    }
-
-    @Override
-    public E removeFirst() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
-    }
-
-    @Override
-    public E removeLast() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
-    }
-
-    @Override
-    public E pollFirst() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        Map<?, ?> blockMap = (Map<?, ?>) candidates;
+        Block<E> block = headBlock;
+        
+        while (!blockMap.containsKey(block)) {
+            block = block.nextBlock;
+        }
+        
+        return block;
     }
-
-    @Override
-    public E pollLast() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    
+    /**
+     * Returns the last block holding {@code o} according to the element 
+     * index, or {@code null} if there is no such.
+     * 
+     * @param o the element to query.
+     * @return the last block holding the element or {@code null}.
+     */
+    private Block<E> lastIndexedBlock(Object o) {
+        Object candidates = elementIndex.blocksOf(o);
+        
+        if (!(candidates instanceof Map)) {
+            return (Block<E>) candidates;
+        }
+        
+        Map<?, ?> blockMap = (Map<?, ?>) candidates;
+        Block<E> block = tailBlock;
+        
+        while (!blockMap.containsKey(block)) {
+            block = block.previousBlock;
+        }
+        
+        return block;
     }
-
-    @Override
-    public E getFirst() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    
+    /**
+     * Returns the index of the first element of {@code block} in this list.
+     * 
+     * @param block the block to locate.
+     * @return the number of elements preceding the block.
+     */
+    private int blockStart(Block<E> block) {
+        int start = 0;
+        
+        for (Block<E> b = block.previousBlock; b != null; b = b.previousBlock) {
+            start += b.size;
+        }
+        
+        return start;
     }
-
-    @Override
-    public E getLast() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    
+    private void indexBlock(Block<E> block) {
+        for (int i = 0; i < block.size; i++) {
+            elementIndex.add(block.get(i), block);
+        }
     }
-
-    @Override
-    public E peekFirst() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    
+    private void unindexBlock(Block<E> block) {
+        for (int i = 0; i < block.size; i++) {
+            elementIndex.remove(block.get(i), block);
+        }
     }
-
-    @Override
-    public E peekLast() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    
+    int getBlocks() {
+        return blocks;
     }
-
-    @Override
-    public boolean removeFirstOccurrence(Object o) {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    
+    int getBlockCapacity() {
+        return blockCapacity;
     }
-
-    @Override
-    public boolean removeLastOccurrence(Object o) {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    
+    int getModificationCount() {
+        return modificationCount;
     }
-
-    @Override
-    public boolean offer(E e) {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    
+    Block<E> getHeadBlock() {
+        return headBlock;
     }
-
-    @Override
-    public E remove() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    
+    /**
+     * Allocates the head block of an empty list. The capacity of the head 
+     * block is large enough for {@code elements} elements, but at least
+     * {@link #INITIAL_BLOCK_CAPACITY} and at most {@code blockCapacity}.
+     * 
+     * @param elements the number of elements about to be appended.
+     */
+    private void allocateHeadBlock(int elements) {
+        int capacity = Math.min(blockCapacity, 
+                                Math.max(INITIAL_BLOCK_CAPACITY, elements));
+        
+        headBlock = allocateBlock(capacity);
+        tailBlock = headBlock;
+        blocks = 1;
     }
-
-    @Override
-    public E poll() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    
+    /**
+     * Grows {@code block} geometrically so that it can hold at least 
+     * {@code elements} elements, but not beyond {@code blockCapacity}.
+     * 
+     * @param block      the block to grow.
+     * @param blockStart the index of the first element of the block.
+     * @param elements   the requested number of elements.
+     */
+    private void growBlock(Block<E> block, int blockStart, int elements) {
+        beginStructuralChange(blockStart);
+        
+        try {
+            int newCapacity = Math.min(blockCapacity,
+                                       Math.max(2 * block.capacity, elements));
+            E[] oldArray = block.residentArray();
+            int oldOffset = block.offset;
+            int oldCapacity = block.capacity;
+            boolean ownedArray = !block.shared;
+            Block<E> storage = newBlock(newCapacity);
+            block.grow(storage.array, storage.offset, storage.capacity);
+            
+            if (arena != null && ownedArray) {
+                arena.release(oldArray, oldOffset, oldCapacity);
+            }
+        } finally {
+            endStructuralChange();
+        }
     }
-
-    @Override
-    public E element() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    
+    /**
+     * Returns a new empty block of capacity {@code capacity}, whose storage
+     * is carved from the arena if this list uses one.
+     * 
+     * @param capacity the capacity of the block.
+     * @return a new empty block.
+     */
+    private Block<E> newBlock(int capacity) {
+        if (arena == null) {
+            return new Block<>(capacity);
+        }
+        
+        Block<E> block = new Block<>(null, 0, capacity);
+        arena.allocate(block);
+        return block;
     }
-
-    @Override
-    public E peek() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    
+    /**
+     * Returns the storage of the unlinked or evicted {@code block} to the 
+     * arena, unless the storage is shared with a clone or a snapshot, or 
+     * this list uses no arena.
+     * 
+     * @param block the unlinked or evicted block.
+     */
+    void releaseStorage(Block<E> block) {
+        if (arena == null || block.array == null || block.shared) {
+            return;
+        }
+        
+        arena.release(block.array, block.offset, block.capacity);
+        block.array = null;
     }
-
-    @Override
-    public void push(E e) {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    
+    /**
+     * Allocates a new block of capacity {@code blockCapacity}.
+     * 
+     * @return a new empty block.
+     */
+    private Block<E> allocateBlock() {
+        return allocateBlock(blockCapacity);
     }
-
-    @Override
-    public E pop() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    
+    /**
+     * Allocates a new block of capacity {@code capacity}, or reuses the spare
+     * block if it is large enough.
+     * 
+     * @param capacity the capacity of the block.
+     * @return a new empty block.
+     */
+    private Block<E> allocateBlock(int capacity) {
+        if (spiller != null) {
+            spiller.blockAllocated();
+        }
+        
+        if (spareBlock != null && spareBlock.capacity >= capacity) {
+            Block<E> block = spareBlock;
+            spareBlock = null;
+            return block;
+        }
+        
+        if (reservedBlocks != null && capacity == blockCapacity) {
+            Block<E> block = reservedBlocks;
+            reservedBlocks = block.nextBlock;
+            reservedBlockCount--;
+            block.nextBlock = null;
+            return block;
+        }
+        
+        if (STATISTICS_ENABLED && statistics != null) {
+            statistics.blocksAllocated++;
+        }
+        
+        return newBlock(capacity);
     }
-
-    @Override
-    public Iterator<E> descendingIterator() {
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    
+    private static void checkMaxElements(int max) {
+        if (max < 0) {
+            throw new IllegalArgumentException(
+                    "The maximum number of elements (" + max + 
+                    ") is negative.");
+        }
     }
     
-    private int checkBlockCapacity(int blockCapacity) {
+    static int checkBlockCapacity(int blockCapacity) {
         if (blockCapacity < 0) {
             String exceptionMessage =
                     String.format(
@@ -727,7 +4563,7 @@ public final class LinkedArrayBlockList<E>
                     String.format(
                             BLOCK_CAPACITY_TOO_SMALL_EXCEPTION_FORMAT,
                             blockCapacity,
-                            DEFAULT_BLOCK_CAPACITY);
+                            MINIMUM_BLOCK_CAPACITY);
             throw new IllegalArgumentException(exceptionMessage);
         }
         
@@ -755,6 +4591,39 @@ public final class LinkedArrayBlockList<E>
         System.out.println(new Random().nextLong());
     }
     
+    private static void checkArrayRange(Object[] array, 
+                                        int offset, 
+                                        int length) {
+        if (offset < 0 || length < 0 || offset > array.length - length) {
+            throw new IndexOutOfBoundsException(
+                    "The range [" + offset + ", " + offset + " + " + length +
+                    ") is out of the array bounds [0, " + array.length + 
+                    ").");
+        }
+    }
+    
+    private void checkRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException(
+                    "The range [" + fromIndex + ", " + toIndex + ") is out " +
+                    "of the list bounds [0, " + size + ").");
+        }
+    }
+    
+    private void checkInsertionIndex(int index) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException(
+                    "The insertion index (" + index + ") must not be " +
+                    "negative.");
+        }
+        
+        if (index > size) {
+            throw new IndexOutOfBoundsException(
+                    "The insertion index (" + index + ") is too large. " +
+                    "Must be at most " + size + ".");
+        }
+    }
+    
     private void checkAccessIndex(int index) {
         if (index < 0) {
             throw new ArrayIndexOutOfBoundsException(
@@ -774,6 +4643,18 @@ public final class LinkedArrayBlockList<E>
      * @param block the block to unlink.
      */
     private void unlinkBlock(Block<E> block) {
+        if (STATISTICS_ENABLED && statistics != null) {
+            statistics.blocksUnlinked++;
+        }
+        
+        if (spiller != null) {
+            spiller.blockUnlinked(block);
+        }
+        
+        if (block == gapBlock) {
+            gapBlock = null;
+        }
+        
         if (block.previousBlock == null) {
             if (block.nextBlock == null) {
                 headBlock = null;
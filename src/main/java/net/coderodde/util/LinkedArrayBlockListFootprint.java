@@ -0,0 +1,351 @@
+package net.coderodde.util;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.function.ToLongFunction;
+import net.coderodde.util.LinkedArrayBlockList.Block;
+
+/**
+ * This class holds an estimate of the heap memory retained by a
+ * {@link LinkedArrayBlockList}. The estimate is computed in
+ * <tt>O(blocks)</tt> from the block capacities and sizes and the reference
+ * and object header sizes of the running JVM; the object layout of the
+ * HotSpot JVM is assumed. The sizes of the list and block objects are 
+ * computed from their declared instance fields, so they stay correct as 
+ * fields are added.
+ * <p>
+ * Storage arrays shared with clones or snapshots are counted in full by each
+ * list sharing them, and the spilled blocks contribute nothing, since their
+ * contents reside in the spill file. A block carved from an arena slab counts
+ * its region only: the slab header is shared by all the blocks of the slab,
+ * and the uncarved slab slots belong to the arena.
+ * 
+ * @author Rodion "rodde" Efremov
+ * @see LinkedArrayBlockList#estimateFootprint()
+ */
+public final class LinkedArrayBlockListFootprint {
+    
+    /**
+     * The size of an object reference in bytes.
+     */
+    static final int REFERENCE_SIZE;
+    
+    /**
+     * The size of an object header in bytes.
+     */
+    static final int OBJECT_HEADER_SIZE;
+    
+    /**
+     * The size of an array header, including the length field, in bytes.
+     */
+    static final int ARRAY_HEADER_SIZE;
+    
+    /**
+     * The size of a list object in bytes.
+     */
+    static final int LIST_SIZE;
+    
+    /**
+     * The size of a block object in bytes.
+     */
+    static final int BLOCK_SIZE;
+    
+    static {
+        if ("32".equals(System.getProperty("sun.arch.data.model"))) {
+            REFERENCE_SIZE = 4;
+            OBJECT_HEADER_SIZE = 8;
+        } else {
+            boolean compressedOops;
+            boolean compressedClassPointers;
+            
+            try {
+                HotSpotDiagnosticMXBean bean =
+                        ManagementFactory.getPlatformMXBean(
+                                HotSpotDiagnosticMXBean.class);
+                compressedOops = Boolean.parseBoolean(
+                        bean.getVMOption("UseCompressedOops").getValue());
+                compressedClassPointers = Boolean.parseBoolean(
+                        bean.getVMOption("UseCompressedClassPointers")
+                            .getValue());
+            } catch (RuntimeException | LinkageError ex) {
+                // Not a HotSpot JVM: compressed references are enabled by
+                // default for heaps below 32 GiB.
+                compressedOops = Runtime.getRuntime().maxMemory() <
+                                 (32L << 30);
+                compressedClassPointers = compressedOops;
+            }
+            
+            REFERENCE_SIZE = compressedOops ? 4 : 8;
+            OBJECT_HEADER_SIZE = compressedClassPointers ? 12 : 16;
+        }
+        
+        ARRAY_HEADER_SIZE = align(OBJECT_HEADER_SIZE + 4);
+        LIST_SIZE = instanceSize(LinkedArrayBlockList.class);
+        BLOCK_SIZE = instanceSize(Block.class);
+    }
+    
+    /**
+     * The number of blocks in the list.
+     */
+    private final int blocks;
+    
+    /**
+     * The bytes taken by the list object, the block objects excluding their
+     * chain pointers, and the storage array headers.
+     */
+    private long headerBytes;
+    
+    /**
+     * The bytes taken by the chain pointers of the blocks.
+     */
+    private long chainPointerBytes;
+    
+    /**
+     * The bytes taken by the array slots holding elements.
+     */
+    private long liveSlotBytes;
+    
+    /**
+     * The bytes taken by the unused array slots and array padding.
+     */
+    private long emptySlotBytes;
+    
+    /**
+     * The bytes taken by the compressed block contents.
+     */
+    private long compressedBytes;
+    
+    /**
+     * The estimated bytes taken by the elements themselves, or -1 if not
+     * estimated.
+     */
+    private long elementBytes = -1L;
+    
+    LinkedArrayBlockListFootprint(LinkedArrayBlockList<?> list) {
+        this.blocks = list.getBlocks();
+        this.headerBytes = LIST_SIZE;
+        
+        for (Block<?> block = list.getHeadBlock();
+                block != null;
+                block = block.nextBlock) {
+            headerBytes += BLOCK_SIZE - 2 * REFERENCE_SIZE;
+            chainPointerBytes += 2 * REFERENCE_SIZE;
+            
+            if (block.array != null 
+                    && block.array.length != block.capacity) {
+                // A region of an arena slab.
+                long live = (long) block.size * REFERENCE_SIZE;
+                liveSlotBytes += live;
+                emptySlotBytes += 
+                        (long) block.capacity * REFERENCE_SIZE - live;
+            } else if (block.array != null) {
+                long arrayBytes = align(ARRAY_HEADER_SIZE +
+                                        (long) block.capacity *
+                                        REFERENCE_SIZE);
+                long live = (long) block.size * REFERENCE_SIZE;
+                headerBytes += ARRAY_HEADER_SIZE;
+                liveSlotBytes += live;
+                emptySlotBytes += arrayBytes - ARRAY_HEADER_SIZE - live;
+            }
+            
+            if (block.compressedData != null) {
+                compressedBytes += align(ARRAY_HEADER_SIZE +
+                                         block.compressedData.length);
+            }
+        }
+    }
+    
+    /**
+     * Estimates the total size of the elements of {@code list} by sampling
+     * at most {@code sampleSize} evenly spaced elements. Sampling faults in
+     * the evicted blocks it touches.
+     * 
+     * @param <E>          the element type.
+     * @param list         the list to sample.
+     * @param elementSizer the function returning the retained size of an
+     *                     element in bytes.
+     * @param sampleSize   the maximum number of elements to sample.
+     */
+    <E> void sampleElements(LinkedArrayBlockList<E> list,
+                            ToLongFunction<? super E> elementSizer,
+                            int sampleSize) {
+        int size = list.size();
+        
+        if (size == 0) {
+            elementBytes = 0L;
+            return;
+        }
+        
+        int stride = Math.max(1, size / sampleSize);
+        int blockStart = 0;
+        long sampled = 0L;
+        double sum = 0.0;
+        
+        for (Block<E> block = list.getHeadBlock();
+                block != null && sampled < sampleSize;
+                block = block.nextBlock) {
+            // The first multiple of 'stride' at or after 'blockStart':
+            int index = (blockStart + stride - 1) / stride * stride;
+            
+            for (; index < blockStart + block.size && sampled < sampleSize;
+                    index += stride) {
+                E element = block.get(index - blockStart);
+                
+                if (element != null) {
+                    sum += elementSizer.applyAsLong(element);
+                }
+                
+                sampled++;
+            }
+            
+            blockStart += block.size;
+        }
+        
+        elementBytes = Math.round(sum / sampled * size);
+    }
+    
+    /**
+     * Returns the number of blocks in the list.
+     * 
+     * @return the number of blocks.
+     */
+    public int getBlocks() {
+        return blocks;
+    }
+    
+    /**
+     * Returns the bytes taken by the list object, the block objects
+     * excluding their chain pointers, and the storage array headers.
+     * 
+     * @return the header bytes.
+     */
+    public long getHeaderBytes() {
+        return headerBytes;
+    }
+    
+    /**
+     * Returns the bytes taken by the previous and next block pointers.
+     * 
+     * @return the chain pointer bytes.
+     */
+    public long getChainPointerBytes() {
+        return chainPointerBytes;
+    }
+    
+    /**
+     * Returns the bytes taken by the storage array slots holding elements.
+     * 
+     * @return the live slot bytes.
+     */
+    public long getLiveSlotBytes() {
+        return liveSlotBytes;
+    }
+    
+    /**
+     * Returns the bytes taken by the unused storage array slots, including
+     * the array alignment padding.
+     * 
+     * @return the empty slot bytes.
+     */
+    public long getEmptySlotBytes() {
+        return emptySlotBytes;
+    }
+    
+    /**
+     * Returns the bytes taken by the compressed block contents.
+     * 
+     * @return the compressed bytes.
+     */
+    public long getCompressedBytes() {
+        return compressedBytes;
+    }
+    
+    /**
+     * Returns the estimated bytes taken by the elements themselves, or -1 if
+     * the elements were not sampled.
+     * 
+     * @return the element bytes or -1.
+     */
+    public long getElementBytes() {
+        return elementBytes;
+    }
+    
+    /**
+     * Returns the total number of bytes retained by the list, including the
+     * elements if they were sampled.
+     * 
+     * @return the total bytes.
+     */
+    public long getTotalBytes() {
+        return headerBytes + chainPointerBytes + liveSlotBytes +
+               emptySlotBytes + compressedBytes + Math.max(0L, elementBytes);
+    }
+    
+    /**
+     * Returns the ratio of the live slots to all the storage array slots, or
+     * 1.0 if there are no resident slots.
+     * 
+     * @return the slot utilization.
+     */
+    public double getSlotUtilization() {
+        long slotBytes = liveSlotBytes + emptySlotBytes;
+        return slotBytes == 0L ? 1.0 : (double) liveSlotBytes / slotBytes;
+    }
+    
+    @Override
+    public String toString() {
+        return "[blocks: " + blocks + ", header bytes: " + headerBytes +
+               ", chain pointer bytes: " + chainPointerBytes +
+               ", live slot bytes: " + liveSlotBytes +
+               ", empty slot bytes: " + emptySlotBytes +
+               ", compressed bytes: " + compressedBytes +
+               ", element bytes: " + elementBytes +
+               ", total bytes: " + getTotalBytes() + "]";
+    }
+    
+    /**
+     * Returns the size of an instance of {@code clazz} in bytes: the object 
+     * header followed by all the instance fields declared by the class and
+     * its superclasses, without field reordering gaps.
+     * 
+     * @param clazz the class of the instance.
+     * @return the instance size.
+     */
+    static int instanceSize(Class<?> clazz) {
+        int size = OBJECT_HEADER_SIZE;
+        
+        for (; clazz != null; clazz = clazz.getSuperclass()) {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    size += fieldSize(field.getType());
+                }
+            }
+        }
+        
+        return align(size);
+    }
+    
+    private static int fieldSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        } else if (type == boolean.class || type == byte.class) {
+            return 1;
+        } else {
+            return REFERENCE_SIZE;
+        }
+    }
+    
+    private static int align(int bytes) {
+        return (bytes + 7) & ~7;
+    }
+    
+    private static long align(long bytes) {
+        return (bytes + 7L) & ~7L;
+    }
+}
@@ -0,0 +1,360 @@
+package net.coderodde.util;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import net.coderodde.util.LinkedArrayBlockList.Block;
+
+/**
+ * This class provides lock-free reads of a {@link LinkedArrayBlockList} that
+ * is modified by a single writer thread. The reads are optimistic: a reader
+ * takes a version stamp, reads the blocks without locking, and retries if a
+ * structural modification of the blocks it read happened in the meantime.
+ * <p>
+ * Appending to the tail is not a structural modification: the new elements
+ * and blocks are published by a volatile write of the list size, and the
+ * readers only look at the elements within the size they read, so appends
+ * never cause retries. All the other modifications hold the write lock of a
+ * {@link StampedLock} while they rearrange the blocks, and record the index 
+ * of an element in the first block they may touch in a short history. A 
+ * read whose stamp fails to validate checks that history, and retries only
+ * if a modification since its stamp touched one of the blocks it traversed;
+ * the modifications further down the chain neither move nor overwrite the 
+ * elements it read. A read of the head of a list whose tail is edited 
+ * therefore does not retry, even while the edit is in progress, whereas the
+ * evictions of the sliding window mode, which shift every index, make all 
+ * the reads retry. A read also retries if more modifications than the 
+ * history holds happened in the meantime.
+ * <p>
+ * The reader must not be used from within the callbacks of a modification,
+ * such as the eviction listener or the sink of
+ * {@link LinkedArrayBlockList#pollFirst(int, java.util.function.Consumer)}.
+ * 
+ * @param <E> the element type.
+ * @author Rodion "rodde" Efremov
+ * @see LinkedArrayBlockList#enableConcurrentReads()
+ */
+public final class LinkedArrayBlockListReader<E> {
+    
+    /**
+     * The number of the most recent structural modifications whose starting 
+     * indices are kept. A power of two.
+     */
+    private static final int HISTORY_LENGTH = 256;
+    
+    /**
+     * The observed list.
+     */
+    private final LinkedArrayBlockList<E> list;
+    
+    /**
+     * The lock whose write lock is held during structural modifications.
+     */
+    private final StampedLock lock = new StampedLock();
+    
+    /**
+     * The starting indices of the most recent structural modifications. The 
+     * index of modification {@code n} is at <tt>n % HISTORY_LENGTH</tt>.
+     */
+    private final AtomicIntegerArray history = 
+            new AtomicIntegerArray(HISTORY_LENGTH);
+    
+    /**
+     * The number of the structural modifications started so far. Written 
+     * after the history entry and before taking the write lock.
+     */
+    private volatile long modifications;
+    
+    /**
+     * The number of reads retried because of an overlapping structural
+     * modification.
+     */
+    private final LongAdder retries = new LongAdder();
+    
+    /**
+     * The size of the list as of the last completed modification.
+     */
+    private volatile int publishedSize;
+    
+    /**
+     * Indicates whether the concurrent reads are disabled.
+     */
+    private volatile boolean closed;
+    
+    /**
+     * The write stamp of the structural modification in progress.
+     */
+    private long writeStamp;
+    
+    /**
+     * The nesting depth of the structural modifications in progress. Only
+     * accessed by the writer thread.
+     */
+    private int writeDepth;
+    
+    LinkedArrayBlockListReader(LinkedArrayBlockList<E> list) {
+        this.list = list;
+        this.publishedSize = list.size();
+    }
+    
+    /**
+     * Returns the number of elements in the list.
+     * 
+     * @return the size of the list.
+     */
+    public int size() {
+        return publishedSize;
+    }
+    
+    /**
+     * Returns the element at position {@code index}.
+     * 
+     * @param index the index of the element.
+     * @return the element at {@code index}.
+     * @throws IndexOutOfBoundsException if {@code index} is out of range.
+     * @throws IllegalStateException if the concurrent reads are disabled.
+     */
+    public E get(int index) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException(
+                    "The index (" + index + ") must not be negative.");
+        }
+        
+        return (E) read(index, index + 1, true);
+    }
+    
+    /**
+     * Returns a consistent copy of all the elements of the list.
+     * 
+     * @return an array holding the elements of the list.
+     * @throws IllegalStateException if the concurrent reads are disabled.
+     */
+    public Object[] toArray() {
+        return (Object[]) read(0, -1, false);
+    }
+    
+    /**
+     * Returns a consistent copy of the elements of the list in the range
+     * <tt>[fromIndex, toIndex)</tt>.
+     * 
+     * @param fromIndex the first index to copy, inclusive.
+     * @param toIndex   the last index to copy, exclusive.
+     * @return an array holding the elements of the range.
+     * @throws IndexOutOfBoundsException if the range is out of bounds.
+     * @throws IllegalStateException if the concurrent reads are disabled.
+     */
+    public Object[] toArray(int fromIndex, int toIndex) {
+        if (fromIndex > toIndex || fromIndex < 0) {
+            throw new IndexOutOfBoundsException(
+                    "The range [" + fromIndex + ", " + toIndex +
+                    ") is invalid.");
+        }
+        
+        return (Object[]) read(fromIndex, toIndex, false);
+    }
+    
+    /**
+     * Returns the number of reads retried because they overlapped a
+     * structural modification.
+     * 
+     * @return the number of retries.
+     */
+    public long getRetries() {
+        return retries.sum();
+    }
+    
+    /**
+     * Publishes the current size of the list after an append.
+     */
+    void publish(int size) {
+        publishedSize = size;
+    }
+    
+    /**
+     * Starts a structural modification that touches no block before the one
+     * holding the element at {@code fromIndex}. The modifications may nest; 
+     * only the outermost one records its index and takes the write lock, so
+     * a nested modification must not touch the blocks before that of the 
+     * outermost one.
+     * 
+     * @param fromIndex the index of an element in the first block that may 
+     *                  be touched, or the size of the list if no block is.
+     */
+    void beginWrite(int fromIndex) {
+        if (writeDepth++ == 0) {
+            record(fromIndex);
+            writeStamp = lock.writeLock();
+        }
+    }
+    
+    /**
+     * Ends a structural modification, publishing the new size of the list.
+     */
+    void endWrite(int size) {
+        if (--writeDepth == 0) {
+            publishedSize = size;
+            lock.unlockWrite(writeStamp);
+        }
+    }
+    
+    /**
+     * Disables this reader. The write lock is released (after taking it, 
+     * unless a modification in progress holds it already), so that the reads
+     * in progress fail their validation and then observe {@code closed}. The
+     * list does not call {@link #endWrite(int)} after this.
+     */
+    void close() {
+        closed = true;
+        
+        // The list records no further modifications, so invalidate all the
+        // reads in progress.
+        record(0);
+        
+        if (writeDepth > 0) {
+            writeDepth = 0;
+            lock.unlockWrite(writeStamp);
+        } else {
+            lock.unlockWrite(lock.writeLock());
+        }
+    }
+    
+    /**
+     * Records the starting index of a new structural modification.
+     */
+    private void record(int fromIndex) {
+        long modification = modifications + 1;
+        history.set((int) modification & (HISTORY_LENGTH - 1), fromIndex);
+        modifications = modification;
+    }
+    
+    /**
+     * Reads the elements in <tt>[fromIndex, toIndex)</tt>, retrying until no
+     * structural modification overlaps the read. If {@code toIndex} is
+     * negative, the range extends to the end of the list. Returns the 
+     * element at {@code fromIndex} if {@code singleElement} is <tt>true</tt>,
+     * or an array of the elements otherwise.
+     */
+    private Object read(int fromIndex, int toIndex, boolean singleElement) {
+        while (true) {
+            // Read before the stamp, so that a modification starting in 
+            // between is checked.
+            long startModifications = modifications;
+            long stamp = lock.tryOptimisticRead();
+            
+            // Checked after taking the stamp: a stamp taken after close() 
+            // released the lock always sees the flag.
+            if (closed) {
+                throw new IllegalStateException(
+                        "The concurrent reads are disabled.");
+            }
+            
+            if (stamp == 0L) {
+                // A structural modification is in progress. It is the last 
+                // one started or a later one, so check it too. Validating 
+                // the zero stamp fails, but still fences the reads.
+                startModifications--;
+            }
+            
+            int size = publishedSize;
+            int end = toIndex < 0 ? size : toIndex;
+            Object[] result = new Object[end > size ? 0 : end - fromIndex];
+            int traversed;
+            
+            try {
+                traversed = readRange(fromIndex, result);
+            } catch (RuntimeException ex) {
+                // A torn read of a block being rearranged.
+                if (lock.validate(stamp)) {
+                    throw ex;
+                }
+                
+                retries.increment();
+                continue;
+            }
+            
+            if (!lock.validate(stamp) 
+                    && overlaps(startModifications, traversed)) {
+                retries.increment();
+                continue;
+            }
+            
+            if (end > size) {
+                throw new IndexOutOfBoundsException(
+                        "The index (" + (end - 1) + ") is too large. Must " +
+                        "be less than " + size + ".");
+            }
+            
+            return singleElement ? result[0] : result;
+        }
+    }
+    
+    /**
+     * Returns <tt>true</tt> unless all the structural modifications started
+     * after {@code startModifications} start at or after {@code traversed},
+     * the number of elements in the blocks traversed by a read. Called after
+     * a failed validation, whose fence orders the reads of the blocks before
+     * the reads of the history.
+     */
+    private boolean overlaps(long startModifications, int traversed) {
+        long endModifications = modifications;
+        
+        if (endModifications - startModifications > HISTORY_LENGTH) {
+            return true;
+        }
+        
+        for (long modification = startModifications + 1;
+                modification <= endModifications;
+                modification++) {
+            int index = (int) modification & (HISTORY_LENGTH - 1);
+            
+            if (history.get(index) < traversed) {
+                return true;
+            }
+        }
+        
+        // The entries read must not have been overwritten in the meantime.
+        return modifications - startModifications > HISTORY_LENGTH;
+    }
+    
+    /**
+     * Copies the elements starting at {@code fromIndex} to {@code result}, 
+     * and returns the number of elements in the blocks traversed.
+     */
+    private int readRange(int fromIndex, Object[] result) {
+        Block<E> block = list.getHeadBlock();
+        int localIndex = fromIndex;
+        int index = 0;
+        int traversed = 0;
+        
+        while (index < result.length) {
+            // The size of the tail block may grow concurrently, so it is
+            // read once.
+            int blockSize = block.size;
+            traversed += blockSize;
+            
+            if (localIndex >= blockSize) {
+                localIndex -= blockSize;
+                block = block.nextBlock;
+                continue;
+            }
+            
+            E[] array = block.array;
+            int offset = block.offset;
+            int capacity = block.capacity;
+            int headIndex = block.headIndex;
+            int length = Math.min(result.length - index,
+                                  blockSize - localIndex);
+            
+            for (int i = 0; i < length; i++) {
+                result[index++] = 
+                        array[offset + 
+                              (headIndex + localIndex + i) % capacity];
+            }
+            
+            localIndex = 0;
+            block = block.nextBlock;
+        }
+        
+        return traversed;
+    }
+}
@@ -0,0 +1,137 @@
+package net.coderodde.util;
+
+/**
+ * This class collects the runtime statistics of a single 
+ * {@link LinkedArrayBlockList}. An instance may be registered with an 
+ * {@code MBeanServer} in order to monitor the list via JMX. Note that a 
+ * registered instance keeps the observed list reachable.
+ * <p>
+ * The statistics are collected only if the system property
+ * <tt>net.coderodde.util.LinkedArrayBlockList.statistics</tt> is set to
+ * <tt>true</tt> when the list class is loaded; otherwise, the instrumentation
+ * is compiled away. The counters are not synchronized, so the values read 
+ * concurrently with modifications are approximate.
+ * 
+ * @author Rodion "rodde" Efremov
+ */
+public final class LinkedArrayBlockListStatistics 
+        implements LinkedArrayBlockListStatisticsMBean {
+    
+    /**
+     * The number of buckets in the fill-factor histogram.
+     */
+    private static final int HISTOGRAM_BUCKETS = 10;
+    
+    /**
+     * The observed list.
+     */
+    private final LinkedArrayBlockList<?> list;
+    
+    /**
+     * The number of {@code get} calls.
+     */
+    long gets;
+    
+    /**
+     * The total number of block hops over all {@code get} calls.
+     */
+    long blockHops;
+    
+    /**
+     * The number of array components moved by block shifts.
+     */
+    long shiftedElements;
+    
+    /**
+     * The number of allocated blocks.
+     */
+    long blocksAllocated;
+    
+    /**
+     * The number of unlinked blocks.
+     */
+    long blocksUnlinked;
+    
+    /**
+     * The modification count of the list at the previous reset.
+     */
+    private int resetModificationCount;
+    
+    /**
+     * The time of the previous reset in nanoseconds.
+     */
+    private long resetNanos;
+    
+    LinkedArrayBlockListStatistics(LinkedArrayBlockList<?> list) {
+        this.list = list;
+        reset();
+    }
+
+    @Override
+    public int getBlocks() {
+        return list.getBlocks();
+    }
+
+    @Override
+    public int getSize() {
+        return list.size();
+    }
+
+    @Override
+    public int getBlockCapacity() {
+        return list.getBlockCapacity();
+    }
+
+    @Override
+    public int[] getFillFactorHistogram() {
+        int[] histogram = new int[HISTOGRAM_BUCKETS];
+        
+        for (LinkedArrayBlockList.Block<?> block = list.getHeadBlock();
+                block != null;
+                block = block.nextBlock) {
+            int bucket = (int)((long) block.size * HISTOGRAM_BUCKETS
+                                               / block.capacity);
+            histogram[Math.min(bucket, HISTOGRAM_BUCKETS - 1)]++;
+        }
+        
+        return histogram;
+    }
+
+    @Override
+    public double getAverageBlockHopsPerGet() {
+        return gets == 0 ? 0.0 : (double) blockHops / gets;
+    }
+
+    @Override
+    public long getShiftedElements() {
+        return shiftedElements;
+    }
+
+    @Override
+    public long getBlocksAllocated() {
+        return blocksAllocated;
+    }
+
+    @Override
+    public long getBlocksUnlinked() {
+        return blocksUnlinked;
+    }
+
+    @Override
+    public synchronized double getModificationRate() {
+        long elapsedNanos = Math.max(1L, System.nanoTime() - resetNanos);
+        return (list.getModificationCount() - resetModificationCount) * 1e9 
+                / elapsedNanos;
+    }
+
+    @Override
+    public synchronized void reset() {
+        gets = 0L;
+        blockHops = 0L;
+        shiftedElements = 0L;
+        blocksAllocated = 0L;
+        blocksUnlinked = 0L;
+        resetModificationCount = list.getModificationCount();
+        resetNanos = System.nanoTime();
+    }
+}
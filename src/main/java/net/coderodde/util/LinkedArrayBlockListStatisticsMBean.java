@@ -0,0 +1,83 @@
+package net.coderodde.util;
+
+/**
+ * This interface defines the management interface of 
+ * {@link LinkedArrayBlockListStatistics}.
+ * 
+ * @author Rodion "rodde" Efremov
+ */
+public interface LinkedArrayBlockListStatisticsMBean {
+    
+    /**
+     * Returns the number of blocks in the observed list.
+     * 
+     * @return the number of blocks.
+     */
+    int getBlocks();
+    
+    /**
+     * Returns the number of elements in the observed list.
+     * 
+     * @return the number of elements.
+     */
+    int getSize();
+    
+    /**
+     * Returns the capacity of a full block in the observed list.
+     * 
+     * @return the block capacity.
+     */
+    int getBlockCapacity();
+    
+    /**
+     * Returns the fill-factor histogram of the blocks. The component 
+     * <tt>i</tt> holds the number of blocks whose fill factor is within 
+     * <tt>[i * 10%, (i + 1) * 10%)</tt>; the last component also counts the
+     * full blocks.
+     * 
+     * @return the fill-factor histogram.
+     */
+    int[] getFillFactorHistogram();
+    
+    /**
+     * Returns the average number of blocks visited per {@code get} call.
+     * 
+     * @return the average number of block hops per access.
+     */
+    double getAverageBlockHopsPerGet();
+    
+    /**
+     * Returns the total number of array components moved by block shifts.
+     * 
+     * @return the number of moved elements.
+     */
+    long getShiftedElements();
+    
+    /**
+     * Returns the number of blocks allocated by the observed list.
+     * 
+     * @return the number of allocated blocks.
+     */
+    long getBlocksAllocated();
+    
+    /**
+     * Returns the number of blocks unlinked from the observed list.
+     * 
+     * @return the number of unlinked blocks.
+     */
+    long getBlocksUnlinked();
+    
+    /**
+     * Returns the average number of modifications per second since the 
+     * previous reset, or since enabling the statistics. Calling this method
+     * does not start a new sampling window; call {@link #reset()} for that.
+     * 
+     * @return the modification rate.
+     */
+    double getModificationRate();
+    
+    /**
+     * Resets all the counters.
+     */
+    void reset();
+}
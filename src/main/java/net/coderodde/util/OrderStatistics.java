@@ -0,0 +1,507 @@
+package net.coderodde.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import net.coderodde.util.LinkedArrayBlockList.Block;
+
+/**
+ * This class implements the order statistic queries of a
+ * {@link LinkedArrayBlockList}. A selection narrows down a window of
+ * candidate values: each round sorts a random sample of the candidates, picks
+ * two pivots around the sought rank in the sample, and counts the candidates
+ * below and between the pivots in one pass over the blocks. The window
+ * shrinks to a few percent of its size per round, and once few enough
+ * candidates remain, they are copied out and finished off by a quickselect.
+ * The list is never reordered, and the whole list is never copied.
+ * <p>
+ * The passes over the blocks run in parallel in the common
+ * {@link ForkJoinPool}, unless the list has blocks that are spilled or
+ * compressed, since faulting in a block is not thread-safe.
+ * 
+ * @param <E> the element type.
+ * @author Rodion "rodde" Efremov
+ */
+final class OrderStatistics<E> {
+    
+    /**
+     * The number of candidates sampled per round.
+     */
+    private static final int SAMPLE_SIZE = 1024;
+    
+    /**
+     * The maximum number of random probes per sampled candidate.
+     */
+    private static final int MAXIMUM_PROBES_PER_SAMPLE = 256;
+    
+    /**
+     * The smallest number of candidates that is narrowed down instead of
+     * being copied out.
+     */
+    private static final int MINIMUM_NARROWING_CANDIDATES = 4096;
+    
+    /**
+     * The approximate number of elements scanned by a single task.
+     */
+    private static final int ELEMENTS_PER_TASK = 16384;
+    
+    /**
+     * The blocks of the list in order.
+     */
+    private final List<Block<E>> blocks = new ArrayList<>();
+    
+    /**
+     * {@code blockStarts[i]} is the index of the first element of
+     * {@code blocks.get(i)}; the last entry is the size of the list.
+     */
+    private final int[] blockStarts;
+    
+    private final Comparator<? super E> comparator;
+    
+    /**
+     * Indicates whether the passes over the blocks may run in parallel.
+     */
+    private final boolean parallel;
+    
+    /**
+     * The maximum number of blocks scanned by a single task.
+     */
+    private final int blocksPerTask;
+    
+    /**
+     * The number of candidates at or below which the candidates are copied
+     * out.
+     */
+    private final int collectThreshold;
+    
+    /**
+     * The lower bound of the candidate window, or {@code null} if
+     * {@code hasLowBound} is <tt>false</tt>.
+     */
+    private E lowBound;
+    private boolean hasLowBound;
+    private boolean lowBoundInclusive;
+    
+    /**
+     * The upper bound of the candidate window, or {@code null} if
+     * {@code hasHighBound} is <tt>false</tt>.
+     */
+    private E highBound;
+    private boolean hasHighBound;
+    private boolean highBoundInclusive;
+    
+    OrderStatistics(LinkedArrayBlockList<E> list,
+                    Comparator<? super E> comparator,
+                    boolean parallel) {
+        this.comparator = comparator;
+        this.parallel = parallel;
+        
+        for (Block<E> block = list.getHeadBlock();
+                block != null;
+                block = block.nextBlock) {
+            blocks.add(block);
+        }
+        
+        this.blockStarts = new int[blocks.size() + 1];
+        
+        for (int i = 0; i < blocks.size(); i++) {
+            blockStarts[i + 1] = blockStarts[i] + blocks.get(i).size;
+        }
+        
+        this.blocksPerTask =
+                Math.max(1, ELEMENTS_PER_TASK / list.getBlockCapacity());
+        this.collectThreshold = Math.max(MINIMUM_NARROWING_CANDIDATES,
+                                         list.size() / 64);
+    }
+    
+    /**
+     * Returns the element that would be at index {@code k} if the list was
+     * sorted by the comparator.
+     * 
+     * @param k the rank of the element to select.
+     * @return the element of rank {@code k}.
+     */
+    E select(int k) {
+        hasLowBound = false;
+        hasHighBound = false;
+        lowBound = null;
+        highBound = null;
+        Random random = ThreadLocalRandom.current();
+        int candidates = blockStarts[blocks.size()];
+        int rank = k;
+        boolean narrow = true;
+        
+        while (candidates > collectThreshold) {
+            E[] sample = sample(random, candidates);
+            
+            if (sample == null) {
+                break;
+            }
+            
+            Arrays.sort(sample, comparator);
+            int position = (int) ((long) rank * SAMPLE_SIZE / candidates);
+            E lowPivot;
+            E highPivot;
+            
+            if (narrow) {
+                int delta = (int) (2.0 * Math.sqrt(SAMPLE_SIZE));
+                lowPivot = sample[Math.max(0, position - delta)];
+                highPivot = sample[Math.min(SAMPLE_SIZE - 1,
+                                            position + delta)];
+            } else {
+                // The previous round did not shrink the window: a single
+                // pivot always excludes at least itself.
+                lowPivot = sample[position];
+                highPivot = lowPivot;
+            }
+            
+            int[] counts = count(lowPivot, highPivot);
+            int below = counts[0];
+            int belowOrBetween = counts[1];
+            int previousCandidates = candidates;
+            
+            if (rank < below) {
+                setHighBound(lowPivot, false);
+                candidates = below;
+            } else if (rank >= belowOrBetween) {
+                setLowBound(highPivot, false);
+                rank -= belowOrBetween;
+                candidates -= belowOrBetween;
+            } else if (comparator.compare(lowPivot, highPivot) == 0) {
+                return lowPivot;
+            } else {
+                setLowBound(lowPivot, true);
+                setHighBound(highPivot, true);
+                rank -= below;
+                candidates = belowOrBetween - below;
+            }
+            
+            narrow = candidates < previousCandidates;
+        }
+        
+        E[] array = (E[]) collect(this::isCandidate).toArray();
+        return quickselect(array, rank, random);
+    }
+    
+    /**
+     * Returns the {@code k} greatest elements in descending order.
+     * 
+     * @param k the number of elements to return.
+     * @return the greatest elements.
+     */
+    List<E> topK(int k) {
+        int size = blockStarts[blocks.size()];
+        Comparator<? super E> descending =
+                Collections.reverseOrder(comparator);
+        
+        if (k == 0 || size == 0) {
+            return new ArrayList<>();
+        }
+        
+        if (k >= size) {
+            List<E> result = collect((e) -> true);
+            result.sort(descending);
+            return result;
+        }
+        
+        E threshold = select(size - k);
+        List<E> result =
+                collect((e) -> comparator.compare(e, threshold) > 0);
+        
+        // Top up with the elements equal to the threshold.
+        for (int i = 0; i < blocks.size() && result.size() < k; i++) {
+            Block<E> block = blocks.get(i);
+            
+            for (int j = 0; j < block.size && result.size() < k; j++) {
+                E element = block.get(j);
+                
+                if (comparator.compare(element, threshold) == 0) {
+                    result.add(element);
+                }
+            }
+        }
+        
+        result.sort(descending);
+        return result;
+    }
+    
+    private void setLowBound(E bound, boolean inclusive) {
+        lowBound = bound;
+        hasLowBound = true;
+        lowBoundInclusive = inclusive;
+    }
+    
+    private void setHighBound(E bound, boolean inclusive) {
+        highBound = bound;
+        hasHighBound = true;
+        highBoundInclusive = inclusive;
+    }
+    
+    private boolean isCandidate(E element) {
+        if (hasLowBound) {
+            int cmp = comparator.compare(element, lowBound);
+            
+            if (cmp < 0 || (cmp == 0 && !lowBoundInclusive)) {
+                return false;
+            }
+        }
+        
+        if (hasHighBound) {
+            int cmp = comparator.compare(element, highBound);
+            
+            if (cmp > 0 || (cmp == 0 && !highBoundInclusive)) {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Draws {@link #SAMPLE_SIZE} random candidates with replacement, or
+     * returns {@code null} if the candidates are too sparse to be found by
+     * random probing.
+     * 
+     * @param random     the random number generator.
+     * @param candidates the number of candidates.
+     * @return the sample or {@code null}.
+     */
+    private E[] sample(Random random, int candidates) {
+        E[] sample = (E[]) new Object[SAMPLE_SIZE];
+        int size = blockStarts[blocks.size()];
+        long probes = (long) MAXIMUM_PROBES_PER_SAMPLE * SAMPLE_SIZE;
+        int sampled = 0;
+        
+        while (sampled < SAMPLE_SIZE) {
+            if (probes-- == 0L) {
+                return null;
+            }
+            
+            int index = random.nextInt(size);
+            int blockIndex = Arrays.binarySearch(blockStarts, index);
+            
+            if (blockIndex < 0) {
+                blockIndex = -blockIndex - 2;
+            }
+            
+            // Skip the (possible) empty blocks starting at the same index.
+            while (blockStarts[blockIndex + 1] == index) {
+                blockIndex++;
+            }
+            
+            E element = blocks.get(blockIndex)
+                              .get(index - blockStarts[blockIndex]);
+            
+            if (isCandidate(element)) {
+                sample[sampled++] = element;
+            }
+        }
+        
+        return sample;
+    }
+    
+    /**
+     * Counts the candidates below {@code lowPivot} and the candidates at or
+     * below {@code highPivot}.
+     * 
+     * @param lowPivot  the lower pivot.
+     * @param highPivot the upper pivot.
+     * @return the two counts.
+     */
+    private int[] count(E lowPivot, E highPivot) {
+        return reduce((block) -> {
+            int[] counts = new int[2];
+            E[] array = block.residentArray();
+            count(array, block.firstSegmentStart(), block.firstSegmentEnd(),
+                  lowPivot, highPivot, counts);
+            count(array, block.secondSegmentStart(), block.secondSegmentEnd(),
+                  lowPivot, highPivot, counts);
+            return counts;
+        }, (left, right) -> {
+            left[0] += right[0];
+            left[1] += right[1];
+            return left;
+        });
+    }
+    
+    private void count(E[] array,
+                       int from,
+                       int to,
+                       E lowPivot,
+                       E highPivot,
+                       int[] counts) {
+        for (int i = from; i < to; i++) {
+            E element = array[i];
+            
+            if (!isCandidate(element)) {
+                continue;
+            }
+            
+            if (comparator.compare(element, lowPivot) < 0) {
+                counts[0]++;
+                counts[1]++;
+            } else if (comparator.compare(element, highPivot) <= 0) {
+                counts[1]++;
+            }
+        }
+    }
+    
+    /**
+     * Copies the elements satisfying {@code predicate} to a new list, in
+     * list order.
+     * 
+     * @param predicate the predicate selecting the elements.
+     * @return the list of the selected elements.
+     */
+    private List<E> collect(Predicate<? super E> predicate) {
+        return reduce((block) -> {
+            List<E> selected = new ArrayList<>();
+            E[] array = block.residentArray();
+            
+            for (int i = block.firstSegmentStart(), 
+                    end = block.firstSegmentEnd();
+                    i < end;
+                    i++) {
+                if (predicate.test(array[i])) {
+                    selected.add(array[i]);
+                }
+            }
+            
+            for (int i = block.secondSegmentStart(), 
+                    end = block.secondSegmentEnd();
+                    i < end;
+                    i++) {
+                if (predicate.test(array[i])) {
+                    selected.add(array[i]);
+                }
+            }
+            
+            return selected;
+        }, (left, right) -> {
+            left.addAll(right);
+            return left;
+        });
+    }
+    
+    /**
+     * Maps each block with {@code mapper} and combines the results in block
+     * order with {@code combiner}.
+     */
+    private <R> R reduce(Function<Block<E>, R> mapper,
+                         BinaryOperator<R> combiner) {
+        ReduceTask<R> task =
+                new ReduceTask<>(mapper, combiner, 0, blocks.size());
+        
+        if (parallel && blocks.size() > blocksPerTask) {
+            return ForkJoinPool.commonPool().invoke(task);
+        }
+        
+        return task.reduceSequentially();
+    }
+    
+    /**
+     * The task reducing a range of blocks, split in halves until it holds at
+     * most {@code blocksPerTask} blocks.
+     * 
+     * @param <R> the result type.
+     */
+    private final class ReduceTask<R> extends RecursiveTask<R> {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final Function<Block<E>, R> mapper;
+        private final BinaryOperator<R> combiner;
+        private final int fromBlock;
+        private final int toBlock;
+        
+        ReduceTask(Function<Block<E>, R> mapper,
+                   BinaryOperator<R> combiner,
+                   int fromBlock,
+                   int toBlock) {
+            this.mapper = mapper;
+            this.combiner = combiner;
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+        }
+        
+        @Override
+        protected R compute() {
+            if (toBlock - fromBlock <= blocksPerTask) {
+                return reduceSequentially();
+            }
+            
+            int middle = (fromBlock + toBlock) >>> 1;
+            ReduceTask<R> left =
+                    new ReduceTask<>(mapper, combiner, fromBlock, middle);
+            ReduceTask<R> right =
+                    new ReduceTask<>(mapper, combiner, middle, toBlock);
+            right.fork();
+            R leftResult = left.compute();
+            return combiner.apply(leftResult, right.join());
+        }
+        
+        R reduceSequentially() {
+            R result = mapper.apply(blocks.get(fromBlock));
+            
+            for (int i = fromBlock + 1; i < toBlock; i++) {
+                result = combiner.apply(result, mapper.apply(blocks.get(i)));
+            }
+            
+            return result;
+        }
+    }
+    
+    /**
+     * Returns the element of rank {@code k} in {@code array}, reordering
+     * the array. The partitioning is three-way, so that runs of equal
+     * elements do not degrade the running time.
+     */
+    private E quickselect(E[] array, int k, Random random) {
+        int from = 0;
+        int to = array.length;
+        
+        while (true) {
+            E pivot = array[from + random.nextInt(to - from)];
+            int less = from;
+            int greater = to;
+            int i = from;
+            
+            // Invariant: array[from, less) < pivot, array[less, i) == pivot,
+            // array[greater, to) > pivot.
+            while (i < greater) {
+                int cmp = comparator.compare(array[i], pivot);
+                
+                if (cmp < 0) {
+                    swap(array, i++, less++);
+                } else if (cmp > 0) {
+                    swap(array, i, --greater);
+                } else {
+                    i++;
+                }
+            }
+            
+            if (k < less) {
+                to = less;
+            } else if (k >= greater) {
+                from = greater;
+            } else {
+                return pivot;
+            }
+        }
+    }
+    
+    private static void swap(Object[] array, int i, int j) {
+        Object tmp = array[i];
+        array[i] = array[j];
+        array[j] = tmp;
+    }
+}
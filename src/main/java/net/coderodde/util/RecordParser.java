@@ -0,0 +1,45 @@
+package net.coderodde.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * This interface defines the API for decoding records from a byte buffer 
+ * directly into the storage array of a block. It is used by
+ * {@link LinkedArrayBlockList#load(java.nio.channels.ReadableByteChannel, 
+ * RecordParser, int, boolean)}.
+ * 
+ * @param <E> the element type.
+ * @author Rodion "rodde" Efremov
+ */
+@FunctionalInterface
+public interface RecordParser<E> {
+    
+    /**
+     * Decodes as many complete records from {@code buffer} as fit into
+     * <tt>target[offset], target[offset + 1], ..., target[offset + length - 1]
+     * </tt>, and advances the position of the buffer past the decoded 
+     * records. A trailing incomplete record must be left in the buffer; it is
+     * passed again once more bytes are available. If {@code endOfInput} is 
+     * set, no more bytes will follow, and the parser must either consume the
+     * remaining bytes or throw an exception.
+     * <p>
+     * The parser may consume bytes without producing records (for example, 
+     * separators), but it must consume at least one byte or produce at least 
+     * one record whenever it can make progress.
+     * 
+     * @param buffer     the buffer to decode from.
+     * @param target     the array to decode into. Only instances of 
+     *                   {@code E} may be stored in it.
+     * @param offset     the index of the first array component to write.
+     * @param length     the maximum number of records to decode.
+     * @param endOfInput indicates whether the buffer holds the last bytes.
+     * @return the number of decoded records.
+     * @throws IOException if the input is malformed.
+     */
+    int parse(ByteBuffer buffer, 
+              Object[] target, 
+              int offset, 
+              int length, 
+              boolean endOfInput) throws IOException;
+}
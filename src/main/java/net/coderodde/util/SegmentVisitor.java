@@ -0,0 +1,30 @@
+package net.coderodde.util;
+
+/**
+ * This interface defines the API for visiting the contiguous runs of 
+ * elements stored in the blocks of a {@link LinkedArrayBlockList}. Each block
+ * contributes at most two runs, because its elements may wrap over the end of
+ * its storage array. 
+ * <p>
+ * The storage arrays are created as {@code Object[]}, which is why 
+ * {@code array} is not typed as {@code E[]}; all the components in the 
+ * visited range are instances of {@code E} (or {@code null}).
+ * 
+ * @param <E> the element type.
+ * @author Rodion "rodde" Efremov
+ * @see LinkedArrayBlockList#forEachSegment(SegmentVisitor)
+ */
+@FunctionalInterface
+public interface SegmentVisitor<E> {
+    
+    /**
+     * Visits the elements <tt>array[from], array[from + 1], ..., 
+     * array[to - 1]</tt>. The visitor must neither modify the array nor keep
+     * a reference to it.
+     * 
+     * @param array the storage array of a block.
+     * @param from  the index of the first element in the run.
+     * @param to    the index one past the last element in the run.
+     */
+    void visit(Object[] array, int from, int to);
+}
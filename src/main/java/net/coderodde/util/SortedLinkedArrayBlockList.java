@@ -0,0 +1,531 @@
+package net.coderodde.util;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import net.coderodde.util.LinkedArrayBlockList.Block;
+
+/**
+ * This class implements a sorted collection on top of the block chain of 
+ * {@link LinkedArrayBlockList}. The elements are kept in the order imposed by
+ * a comparator; equal elements are allowed and kept in insertion order. 
+ * <p>
+ * A directory of blocks in chain order allows binary searching first across
+ * the blocks and then within the ring buffer of the target block. A Fenwick 
+ * tree over the block sizes maps between the blocks and the element ranks. 
+ * Thus, {@link #floor(Object)}, {@link #ceiling(Object)}, 
+ * {@link #rank(Object)} and {@link #select(int)} run in <tt>O(log n)</tt>
+ * time. An insertion shifts the shorter side of the target block and splits 
+ * the block in halves whenever it is full.
+ * 
+ * @param <E> the element type.
+ * @author Rodion "rodde" Efremov
+ */
+public final class SortedLinkedArrayBlockList<E> extends AbstractCollection<E> {
+    
+    /**
+     * The comparator defining the order of the elements.
+     */
+    private final Comparator<? super E> comparator;
+    
+    /**
+     * The capacity of each block.
+     */
+    private final int blockCapacity;
+    
+    /**
+     * The blocks in the chain order.
+     */
+    private final List<Block<E>> directory = new ArrayList<>();
+    
+    /**
+     * The Fenwick tree over the sizes of the blocks in {@code directory}. The
+     * component at index 0 is not used.
+     */
+    private int[] fenwickTree = new int[1];
+    
+    /**
+     * The number of elements in this collection.
+     */
+    private int size;
+    
+    /**
+     * The number of modifications of this collection.
+     */
+    private int modificationCount;
+    
+    public SortedLinkedArrayBlockList(Comparator<? super E> comparator,
+                                      int blockCapacity) {
+        this.comparator = 
+                Objects.requireNonNull(comparator, 
+                                       "The input comparator is null.");
+        this.blockCapacity = 
+                LinkedArrayBlockList.checkBlockCapacity(blockCapacity);
+    }
+    
+    public SortedLinkedArrayBlockList(Comparator<? super E> comparator) {
+        this(comparator, LinkedArrayBlockList.DEFAULT_BLOCK_CAPACITY);
+    }
+    
+    /**
+     * Constructs an empty collection sorted by the natural ordering of the 
+     * elements.
+     */
+    public SortedLinkedArrayBlockList() {
+        this((Comparator<? super E>) Comparator.naturalOrder());
+    }
+    
+    /**
+     * Returns the comparator of this collection.
+     * 
+     * @return the comparator.
+     */
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Inserts {@code element} after all the elements that are not greater
+     * than it. If the comparator throws, this collection is left unchanged.
+     * 
+     * @param element the element to insert.
+     * @return <tt>true</tt>.
+     */
+    @Override
+    public boolean add(E element) {
+        if (directory.isEmpty()) {
+            // Let the comparator reject the element before it is stored.
+            comparator.compare(element, element);
+            Block<E> block = new Block<>(blockCapacity);
+            block.array[0] = element;
+            block.size = 1;
+            directory.add(block);
+            rebuildFenwickTree();
+            modificationCount++;
+            size++;
+            return true;
+        }
+        
+        int blockIndex = findBlock(element, true);
+        int localIndex;
+        
+        if (blockIndex == directory.size()) {
+            // Goes after all the elements.
+            blockIndex--;
+            localIndex = directory.get(blockIndex).size;
+        } else {
+            localIndex = findLocalIndex(directory.get(blockIndex), 
+                                        element, 
+                                        true);
+        }
+        
+        Block<E> block = directory.get(blockIndex);
+        
+        if (block.isFull()) {
+            splitBlock(blockIndex);
+            
+            if (localIndex > block.size) {
+                localIndex -= block.size;
+                block = directory.get(++blockIndex);
+            }
+        }
+        
+        block.insert(localIndex, element);
+        updateFenwickTree(blockIndex, 1);
+        modificationCount++;
+        size++;
+        return true;
+    }
+    
+    /**
+     * Removes a single element comparing equal to {@code o}.
+     * 
+     * @param o the element to remove.
+     * @return <tt>true</tt> if an element was removed.
+     */
+    @Override
+    public boolean remove(Object o) {
+        E element = (E) o;
+        int blockIndex = findBlock(element, false);
+        
+        if (blockIndex == directory.size()) {
+            return false;
+        }
+        
+        Block<E> block = directory.get(blockIndex);
+        int localIndex = findLocalIndex(block, element, false);
+        
+        if (comparator.compare(block.get(localIndex), element) != 0) {
+            return false;
+        }
+        
+        block.remove(localIndex);
+        modificationCount++;
+        size--;
+        
+        if (block.isEmpty()) {
+            unlinkBlock(blockIndex);
+        } else {
+            updateFenwickTree(blockIndex, -1);
+        }
+        
+        return true;
+    }
+    
+    @Override
+    public boolean contains(Object o) {
+        E element = (E) o;
+        int blockIndex = findBlock(element, false);
+        
+        if (blockIndex == directory.size()) {
+            return false;
+        }
+        
+        Block<E> block = directory.get(blockIndex);
+        int localIndex = findLocalIndex(block, element, false);
+        return comparator.compare(block.get(localIndex), element) == 0;
+    }
+    
+    @Override
+    public void clear() {
+        directory.clear();
+        fenwickTree = new int[1];
+        size = 0;
+        modificationCount++;
+    }
+    
+    /**
+     * Returns the smallest element.
+     * 
+     * @return the smallest element.
+     * @throws NoSuchElementException if this collection is empty.
+     */
+    public E first() {
+        checkNotEmpty();
+        return directory.get(0).get(0);
+    }
+    
+    /**
+     * Returns the largest element.
+     * 
+     * @return the largest element.
+     * @throws NoSuchElementException if this collection is empty.
+     */
+    public E last() {
+        checkNotEmpty();
+        Block<E> block = directory.get(directory.size() - 1);
+        return block.get(block.size - 1);
+    }
+    
+    /**
+     * Returns the greatest element less than or equal to {@code element}, or
+     * {@code null} if there is no such.
+     * 
+     * @param element the query element.
+     * @return the floor element or {@code null}.
+     */
+    public E floor(E element) {
+        int index = boundIndex(element, true) - 1;
+        return index < 0 ? null : select(index);
+    }
+    
+    /**
+     * Returns the greatest element strictly less than {@code element}, or
+     * {@code null} if there is no such.
+     * 
+     * @param element the query element.
+     * @return the lower element or {@code null}.
+     */
+    public E lower(E element) {
+        int index = boundIndex(element, false) - 1;
+        return index < 0 ? null : select(index);
+    }
+    
+    /**
+     * Returns the least element greater than or equal to {@code element}, or
+     * {@code null} if there is no such.
+     * 
+     * @param element the query element.
+     * @return the ceiling element or {@code null}.
+     */
+    public E ceiling(E element) {
+        int index = boundIndex(element, false);
+        return index == size ? null : select(index);
+    }
+    
+    /**
+     * Returns the least element strictly greater than {@code element}, or
+     * {@code null} if there is no such.
+     * 
+     * @param element the query element.
+     * @return the higher element or {@code null}.
+     */
+    public E higher(E element) {
+        int index = boundIndex(element, true);
+        return index == size ? null : select(index);
+    }
+    
+    /**
+     * Returns the number of elements strictly less than {@code element}.
+     * 
+     * @param element the query element.
+     * @return the rank of {@code element}.
+     */
+    public int rank(E element) {
+        return boundIndex(element, false);
+    }
+    
+    /**
+     * Returns the element at the given rank, i.e., the element preceded by
+     * exactly {@code index} elements in sorted order.
+     * 
+     * @param index the rank of the element to return.
+     * @return the element at the rank {@code index}.
+     * @throws IndexOutOfBoundsException if {@code index} is out of range.
+     */
+    public E select(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(
+                    "The rank (" + index + ") is out of range [0, " + 
+                    size + ").");
+        }
+        
+        // Descend the Fenwick tree to the block holding the index.
+        int position = 0;
+        int remaining = index;
+        
+        for (int step = Integer.highestOneBit(directory.size()); 
+                step > 0; 
+                step >>= 1) {
+            int next = position + step;
+            
+            if (next <= directory.size() && fenwickTree[next] <= remaining) {
+                position = next;
+                remaining -= fenwickTree[next];
+            }
+        }
+        
+        return directory.get(position).get(remaining);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new SortedIterator();
+    }
+    
+    /**
+     * Returns the number of elements preceding the first element that is 
+     * greater than (if {@code strict}) or greater than or equal to (if not
+     * {@code strict}) {@code element}.
+     */
+    private int boundIndex(E element, boolean strict) {
+        int blockIndex = findBlock(element, strict);
+        
+        if (blockIndex == directory.size()) {
+            return size;
+        }
+        
+        return prefixSize(blockIndex) + 
+               findLocalIndex(directory.get(blockIndex), element, strict);
+    }
+    
+    /**
+     * Returns the index of the first block whose last element is greater than
+     * (if {@code strict}) or greater than or equal to (if not {@code strict})
+     * {@code element}, or the number of blocks if there is no such.
+     */
+    private int findBlock(E element, boolean strict) {
+        int low = 0;
+        int high = directory.size();
+        
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            Block<E> block = directory.get(middle);
+            
+            if (precedes(block.get(block.size - 1), element, strict)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        
+        return low;
+    }
+    
+    /**
+     * Returns the logical index of the first element in {@code block} that is 
+     * greater than (if {@code strict}) or greater than or equal to (if not
+     * {@code strict}) {@code element}, or {@code block.size} if there is no
+     * such.
+     */
+    private int findLocalIndex(Block<E> block, E element, boolean strict) {
+        int low = 0;
+        int high = block.size;
+        
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            
+            if (precedes(block.get(middle), element, strict)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        
+        return low;
+    }
+    
+    /**
+     * Returns <tt>true</tt> if {@code candidate} is less than or equal to (if
+     * {@code strict}) or less than (if not {@code strict}) {@code element}.
+     */
+    private boolean precedes(E candidate, E element, boolean strict) {
+        int cmp = comparator.compare(candidate, element);
+        return strict ? cmp <= 0 : cmp < 0;
+    }
+    
+    /**
+     * Splits the full block at {@code blockIndex} into two halves.
+     * 
+     * @param blockIndex the index of the block to split.
+     */
+    private void splitBlock(int blockIndex) {
+        Block<E> block = directory.get(blockIndex);
+        Block<E> newBlock = new Block<>(blockCapacity);
+        int half = block.size / 2;
+        int moved = block.size - half;
+        
+        for (int i = 0; i < moved; i++) {
+            newBlock.array[i] = block.get(half + i);
+            block.set(half + i, null); // Let the GC do its job.
+        }
+        
+        newBlock.size = moved;
+        block.size = half;
+        newBlock.previousBlock = block;
+        newBlock.nextBlock = block.nextBlock;
+        
+        if (block.nextBlock != null) {
+            block.nextBlock.previousBlock = newBlock;
+        }
+        
+        block.nextBlock = newBlock;
+        directory.add(blockIndex + 1, newBlock);
+        rebuildFenwickTree();
+    }
+    
+    /**
+     * Unlinks the empty block at {@code blockIndex}.
+     * 
+     * @param blockIndex the index of the block to unlink.
+     */
+    private void unlinkBlock(int blockIndex) {
+        Block<E> block = directory.remove(blockIndex);
+        
+        if (block.previousBlock != null) {
+            block.previousBlock.nextBlock = block.nextBlock;
+        }
+        
+        if (block.nextBlock != null) {
+            block.nextBlock.previousBlock = block.previousBlock;
+        }
+        
+        rebuildFenwickTree();
+    }
+    
+    /**
+     * Returns the total size of the blocks preceding {@code blockIndex}.
+     */
+    private int prefixSize(int blockIndex) {
+        int sum = 0;
+        
+        for (int i = blockIndex; i > 0; i -= i & -i) {
+            sum += fenwickTree[i];
+        }
+        
+        return sum;
+    }
+    
+    private void updateFenwickTree(int blockIndex, int delta) {
+        for (int i = blockIndex + 1; i < fenwickTree.length; i += i & -i) {
+            fenwickTree[i] += delta;
+        }
+    }
+    
+    private void rebuildFenwickTree() {
+        int[] tree = new int[directory.size() + 1];
+        
+        for (int i = 1; i < tree.length; i++) {
+            tree[i] += directory.get(i - 1).size;
+            int parent = i + (i & -i);
+            
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+        
+        fenwickTree = tree;
+    }
+    
+    private void checkNotEmpty() {
+        if (size == 0) {
+            throw new NoSuchElementException("The collection is empty.");
+        }
+    }
+    
+    /**
+     * This inner class implements an ascending iterator over the elements.
+     */
+    private final class SortedIterator implements Iterator<E> {
+        
+        /**
+         * The block containing the next element to return.
+         */
+        private Block<E> block = directory.isEmpty() ? null : directory.get(0);
+        
+        /**
+         * The logical index of the next element within {@code block}.
+         */
+        private int localIndex;
+        
+        /**
+         * The modification count this iterator expects the collection to have.
+         */
+        private final int expectedModificationCount = modificationCount;
+        
+        @Override
+        public boolean hasNext() {
+            return block != null;
+        }
+
+        @Override
+        public E next() {
+            if (expectedModificationCount != modificationCount) {
+                throw new ConcurrentModificationException();
+            }
+            
+            if (block == null) {
+                throw new NoSuchElementException();
+            }
+            
+            E element = block.get(localIndex++);
+            
+            if (localIndex == block.size) {
+                block = block.nextBlock;
+                localIndex = 0;
+            }
+            
+            return element;
+        }
+    }
+}
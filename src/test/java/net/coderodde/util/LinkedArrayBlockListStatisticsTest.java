@@ -0,0 +1,161 @@
+package net.coderodde.util;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * This class tests the
+ * {@link net.coderodde.util.LinkedArrayBlockListStatistics}. It runs in a
+ * separate Surefire execution that sets the system property
+ * <tt>net.coderodde.util.LinkedArrayBlockList.statistics</tt>, so that the
+ * other tests run with the statistics disabled, as by default.
+ * 
+ * @author Rodion "rodde" Efremov
+ */
+public class LinkedArrayBlockListStatisticsTest {
+    
+    private LinkedArrayBlockList<Integer> targetList;
+    
+    private LinkedArrayBlockListStatistics statistics;
+    
+    @BeforeClass
+    public static void setUpClass() {
+        assertTrue("Run with -Dnet.coderodde.util.LinkedArrayBlockList." +
+                   "statistics=true.",
+                   LinkedArrayBlockList.STATISTICS_ENABLED);
+    }
+    
+    @Before
+    public void setUp() {
+        targetList = new LinkedArrayBlockList<>(5);
+        statistics = targetList.enableStatistics();
+    }
+    
+    /**
+     * Test of the counters, of class LinkedArrayBlockListStatistics.
+     */
+    @Test
+    public void testCounters() {
+        assertSame(statistics, targetList.enableStatistics());
+        
+        for (int i = 0; i < 12; i++) {
+            targetList.add(i);
+        }
+        
+        assertEquals(3, statistics.getBlocks());
+        assertEquals(12, statistics.getSize());
+        assertEquals(3, statistics.getBlocksAllocated());
+        assertArrayEquals(new int[]{ 0, 0, 0, 0, 1, 0, 0, 0, 0, 2 },
+                          statistics.getFillFactorHistogram());
+        
+        targetList.get(0);
+        targetList.get(5);
+        assertEquals(0.5, statistics.getAverageBlockHopsPerGet(), 0.001);
+        
+        targetList.remove((Integer) 11);
+        targetList.remove((Integer) 10);
+        targetList.remove((Integer) 1);
+        assertEquals(1, statistics.getBlocksUnlinked());
+        assertEquals(1, statistics.getShiftedElements());
+        
+        statistics.reset();
+        assertEquals(0, statistics.getBlocksAllocated());
+        assertEquals(0.0, statistics.getModificationRate(), 0.0);
+    }
+    
+    /**
+     * Test of getModificationRate method, of class
+     * LinkedArrayBlockListStatistics.
+     */
+    @Test
+    public void testGetModificationRate() {
+        for (int i = 0; i < 100; i++) {
+            targetList.add(i);
+        }
+        
+        // Reading the rate must not start a new sampling window.
+        assertTrue(statistics.getModificationRate() > 0.0);
+        assertTrue(statistics.getModificationRate() > 0.0);
+        
+        statistics.reset();
+        assertEquals(0.0, statistics.getModificationRate(), 0.0);
+        targetList.add(100);
+        assertTrue(statistics.getModificationRate() > 0.0);
+        assertTrue(statistics.getModificationRate() > 0.0);
+    }
+    
+    /**
+     * Tests that typing at the gap shifts no elements after the initial
+     * split.
+     */
+    @Test
+    public void testGapEditingShifts() {
+        targetList.enableGapEditing();
+        
+        for (int i = 0; i < 100; i++) {
+            targetList.add(i);
+        }
+        
+        targetList.add(52, -1);
+        long shiftedElements = statistics.getShiftedElements();
+        
+        for (int i = 0; i < 20; i++) {
+            targetList.add(53 + i, -2 - i);
+        }
+        
+        for (int i = 0; i < 5; i++) {
+            targetList.remove(72 - i);
+        }
+        
+        for (int i = 0; i < 5; i++) {
+            targetList.remove(68);
+        }
+        
+        assertEquals(shiftedElements, statistics.getShiftedElements());
+        assertEquals(111, targetList.size());
+    }
+    
+    /**
+     * Tests that the blocks reserved by {@code ensureCapacity} are used
+     * before new ones are allocated.
+     */
+    @Test
+    public void testEnsureCapacityAllocations() {
+        targetList.add(0);
+        targetList.ensureCapacity(23);
+        long allocated = statistics.getBlocksAllocated();
+        
+        for (int i = 1; i < 23; i++) {
+            targetList.add(i);
+        }
+        
+        assertEquals(allocated, statistics.getBlocksAllocated());
+        
+        targetList.add(23);
+        targetList.add(24);
+        targetList.add(25);
+        
+        assertEquals(allocated + 1, statistics.getBlocksAllocated());
+        
+        targetList.ensureCapacity(10); // No-op.
+        
+        assertEquals(allocated + 1, statistics.getBlocksAllocated());
+    }
+    
+    /**
+     * Tests that the sliding window recycles the evicted blocks.
+     */
+    @Test
+    public void testSlidingWindowAllocations() {
+        targetList.enableSlidingWindow(12, null, true);
+        
+        for (int i = 0; i < 30; i++) {
+            targetList.add(i);
+        }
+        
+        assertEquals(12, targetList.size());
+        assertTrue(statistics.getBlocksAllocated() <= 4);
+    }
+}
@@ -1,13 +1,29 @@
 package net.coderodde.util;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
 import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -48,7 +64,7 @@ public class LinkedArrayBlockListTest {
     @After
     public void tearDown() {
     }
-
+    
     /**
      * Test of size method, of class LinkedArrayBlockList.
      */
@@ -62,7 +78,7 @@ public class LinkedArrayBlockListTest {
         
         // TODO: test with remove()!
     }
-
+    
     /**
      * Test of isEmpty method, of class LinkedArrayBlockList.
      */
@@ -75,7 +91,7 @@ public class LinkedArrayBlockListTest {
         assertFalse(targetList.isEmpty());
         // TODO: Test with remove()!
     }
-
+    
     /**
      * Test of contains method, of class LinkedArrayBlockList.
      */
@@ -94,15 +110,31 @@ public class LinkedArrayBlockListTest {
         
         assertTrue(targetList.contains(11));
     }
-
+    
     /**
      * Test of iterator method, of class LinkedArrayBlockList.
      */
     @Test
     public void testIterator() {
+        assertFalse(targetList.iterator().hasNext());
         
+        for (int i = 0; i < 12; i++) {
+            targetList.add(i);
+        }
+        
+        targetList.remove((Integer) 3);
+        Iterator<Integer> iterator = targetList.iterator();
+        
+        for (int i = 0; i < 12; i++) {
+            if (i != 3) {
+                assertTrue(iterator.hasNext());
+                assertEquals((Integer) i, iterator.next());
+            }
+        }
+        
+        assertFalse(iterator.hasNext());
     }
-
+    
     /**
      * Test of toArray method, of class LinkedArrayBlockList.
      */
@@ -118,7 +150,7 @@ public class LinkedArrayBlockListTest {
         assertTrue(Arrays.equals(returnedArray, 
                                  expectedArray));
     }
-
+    
     /**
      * Test of toArray method, of class LinkedArrayBlockList.
      */
@@ -127,7 +159,7 @@ public class LinkedArrayBlockListTest {
         targetList.add(1);
         targetList.add(2);
         targetList.add(3);
-     
+        
         Integer[] array = new Integer[2];
         Integer[] returnedArray = targetList.toArray(array);
         assertNotEquals(array, returnedArray);
@@ -149,15 +181,15 @@ public class LinkedArrayBlockListTest {
         assertNull(returnedArray[3]);
         assertEquals((Integer) 5, returnedArray[4]);
     }
-
+    
     /**
      * Test of add method, of class LinkedArrayBlockList.
      */
     @Test
     public void testAdd_GenericType() {
-        
+    
     }
-
+    
     /**
      * Test of remove method, of class LinkedArrayBlockList.
      */
@@ -185,15 +217,15 @@ public class LinkedArrayBlockListTest {
         assertEquals((Integer) 20, targetList.get(0));
         assertEquals((Integer) 40, targetList.get(1));
     }
-
+    
     /**
      * Test of containsAll method, of class LinkedArrayBlockList.
      */
     @Test
     public void testContainsAll() {
-        
+    
     }
-
+    
     /**
      * Test of addAll method, of class LinkedArrayBlockList.
      */
@@ -219,87 +251,155 @@ public class LinkedArrayBlockListTest {
             assertEquals((Integer) i, targetList.get(i));
         }
     }
-
+    
     /**
      * Test of addAll method, of class LinkedArrayBlockList.
      */
     @Test
     public void testAddAll_int_Collection() {
-        
+    
     }
-
+    
     /**
      * Test of removeAll method, of class LinkedArrayBlockList.
      */
     @Test
     public void testRemoveAll() {
-        
+    
     }
-
+    
     /**
      * Test of retainAll method, of class LinkedArrayBlockList.
      */
     @Test
     public void testRetainAll() {
-        
+    
     }
-
+    
     /**
      * Test of replaceAll method, of class LinkedArrayBlockList.
      */
     @Test
     public void testReplaceAll() {
-        
+    
     }
-
+    
     /**
      * Test of sort method, of class LinkedArrayBlockList.
      */
     @Test
     public void testSort() {
-        
+    
     }
-
+    
     /**
      * Test of clear method, of class LinkedArrayBlockList.
      */
     @Test
     public void testClear() {
-        
+    
     }
-
+    
     /**
      * Test of get method, of class LinkedArrayBlockList.
      */
     @Test
     public void testGet() {
-        
+    
     }
-
+    
     /**
      * Test of set method, of class LinkedArrayBlockList.
      */
     @Test
     public void testSet() {
+        for (int i = 0; i < 13; i++) {
+            targetList.add(i);
+        }
         
+        for (int i = 0; i < 13; i++) {
+            assertEquals(Integer.valueOf(i), targetList.set(i, 2 * i));
+        }
+        
+        for (int i = 0; i < 13; i++) {
+            assertEquals(Integer.valueOf(2 * i), targetList.get(i));
+        }
+        
+        try {
+            targetList.set(13, 0);
+            fail("An index past the end must be rejected.");
+        } catch (IndexOutOfBoundsException ex) {
+        
+        }
     }
-
+    
     /**
      * Test of add method, of class LinkedArrayBlockList.
      */
     @Test
     public void testAdd_int_GenericType() {
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(13L);
+        
+        for (int i = 0; i < 500; i++) {
+            int index = random.nextInt(expected.size() + 1);
+            targetList.add(index, i);
+            expected.add(index, i);
+        }
+        
+        assertEquals(expected, targetList);
+        
+        // Editing at one moving position.
+        int position = 100;
+        
+        for (int i = 0; i < 300; i++) {
+            position += random.nextInt(3) - 1;
+            targetList.add(position, -i);
+            expected.add(position, -i);
+        }
         
+        assertEquals(expected, targetList);
+        assertEquals(expected.size(), targetList.size());
+        
+        try {
+            targetList.add(targetList.size() + 1, 0);
+            fail("An insertion index past the end must be rejected.");
+        } catch (IndexOutOfBoundsException ex) {
+        
+        }
     }
-
+    
     /**
      * Test of remove method, of class LinkedArrayBlockList.
      */
     @Test
     public void testRemove_int() {
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(17L);
+        
+        for (int i = 0; i < 500; i++) {
+            targetList.add(i);
+            expected.add(i);
+        }
         
+        while (expected.size() > 100) {
+            int index = random.nextInt(expected.size());
+            assertEquals(expected.remove(index), targetList.remove(index));
+        }
+        
+        assertEquals(expected, targetList);
+        
+        while (!expected.isEmpty()) {
+            int index = expected.size() / 2;
+            assertEquals(expected.remove(index), targetList.remove(index));
+        }
+        
+        assertTrue(targetList.isEmpty());
+        assertEquals(0, targetList.getBlocks());
+        targetList.add(1);
+        assertEquals(Integer.valueOf(1), targetList.get(0));
     }
-
+    
     /**
      * Test of indexOf method, of class LinkedArrayBlockList.
      */
@@ -316,7 +416,7 @@ public class LinkedArrayBlockListTest {
         targetList.add(0);
         assertEquals(0, targetList.indexOf(0));
     }
-
+    
     /**
      * Test of lastIndexOf method, of class LinkedArrayBlockList.
      */
@@ -331,251 +431,2219 @@ public class LinkedArrayBlockListTest {
         
         assertEquals(2, targetList.lastIndexOf(1));
     }
-
+    
     /**
      * Test of listIterator method, of class LinkedArrayBlockList.
      */
     @Test
     public void testListIterator_0args() {
-        
+    
     }
-
+    
     /**
      * Test of listIterator method, of class LinkedArrayBlockList.
      */
     @Test
     public void testListIterator_int() {
-        
+    
     }
-
+    
     /**
      * Test of subList method, of class LinkedArrayBlockList.
      */
     @Test
     public void testSubList() {
-        
+    
     }
-
+    
     /**
      * Test of spliterator method, of class LinkedArrayBlockList.
      */
     @Test
     public void testSpliterator() {
-        
+    
     }
-
+    
     /**
      * Test of removeIf method, of class LinkedArrayBlockList.
      */
     @Test
     public void testRemoveIf() {
     }
-
+    
     /**
      * Test of stream method, of class LinkedArrayBlockList.
      */
     @Test
     public void testStream() {
-
+    
     }
-
+    
     /**
      * Test of parallelStream method, of class LinkedArrayBlockList.
      */
     @Test
     public void testParallelStream() {
-        
+    
     }
-
+    
     /**
      * Test of forEach method, of class LinkedArrayBlockList.
      */
     @Test
     public void testForEach() {
+        for (int i = 0; i < 13; i++) {
+            targetList.add(i);
+        }
+        
+        targetList.remove((Integer) 0);
+        List<Integer> visited = new ArrayList<>();
+        targetList.forEach(visited::add);
+        
+        assertEquals(12, visited.size());
         
+        for (int i = 0; i < 12; i++) {
+            assertEquals((Integer)(i + 1), visited.get(i));
+        }
     }
-
+    
     /**
      * Test of addFirst method, of class LinkedArrayBlockList.
      */
     @Test
     public void testAddFirst() {
-        
+    
     }
-
+    
     /**
      * Test of addLast method, of class LinkedArrayBlockList.
      */
     @Test
     public void testAddLast() {
-        
+    
     }
-
+    
     /**
      * Test of offerFirst method, of class LinkedArrayBlockList.
      */
     @Test
     public void testOfferFirst() {
-        
+    
     }
-
+    
     /**
      * Test of offerLast method, of class LinkedArrayBlockList.
      */
     @Test
     public void testOfferLast() {
-        
+    
     }
-
+    
     /**
      * Test of removeFirst method, of class LinkedArrayBlockList.
      */
     @Test
     public void testRemoveFirst() {
-        
+    
     }
-
+    
     /**
      * Test of removeLast method, of class LinkedArrayBlockList.
      */
     @Test
     public void testRemoveLast() {
-        
+    
     }
-
+    
     /**
      * Test of pollFirst method, of class LinkedArrayBlockList.
      */
     @Test
     public void testPollFirst() {
-        
+    
     }
-
+    
     /**
      * Test of pollLast method, of class LinkedArrayBlockList.
      */
     @Test
     public void testPollLast() {
-        
+    
     }
-
+    
     /**
      * Test of getFirst method, of class LinkedArrayBlockList.
      */
     @Test
     public void testGetFirst() {
-        
+    
     }
-
+    
     /**
      * Test of getLast method, of class LinkedArrayBlockList.
      */
     @Test
     public void testGetLast() {
-        
+    
     }
-
+    
     /**
      * Test of peekFirst method, of class LinkedArrayBlockList.
      */
     @Test
     public void testPeekFirst() {
-        
+    
     }
-
+    
     /**
      * Test of peekLast method, of class LinkedArrayBlockList.
      */
     @Test
     public void testPeekLast() {
-        
+    
     }
-
+    
     /**
      * Test of removeFirstOccurrence method, of class LinkedArrayBlockList.
      */
     @Test
     public void testRemoveFirstOccurrence() {
-        
+    
     }
-
+    
     /**
      * Test of removeLastOccurrence method, of class LinkedArrayBlockList.
      */
     @Test
     public void testRemoveLastOccurrence() {
-        
+    
     }
-
+    
     /**
      * Test of offer method, of class LinkedArrayBlockList.
      */
     @Test
     public void testOffer() {
-        
+    
     }
-
+    
     /**
      * Test of remove method, of class LinkedArrayBlockList.
      */
     @Test
     public void testRemove_0args() {
-        
+    
     }
-
+    
     /**
      * Test of poll method, of class LinkedArrayBlockList.
      */
     @Test
     public void testPoll() {
-        
+    
     }
-
+    
     /**
      * Test of element method, of class LinkedArrayBlockList.
      */
     @Test
     public void testElement() {
-        
+    
     }
-
+    
     /**
      * Test of peek method, of class LinkedArrayBlockList.
      */
     @Test
     public void testPeek() {
-        
+    
     }
-
+    
     /**
      * Test of push method, of class LinkedArrayBlockList.
      */
     @Test
     public void testPush() {
-        
+    
     }
-
+    
     /**
      * Test of pop method, of class LinkedArrayBlockList.
      */
     @Test
     public void testPop() {
-        
+    
     }
-
+    
     /**
      * Test of descendingIterator method, of class LinkedArrayBlockList.
      */
     @Test
     public void testDescendingIterator() {
+    
+    }
+    
+    /**
+     * Test of appendAll method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testAppendAll() {
+        LinkedArrayBlockList<Integer> otherList = 
+                new LinkedArrayBlockList<>(5);
+        
+        assertFalse(targetList.appendAll(otherList));
+        
+        for (int i = 0; i < 7; i++) {
+            otherList.add(i);
+        }
+        
+        assertTrue(targetList.appendAll(otherList));
+        assertTrue(otherList.isEmpty());
+        assertEquals(7, targetList.size());
+        
+        for (int i = 7; i < 19; i++) {
+            otherList.add(i);
+        }
+        
+        targetList.appendAll(otherList);
+        targetList.add(19);
+        assertEquals(20, targetList.size());
         
+        for (int i = 0; i < 20; i++) {
+            assertEquals((Integer) i, targetList.get(i));
+        }
+        
+        // 'otherList' must be reusable after being emptied.
+        otherList.add(100);
+        assertEquals((Integer) 100, otherList.get(0));
     }
-
+    
     /**
-     * Test of main method, of class LinkedArrayBlockList.
+     * Test of splitAt method, of class LinkedArrayBlockList.
      */
     @Test
-    public void testMain() {
+    public void testSplitAt() {
+        for (int size = 0; size < 17; size++) {
+            for (int index = 0; index <= size; index++) {
+                LinkedArrayBlockList<Integer> list = 
+                        new LinkedArrayBlockList<>(4);
+                
+                for (int i = 0; i < size; i++) {
+                    list.add(i);
+                }
+                
+                LinkedArrayBlockList<Integer> tail = list.splitAt(index);
+                
+                assertEquals(index, list.size());
+                assertEquals(size - index, tail.size());
+                
+                for (int i = 0; i < index; i++) {
+                    assertEquals((Integer) i, list.get(i));
+                }
+                
+                for (int i = index; i < size; i++) {
+                    assertEquals((Integer) i, tail.get(i - index));
+                }
+                
+                list.add(-1);
+                tail.add(-2);
+                assertEquals((Integer) (-1), list.get(index));
+                assertEquals((Integer) (-2), tail.get(size - index));
+                
+                list.appendAll(tail);
+                assertEquals(size + 2, list.size());
+            }
+        }
+    }
+    
+    /**
+     * Test of clone method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testClone() {
+        for (int i = 0; i < 12; i++) {
+            targetList.add(i);
+        }
+        
+        LinkedArrayBlockList<Integer> copy = targetList.clone();
         
+        assertEquals(12, copy.size());
+        
+        targetList.add(12);
+        targetList.remove((Integer) 7);
+        copy.remove((Integer) 0);
+        copy.add(100);
+        
+        assertEquals(12, targetList.size());
+        assertEquals(12, copy.size());
+        
+        for (int i = 0, j = 0; i < 13; i++) {
+            if (i != 7) {
+                assertEquals((Integer) i, targetList.get(j++));
+            }
+        }
+        
+        for (int i = 1; i < 12; i++) {
+            assertEquals((Integer) i, copy.get(i - 1));
+        }
+        
+        assertEquals((Integer) 100, copy.get(11));
+    }
+    
+    /**
+     * Tests that the edit cursor of a list does not become valid again in
+     * its clone as the modification count of the clone grows.
+     */
+    @Test
+    public void testCloneEditCursor() {
+        targetList.enableGapEditing();
+        
+        for (int i = 0; i < 30; i++) {
+            targetList.add(i);
+        }
+        
+        for (int i = 0; i < 40; i++) {
+            targetList.add(20, -i);
+        }
+        
+        LinkedArrayBlockList<Integer> copy = targetList.clone();
+        List<Integer> expected = new ArrayList<>(targetList);
+        copy.set(9, 1000);
+        expected.set(9, 1000);
+        
+        // Prepending shifts the cursor block without moving the cursor.
+        for (int i = 0; i < 100; i++) {
+            copy.addAllFirst(Collections.singletonList(-i));
+            expected.add(0, -i);
+            copy.set(9, i);
+            expected.set(9, i);
+        }
+        
+        assertEquals(expected, copy);
+    }
+    
+    /**
+     * Test of snapshot method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testSnapshot() {
+        for (int i = 0; i < 8; i++) {
+            targetList.add(i);
+        }
+        
+        List<Integer> snapshot = targetList.snapshot();
+        targetList.clear();
+        targetList.add(100);
+        
+        assertEquals(8, snapshot.size());
+        int expected = 0;
+        
+        for (Integer element : snapshot) {
+            assertEquals((Integer) expected++, element);
+        }
+        
+        try {
+            snapshot.add(1);
+            fail("The snapshot must not be modifiable.");
+        } catch (UnsupportedOperationException ex) {
+        
+        }
+    }
+    
+    /**
+     * Test of enableStatistics method, of class LinkedArrayBlockList. The 
+     * statistics are disabled by default; the enabled statistics are tested
+     * by {@link LinkedArrayBlockListStatisticsTest}.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testEnableStatistics() {
+        assertFalse(LinkedArrayBlockList.STATISTICS_ENABLED);
+        targetList.enableStatistics();
+    }
+    
+    /**
+     * Test of enableElementIndex method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testEnableElementIndex() {
+        for (int i = 0; i < 12; i++) {
+            targetList.add(i % 4);
+        }
+        
+        targetList.enableElementIndex();
+        targetList.add(null);
+        targetList.addAll(Arrays.asList(7, 8));
+        
+        assertTrue(targetList.contains(3));
+        assertTrue(targetList.contains(null));
+        assertTrue(targetList.containsAll(Arrays.asList(0, 7, 8, null)));
+        assertFalse(targetList.contains(9));
+        assertEquals(1, targetList.indexOf(1));
+        assertEquals(9, targetList.lastIndexOf(1));
+        assertEquals(12, targetList.indexOf(null));
+        assertEquals(12, targetList.lastIndexOf(null));
+        assertEquals(-1, targetList.indexOf(9));
+        
+        assertTrue(targetList.remove((Integer) 1));
+        assertTrue(targetList.remove((Integer) 1));
+        assertEquals(7, targetList.indexOf(1));
+        assertTrue(targetList.remove((Integer) 1));
+        assertFalse(targetList.contains(1));
+        assertFalse(targetList.remove((Integer) 1));
+        
+        LinkedArrayBlockList<Integer> tail = targetList.splitAt(6);
+        
+        assertFalse(targetList.contains(7));
+        assertTrue(tail.contains(7));
+        assertEquals(tail.size() - 2, tail.indexOf(7));
+        
+        targetList.appendAll(tail);
+        assertTrue(targetList.contains(8));
+        assertEquals(targetList.size() - 1, targetList.indexOf(8));
+        
+        targetList.clear();
+        assertFalse(targetList.contains(0));
+        
+        // Heavily duplicated elements spread over many blocks.
+        List<Integer> expected = new ArrayList<>();
+        Random random = new Random(29L);
+        
+        for (int i = 0; i < 5000; i++) {
+            Integer element = random.nextInt(3);
+            targetList.add(element);
+            expected.add(element);
+        }
+        
+        for (int i = 0; i < 1000; i++) {
+            Integer element = random.nextInt(4);
+            assertEquals(expected.indexOf(element), 
+                         targetList.indexOf(element));
+            assertEquals(expected.lastIndexOf(element), 
+                         targetList.lastIndexOf(element));
+            assertEquals(expected.remove(element), 
+                         targetList.remove(element));
+        }
+        
+        assertEquals(expected, new ArrayList<>(targetList));
+    }
+    
+    /**
+     * Test of count method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testCount() {
+        assertEquals(0, targetList.count(x -> true));
+        
+        for (int i = 0; i < 13; i++) {
+            targetList.add(i);
+        }
+        
+        // Make the tail block wrap around.
+        targetList.remove((Integer) 10);
+        targetList.add(13);
+        targetList.add(14);
+        targetList.add(15);
+        
+        assertEquals(7, targetList.count(x -> x % 2 == 0));
+        assertEquals(15, targetList.count(x -> true));
+        assertEquals(13, targetList.indexOf(14));
+        assertEquals(14, targetList.lastIndexOf(15));
+    }
+    
+    /**
+     * Test of sum method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testSum() {
+        assertEquals(0L, targetList.sum(x -> x));
+        
+        for (int i = 1; i <= 20; i++) {
+            targetList.add(i);
+        }
+        
+        targetList.remove((Integer) 1);
+        assertEquals(209L, targetList.sum(x -> x));
+    }
+    
+    /**
+     * Test of min and max methods, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testMinMax() {
+        for (int i = 0; i < 17; i++) {
+            targetList.add((i * 7) % 17);
+        }
+        
+        assertEquals((Integer) 0, targetList.min(Integer::compare));
+        assertEquals((Integer) 16, targetList.max(Integer::compare));
+        
+        targetList.clear();
+        
+        try {
+            targetList.min(Integer::compare);
+            fail("min() must throw on an empty list.");
+        } catch (NoSuchElementException ex) {
+        
+        }
+    }
+    
+    /**
+     * Test of load method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testLoad() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        
+        for (int i = 0; i < 30000; i++) {
+            sb.append(i).append('\n');
+        }
+        
+        sb.append(30000); // No trailing delimiter.
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.US_ASCII);
+        
+        for (boolean readAhead : new boolean[]{ false, true }) {
+            LinkedArrayBlockList<Integer> list = 
+                    LinkedArrayBlockList.load(
+                            Channels.newChannel(
+                                    new ByteArrayInputStream(bytes)),
+                            LinkedArrayBlockListTest::parseLines,
+                            7,
+                            readAhead);
+            
+            assertEquals(30001, list.size());
+            assertEquals(30001, list.count(x -> true));
+            assertEquals((Integer) 0, list.get(0));
+            assertEquals((Integer) 12345, list.get(12345));
+            assertEquals((Integer) 30000, list.get(30000));
+            
+            list.add(30001);
+            assertEquals((Integer) 30001, list.get(30001));
+        }
+        
+        LinkedArrayBlockList<Integer> emptyList = 
+                LinkedArrayBlockList.load(
+                        new ByteArrayInputStream(new byte[0]),
+                        LinkedArrayBlockListTest::parseLines);
+        
+        assertTrue(emptyList.isEmpty());
+    }
+    
+    /**
+     * Parses newline-delimited non-negative decimal integers.
+     */
+    private static int parseLines(ByteBuffer buffer,
+                                  Object[] target,
+                                  int offset,
+                                  int length,
+                                  boolean endOfInput) {
+        int records = 0;
+        
+        while (records < length && buffer.hasRemaining()) {
+            int position = buffer.position();
+            int value = 0;
+            boolean complete = false;
+            
+            while (buffer.hasRemaining()) {
+                byte b = buffer.get();
+                
+                if (b == '\n') {
+                    complete = true;
+                    break;
+                }
+                
+                value = 10 * value + (b - '0');
+            }
+            
+            if (!complete && !endOfInput) {
+                buffer.position(position);
+                break;
+            }
+            
+            target[offset + records++] = value;
+        }
+        
+        return records;
+    }
+    
+    /**
+     * Test of enableSpilling method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testEnableSpilling() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            targetList.add(i);
+        }
+        
+        Path file = Files.createTempFile("LinkedArrayBlockListTest", ".spill");
+        BlockCodec<Integer> codec = new BlockCodec<Integer>() {
+            @Override
+            public void encode(Integer element, DataOutput output) 
+                    throws IOException {
+                output.writeInt(element);
+            }
+            
+            @Override
+            public Integer decode(DataInput input) throws IOException {
+                return input.readInt();
+            }
+        };
+        
+        targetList.enableSpilling(file, codec, 3);
+        assertEquals(17, countEvictedBlocks(targetList));
+        
+        for (int i = 0; i < 100; i++) {
+            assertEquals((Integer) i, targetList.get(i));
+        }
+        
+        assertEquals(4950L, targetList.sum(x -> x));
+        assertTrue(countEvictedBlocks(targetList) >= 17);
+        
+        LinkedArrayBlockList<Integer> copy = targetList.clone();
+        
+        assertTrue(targetList.remove((Integer) 51));
+        assertEquals(50, targetList.indexOf(50));
+        assertEquals(51, targetList.indexOf(52));
+        
+        for (int i = 100; i < 200; i++) {
+            targetList.add(i);
+        }
+        
+        int expected = 0;
+        
+        for (Integer element : copy) {
+            assertEquals((Integer) expected++, element);
+        }
+        
+        assertEquals(100, expected);
+        
+        targetList.disableSpilling();
+        
+        assertEquals(0, countEvictedBlocks(targetList));
+        assertFalse(Files.exists(file));
+        assertEquals(199, targetList.size());
+        assertEquals((Integer) 199, targetList.get(198));
+    }
+    
+    /**
+     * Test of enableCompression method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testEnableCompression() {
+        for (int i = 0; i < 100; i++) {
+            targetList.add(i * 1000 - 50000);
+        }
+        
+        targetList.remove((Integer) (-45000)); // Move a block head index.
+        targetList.add(50000);
+        targetList.enableCompression(BlockCompressors.integers(), 0, 0L);
+        targetList.compressIdleBlocks();
+        targetList.compressIdleBlocks();
+        
+        assertEquals(19, countEvictedBlocks(targetList));
+        assertEquals(-44000, (int) targetList.get(5));
+        assertEquals(18, countEvictedBlocks(targetList));
+        
+        for (int i = 0, j = 0; i <= 100; i++) {
+            if (i != 5) {
+                assertEquals((Integer)(i * 1000 - 50000), targetList.get(j++));
+            }
+        }
+        
+        // Sweeps driven by modifications.
+        targetList.disableCompression();
+        assertEquals(0, countEvictedBlocks(targetList));
+        targetList.enableCompression(BlockCompressors.integers(), 10, 0L);
+        
+        for (int i = 0; i < 20; i++) {
+            targetList.add(i);
+        }
+        
+        assertTrue(countEvictedBlocks(targetList) > 0);
+        assertEquals(120, targetList.size());
+        assertEquals((Integer) 19, targetList.get(119));
+    }
+    
+    /**
+     * Test of the standard block compressors.
+     */
+    @Test
+    public void testBlockCompressors() {
+        Object[] longs = { 3L, Long.MIN_VALUE, Long.MAX_VALUE, -1L, 0L };
+        Object[] target = new Object[5];
+        BlockCompressor<Long> longCompressor = BlockCompressors.longs();
+        byte[] data = longCompressor.compress(longs, 2, 5);
+        longCompressor.decompress(data, target, 2, 5);
+        assertArrayEquals(longs, target);
+        
+        Object[] strings = { "foo", null, "bar", "foo", "\u00e4\u00f6" };
+        BlockCompressor<String> stringCompressor = BlockCompressors.strings();
+        target = new Object[5];
+        data = stringCompressor.compress(strings, 4, 5);
+        stringCompressor.decompress(data, target, 4, 5);
+        assertArrayEquals(strings, target);
+        
+        assertNull(BlockCompressors.integers()
+                                   .compress(new Object[]{ 1, null }, 0, 2));
+    }
+    
+    private static int countEvictedBlocks(LinkedArrayBlockList<?> list) {
+        int evicted = 0;
+        
+        for (LinkedArrayBlockList.Block<?> block = list.getHeadBlock();
+                block != null;
+                block = block.nextBlock) {
+            if (block.array == null) {
+                evicted++;
+            }
+        }
+        
+        return evicted;
+    }
+    
+    /**
+     * Test of addAll method taking an array range, of class 
+     * LinkedArrayBlockList.
+     */
+    @Test
+    public void testAddAll_ArrayRange() {
+        Integer[] array = new Integer[30];
+        
+        for (int i = 0; i < array.length; i++) {
+            array[i] = i;
+        }
+        
+        assertFalse(targetList.addAll(array, 3, 0));
+        targetList.add(-1);
+        targetList.add(-2);
+        targetList.remove((Integer) (-1)); // Move the head index.
+        assertTrue(targetList.addAll(array, 5, 20));
+        assertTrue(targetList.addAll(array));
+        
+        assertEquals(51, targetList.size());
+        assertEquals((Integer) (-2), targetList.get(0));
+        
+        for (int i = 0; i < 20; i++) {
+            assertEquals((Integer)(i + 5), targetList.get(i + 1));
+        }
+        
+        for (int i = 0; i < 30; i++) {
+            assertEquals((Integer) i, targetList.get(i + 21));
+        }
+        
+        try {
+            targetList.addAll(array, 25, 6);
+            fail("The range must be checked.");
+        } catch (IndexOutOfBoundsException ex) {
+        
+        }
+    }
+    
+    /**
+     * Test of drainTo method taking an array, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testDrainTo_Array() {
+        for (int i = 0; i < 23; i++) {
+            targetList.add(i);
+        }
+        
+        targetList.remove((Integer) 0);
+        Integer[] array = new Integer[8];
+        
+        assertEquals(8, targetList.drainTo(array));
+        assertArrayEquals(new Integer[]{ 1, 2, 3, 4, 5, 6, 7, 8 }, array);
+        assertEquals(14, targetList.size());
+        assertEquals((Integer) 9, targetList.get(0));
+        
+        array = new Integer[20];
+        assertEquals(14, targetList.drainTo(array));
+        assertEquals((Integer) 22, array[13]);
+        assertNull(array[14]);
+        assertTrue(targetList.isEmpty());
+        
+        targetList.add(100);
+        assertEquals((Integer) 100, targetList.get(0));
+        assertEquals(1, targetList.toArray().length);
+    }
+    
+    /**
+     * Test of forEachSegment method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testForEachSegment() {
+        for (int i = 0; i < 13; i++) {
+            targetList.add(i);
+        }
+        
+        // Make the tail block wrap around.
+        targetList.remove((Integer) 10);
+        targetList.add(13);
+        targetList.add(14);
+        targetList.add(15);
+        
+        List<Integer> visited = new ArrayList<>();
+        int[] segments = new int[1];
+        
+        targetList.forEachSegment((array, from, to) -> {
+            segments[0]++;
+            
+            for (int i = from; i < to; i++) {
+                visited.add((Integer) array[i]);
+            }
+        });
+        
+        assertEquals(4, segments[0]);
+        assertEquals(Arrays.asList(targetList.toArray()), visited);
+        
+        try {
+            targetList.forEachSegment((array, from, to) -> targetList.add(1));
+            fail("Modifications while visiting must be detected.");
+        } catch (ConcurrentModificationException ex) {
+        
+        }
+    }
+    
+    /**
+     * Test of enableSlidingWindow method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testEnableSlidingWindow() {
+        List<Integer> evicted = new ArrayList<>();
+        
+        targetList.enableSlidingWindow(12, (array, from, to) -> {
+            for (int i = from; i < to; i++) {
+                evicted.add((Integer) array[i]);
+            }
+        }, true);
+        
+        for (int i = 0; i < 30; i++) {
+            targetList.add(i);
+        }
+        
+        assertEquals(12, targetList.size());
+        
+        for (int i = 0; i < 12; i++) {
+            assertEquals(Integer.valueOf(18 + i), targetList.get(i));
+        }
+        
+        for (int i = 0; i < 18; i++) {
+            assertEquals(Integer.valueOf(i), evicted.get(i));
+        }
+        
+        assertEquals(18, evicted.size());
+        assertTrue(targetList.getBlocks() <= 4);
+        
+        targetList.addAll(Arrays.asList(30, 31, 32, 33, 34));
+        assertEquals(12, targetList.size());
+        assertEquals(Integer.valueOf(23), targetList.get(0));
+        assertEquals(Integer.valueOf(34), targetList.get(11));
+        assertEquals(23, evicted.size());
+        
+        targetList.enableSlidingWindow(3, null, false);
+        assertEquals(Arrays.asList(32, 33, 34), 
+                     Arrays.asList(targetList.toArray()));
+        
+        targetList.disableSlidingWindow();
+        targetList.add(35);
+        assertEquals(4, targetList.size());
+        
+        try {
+            targetList.enableSlidingWindow(0, null, false);
+            fail("A non-positive window size must be rejected.");
+        } catch (IllegalArgumentException ex) {
+        
+        }
+    }
+    
+    /**
+     * Test of publisher method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testPublisher() {
+        for (int i = 0; i < 12; i++) {
+            targetList.add(i);
+        }
+        
+        List<Integer> received = new ArrayList<>();
+        boolean[] completed = new boolean[1];
+        
+        targetList.publisher().subscribe(new BlockFlow.Subscriber<Integer>() {
+            
+            private BlockFlow.Subscription subscription;
+            
+            @Override
+            public void onSubscribe(BlockFlow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(2L);
+            }
+            
+            @Override
+            public void onNext(Integer item) {
+                received.add(item);
+                
+                if (received.size() % 2 == 0) {
+                    subscription.request(2L);
+                }
+            }
+            
+            @Override
+            public void onError(Throwable throwable) {
+                fail("No error expected.");
+            }
+            
+            @Override
+            public void onComplete() {
+                completed[0] = true;
+            }
+        });
+        
+        assertTrue(completed[0]);
+        assertEquals(Arrays.asList(targetList.toArray()), received);
+    }
+    
+    /**
+     * Test of batchPublisher method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testBatchPublisher() throws Exception {
+        for (int i = 0; i < 23; i++) {
+            targetList.add(i);
+        }
+        
+        LinkedArrayBlockList<Integer> copy = new LinkedArrayBlockList<>(5);
+        BlockFlow.BlockSubscriber<Integer> subscriber = copy.subscriber(2);
+        int[] batches = new int[1];
+        
+        targetList.batchPublisher().subscribe(
+                new BlockFlow.Subscriber<List<Integer>>() {
+            
+            @Override
+            public void onSubscribe(BlockFlow.Subscription subscription) {
+                subscriber.onSubscribe(subscription);
+            }
+            
+            @Override
+            public void onNext(List<Integer> item) {
+                batches[0]++;
+                subscriber.onNext(item);
+            }
+            
+            @Override
+            public void onError(Throwable throwable) {
+                subscriber.onError(throwable);
+            }
+            
+            @Override
+            public void onComplete() {
+                subscriber.onComplete();
+            }
+        });
+        
+        assertSame(copy, subscriber.completion().get());
+        assertEquals(targetList.getBlocks(), batches[0]);
+        assertEquals(Arrays.asList(targetList.toArray()), 
+                     Arrays.asList(copy.toArray()));
+        
+        List<Throwable> errors = new ArrayList<>();
+        
+        targetList.batchPublisher().subscribe(
+                new BlockFlow.Subscriber<List<Integer>>() {
+            
+            @Override
+            public void onSubscribe(BlockFlow.Subscription subscription) {
+                targetList.add(100);
+                subscription.request(1L);
+            }
+            
+            @Override
+            public void onNext(List<Integer> item) {
+                fail("No items expected.");
+            }
+            
+            @Override
+            public void onError(Throwable throwable) {
+                errors.add(throwable);
+            }
+            
+            @Override
+            public void onComplete() {
+                fail("No completion expected.");
+            }
+        });
+        
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0) instanceof ConcurrentModificationException);
+    }
+    
+    /**
+     * Test of estimateFootprint method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testEstimateFootprint() {
+        for (int i = 0; i < 12; i++) {
+            targetList.add(i);
+        }
+        
+        int referenceSize = LinkedArrayBlockListFootprint.REFERENCE_SIZE;
+        LinkedArrayBlockListFootprint footprint = 
+                targetList.estimateFootprint();
+        
+        assertEquals(3, footprint.getBlocks());
+        assertEquals(6 * referenceSize, footprint.getChainPointerBytes());
+        assertEquals(12 * referenceSize, footprint.getLiveSlotBytes());
+        assertTrue(footprint.getEmptySlotBytes() >= 3 * referenceSize);
+        assertTrue(footprint.getHeaderBytes() > 0);
+        assertEquals(0, footprint.getCompressedBytes());
+        assertEquals(-1, footprint.getElementBytes());
+        assertEquals(footprint.getHeaderBytes() + 
+                     footprint.getChainPointerBytes() + 
+                     footprint.getLiveSlotBytes() + 
+                     footprint.getEmptySlotBytes(),
+                     footprint.getTotalBytes());
+        assertTrue(footprint.getSlotUtilization() <= 0.8);
+        
+        footprint = targetList.estimateFootprint((e) -> 16L, 4);
+        assertEquals(12 * 16, footprint.getElementBytes());
+        
+        footprint = targetList.estimateFootprint((e) -> e, 100);
+        assertEquals(66, footprint.getElementBytes());
+        
+        int headerSize = LinkedArrayBlockListFootprint.OBJECT_HEADER_SIZE;
+        assertEquals((headerSize + 4 + 8 + 1 + referenceSize + 7) & ~7,
+                     LinkedArrayBlockListFootprint.instanceSize(
+                             FootprintProbe.class));
+        assertEquals(LinkedArrayBlockListFootprint.LIST_SIZE,
+                     new LinkedArrayBlockList<>().estimateFootprint()
+                                                 .getHeaderBytes());
+        // 5 ints, a long, 3 booleans and 5 references.
+        assertEquals((headerSize + 5 * 4 + 8 + 3 + 
+                      5 * referenceSize + 7) & ~7,
+                     LinkedArrayBlockListFootprint.BLOCK_SIZE);
+    }
+    
+    /**
+     * A class of known instance fields for testing the footprint estimator.
+     */
+    private static final class FootprintProbe {
+        int intField;
+        long longField;
+        boolean booleanField;
+        Object referenceField;
+    }
+    
+    /**
+     * Test of the lazily allocated, growing head block.
+     */
+    @Test
+    public void testGrowingHeadBlock() {
+        LinkedArrayBlockList<Integer> list = new LinkedArrayBlockList<>();
+        
+        assertEquals(0, list.getBlocks());
+        assertNull(list.getHeadBlock());
+        
+        list.add(0);
+        assertEquals(1, list.getBlocks());
+        assertEquals(4, list.getHeadBlock().capacity);
+        
+        for (int i = 1; i < 10; i++) {
+            list.add(i);
+        }
+        
+        assertEquals(1, list.getBlocks());
+        assertEquals(16, list.getHeadBlock().capacity);
+        
+        list.addAll(new Integer[150]);
+        assertEquals(2, list.getBlocks());
+        assertEquals(100, list.getHeadBlock().capacity);
+        assertEquals(160, list.size());
+        
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.valueOf(i), list.get(i));
+        }
+        
+        list.clear();
+        list.addAll(new Integer[7]);
+        assertEquals(7, list.getHeadBlock().capacity);
+    }
+    
+    /**
+     * Test of pollFirst method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testPollFirstBatch() {
+        for (int i = 0; i < 13; i++) {
+            targetList.add(i);
+        }
+        
+        List<Integer> polled = new ArrayList<>();
+        
+        assertEquals(7, targetList.pollFirst(7, polled::add));
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6), polled);
+        assertEquals(6, targetList.size());
+        assertEquals(2, targetList.getBlocks());
+        assertEquals(Integer.valueOf(7), targetList.get(0));
+        
+        assertEquals(6, targetList.pollFirst(100, polled::add));
+        assertEquals(13, polled.size());
+        assertTrue(targetList.isEmpty());
+        assertEquals(0, targetList.pollFirst(1, polled::add));
+        
+        try {
+            targetList.pollFirst(-1, polled::add);
+            fail("A negative maximum must be rejected.");
+        } catch (IllegalArgumentException ex) {
+        
+        }
+    }
+    
+    /**
+     * Test of drainTo method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testDrainToCollection() {
+        for (int i = 0; i < 13; i++) {
+            targetList.add(i);
+        }
+        
+        LinkedArrayBlockList<Integer> target = new LinkedArrayBlockList<>(5);
+        target.add(-1);
+        LinkedArrayBlockList.Block<Integer> secondBlock = 
+                targetList.getHeadBlock().nextBlock;
+        
+        assertEquals(12, targetList.drainTo(target, 12));
+        assertEquals(1, targetList.size());
+        assertEquals(Integer.valueOf(12), targetList.get(0));
+        assertEquals(13, target.size());
+        assertSame(secondBlock, target.getHeadBlock().nextBlock.nextBlock);
+        
+        for (int i = 0; i < 13; i++) {
+            assertEquals(Integer.valueOf(i - 1), target.get(i));
+        }
+        
+        List<Integer> list = new ArrayList<>();
+        assertEquals(5, target.drainTo(list, 5));
+        assertEquals(Arrays.asList(-1, 0, 1, 2, 3), list);
+        assertEquals(8, target.size());
+        
+        try {
+            target.drainTo(target, 1);
+            fail("Draining a list to itself must be rejected.");
+        } catch (IllegalArgumentException ex) {
+        
+        }
+    }
+    
+    /**
+     * Test of drainBlocks method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testDrainBlocks() {
+        for (int i = 0; i < 13; i++) {
+            targetList.add(i);
+        }
+        
+        LinkedArrayBlockList<Integer> drained = targetList.drainBlocks(2);
+        
+        assertEquals(2, drained.getBlocks());
+        assertEquals(10, drained.size());
+        assertEquals(1, targetList.getBlocks());
+        assertEquals(3, targetList.size());
+        assertEquals(Integer.valueOf(10), targetList.get(0));
+        assertEquals(Integer.valueOf(9), drained.get(9));
+        
+        drained.add(100);
+        assertEquals(Integer.valueOf(100), drained.get(10));
+        assertEquals(3, targetList.drainBlocks(5).size());
+        assertTrue(targetList.isEmpty());
+        assertTrue(targetList.drainBlocks(5).isEmpty());
+    }
+    
+    /**
+     * Test of addAllFirst method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testAddAllFirst() {
+        assertFalse(targetList.addAllFirst(new ArrayList<>()));
+        assertTrue(targetList.addAllFirst(Arrays.asList(10, 11)));
+        
+        List<Integer> prefix = new ArrayList<>();
+        
+        for (int i = 0; i < 10; i++) {
+            prefix.add(i);
+        }
+        
+        assertTrue(targetList.addAllFirst(prefix));
+        assertEquals(12, targetList.size());
+        assertEquals(3, targetList.getBlocks());
+        
+        for (int i = 0; i < 12; i++) {
+            assertEquals(Integer.valueOf(i), targetList.get(i));
+        }
+        
+        targetList.add(12);
+        assertEquals(Integer.valueOf(12), targetList.get(12));
+        assertEquals(13, targetList.pollFirst(13, (e) -> {}));
+    }
+    
+    /**
+     * Test of equals method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testEquals() {
+        List<Integer> expected = new ArrayList<>();
+        
+        for (int i = 0; i < 13; i++) {
+            targetList.add(i);
+            expected.add(i);
+        }
+        
+        assertTrue(targetList.equals(targetList));
+        assertTrue(targetList.equals(expected));
+        assertTrue(expected.equals(targetList));
+        assertTrue(targetList.equals(targetList.clone()));
+        assertFalse(targetList.equals(null));
+        assertFalse(targetList.equals(new HashSet<>(expected)));
+        
+        // Different block layouts with equal contents.
+        LinkedArrayBlockList<Integer> other = new LinkedArrayBlockList<>(7);
+        other.addAll(expected);
+        assertTrue(targetList.equals(other));
+        assertTrue(other.equals(targetList));
+        
+        other.pollFirst(1, (e) -> {});
+        other.addAllFirst(Arrays.asList(0));
+        assertTrue(targetList.equals(other));
+        
+        other.add(13);
+        assertFalse(targetList.equals(other));
+        
+        expected.set(12, null);
+        assertFalse(targetList.equals(expected));
+    }
+    
+    /**
+     * Test of hashCode method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testHashCode() {
+        List<Integer> expected = new ArrayList<>();
+        
+        for (int i = 0; i < 13; i++) {
+            targetList.add(i);
+            expected.add(i);
+        }
+        
+        targetList.add(null);
+        expected.add(null);
+        assertEquals(expected.hashCode(), targetList.hashCode());
+        
+        targetList.enableHashCodeCaching();
+        assertEquals(expected.hashCode(), targetList.hashCode());
+        
+        targetList.add(100);
+        targetList.addAll(new Integer[]{ 101, 102 });
+        expected.addAll(Arrays.asList(100, 101, 102));
+        assertEquals(expected.hashCode(), targetList.hashCode());
+        
+        targetList.pollFirst(3, (e) -> {});
+        expected.subList(0, 3).clear();
+        assertEquals(expected.hashCode(), targetList.hashCode());
+        
+        targetList.disableHashCodeCaching();
+        assertEquals(expected.hashCode(), targetList.hashCode());
+    }
+    
+    /**
+     * Test of enableGapEditing method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testEnableGapEditing() {
+        List<Integer> expected = new ArrayList<>();
+        
+        targetList.enableGapEditing();
+        
+        for (int i = 0; i < 100; i++) {
+            targetList.add(i);
+            expected.add(i);
+        }
+        
+        targetList.add(52, -1);
+        expected.add(52, -1);
+        
+        for (int i = 0; i < 20; i++) {
+            targetList.add(53 + i, -2 - i);
+            expected.add(53 + i, -2 - i);
+        }
+        
+        // Backspace and delete around the cursor.
+        for (int i = 0; i < 5; i++) {
+            assertEquals(expected.remove(72 - i), targetList.remove(72 - i));
+        }
+        
+        for (int i = 0; i < 5; i++) {
+            assertEquals(expected.remove(68), targetList.remove(68));
+        }
+        
+        assertEquals(expected, targetList);
+        
+        Random random = new Random(19L);
+        int position = 10;
+        
+        for (int i = 0; i < 2000; i++) {
+            if (random.nextInt(20) == 0) {
+                position = random.nextInt(expected.size() + 1);
+            }
+            
+            if (random.nextBoolean() && position < expected.size()) {
+                assertEquals(expected.remove(position), 
+                             targetList.remove(position));
+            } else {
+                targetList.add(position, i);
+                expected.add(position, i);
+                position++;
+            }
+        }
+        
+        assertEquals(expected, targetList);
+        assertTrue(targetList.getBlocks() <= expected.size());
+        
+        targetList.disableGapEditing();
+        targetList.add(0, 1000);
+        expected.add(0, 1000);
+        assertEquals(expected, targetList);
+    }
+    
+    /**
+     * Tests that the gap left by a full block split does not survive the 
+     * blocks leaving the chain.
+     */
+    @Test
+    public void testGapDoesNotSurviveClear() {
+        for (boolean useArena : new boolean[]{ false, true }) {
+            LinkedArrayBlockList<Integer> list = new LinkedArrayBlockList<>(4);
+            
+            if (useArena) {
+                list.useArena(new BlockArena(100));
+            }
+            
+            for (int i = 0; i < 4; i++) {
+                list.add(i);
+            }
+            
+            list.add(2, 9);
+            list.remove(0);
+            list.clear();
+            
+            for (int i = 10; i < 14; i++) {
+                list.add(i);
+            }
+            
+            list.add(0, 5);
+            list.add(3, 8);
+            list.add(99);
+            
+            assertEquals(Arrays.asList(5, 10, 11, 8, 12, 13, 99), 
+                         new ArrayList<>(list));
+            assertEquals(countBlocks(list), list.getBlocks());
+            assertEquals(Integer.valueOf(11),
+                         list.select(3, Comparator.naturalOrder()));
+        }
+    }
+    
+    /**
+     * Tests that the repeated insertions at the same position fill the free
+     * slots of the blocks instead of allocating a block per insertion.
+     */
+    @Test
+    public void testGapEditingRepeatedInsertions() {
+        for (boolean gapEditing : new boolean[]{ false, true }) {
+            for (int position : new int[]{ 0, 500, 550 }) {
+                LinkedArrayBlockList<Integer> list = 
+                        new LinkedArrayBlockList<>(100);
+                List<Integer> expected = new ArrayList<>();
+                
+                if (gapEditing) {
+                    list.enableGapEditing();
+                }
+                
+                for (int i = 0; i < 1000; i++) {
+                    list.add(i);
+                    expected.add(i);
+                }
+                
+                for (int i = 0; i < 10_000; i++) {
+                    list.add(position, -i);
+                    expected.add(position, -i);
+                }
+                
+                assertEquals(expected, new ArrayList<>(list));
+                assertEquals(countBlocks(list), list.getBlocks());
+                assertTrue(list.getBlocks() <= 115);
+            }
+        }
+    }
+    
+    private static int countBlocks(LinkedArrayBlockList<?> list) {
+        int blocks = 0;
+        
+        for (LinkedArrayBlockList.Block<?> block = list.getHeadBlock();
+                block != null;
+                block = block.nextBlock) {
+            blocks++;
+        }
+        
+        return blocks;
+    }
+    
+    /**
+     * Test of collector method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testCollector() {
+        List<Integer> expected = new ArrayList<>();
+        
+        for (int i = 0; i < 100_000; i++) {
+            expected.add(i);
+        }
+        
+        LinkedArrayBlockList<Integer> sequential = 
+                expected.stream().collect(LinkedArrayBlockList.collector(10));
+        LinkedArrayBlockList<Integer> parallel = 
+                expected.parallelStream()
+                        .collect(LinkedArrayBlockList.collector(10));
+        
+        assertEquals(expected, sequential);
+        assertEquals(expected, parallel);
+        assertEquals(10_000, sequential.getBlocks());
+        assertEquals(10, parallel.getBlockCapacity());
+        
+        LinkedArrayBlockList<Integer> empty = 
+                Stream.<Integer>empty()
+                      .collect(LinkedArrayBlockList.collector());
+        assertTrue(empty.isEmpty());
+    }
+    
+    /**
+     * Test of useArena method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testUseArena() {
+        // The slabs hold two regions of capacity 4 or 5.
+        BlockArena arena = new BlockArena(10);
+        LinkedArrayBlockList<Integer> otherList = new LinkedArrayBlockList<>(5);
+        
+        targetList.useArena(arena);
+        otherList.useArena(arena);
+        
+        for (int i = 0; i < 12; i++) {
+            targetList.add(i);
+        }
+        
+        // The initial head block region of capacity 4 was returned on growth.
+        // Wildcards, since the slabs are not Integer arrays.
+        LinkedArrayBlockList.Block<?> headBlock = targetList.getHeadBlock();
+        LinkedArrayBlockList.Block<?> secondBlock = headBlock.nextBlock;
+        assertSame(headBlock.array, secondBlock.array);
+        assertEquals(0, headBlock.offset);
+        assertEquals(5, secondBlock.offset);
+        assertEquals(10, headBlock.array.length);
+        assertNotSame(headBlock.array, secondBlock.nextBlock.array);
+        assertEquals(3, arena.getSlabs());
+        assertEquals(1, arena.getFreeRegions());
+        
+        // The blocks of a slab count no array headers of their own.
+        LinkedArrayBlockList<Integer> plainList = 
+                new LinkedArrayBlockList<>(5);
+        plainList.addAll(targetList);
+        assertEquals(
+                plainList.estimateFootprint().getHeaderBytes() - 
+                        3 * LinkedArrayBlockListFootprint.ARRAY_HEADER_SIZE,
+                targetList.estimateFootprint().getHeaderBytes());
+        
+        // The slab emptied first is dropped, the other one is kept.
+        targetList.clear();
+        assertEquals(2, arena.getSlabs());
+        assertEquals(2, arena.getFreeRegions());
+        
+        for (int i = 0; i < 12; i++) {
+            otherList.add(i);
+        }
+        
+        assertEquals(2, arena.getReuses());
+        assertEquals(1, arena.getFreeRegions());
+        assertEquals(3, arena.getSlabs());
+        
+        for (int i = 0; i < 12; i++) {
+            assertEquals(Integer.valueOf(i), otherList.get(i));
+        }
+        
+        LinkedArrayBlockList<Integer> copy = otherList.clone();
+        otherList.clear();
+        
+        // Shared regions must not be reused.
+        assertEquals(1, arena.getFreeRegions());
+        assertEquals(12, copy.size());
+        
+        for (int i = 0; i < 12; i++) {
+            assertEquals(Integer.valueOf(i), copy.get(i));
+        }
+        
+        otherList.add(1);
+        assertEquals(0, arena.getFreeRegions());
+        otherList.remove(0);
+        assertEquals(1, arena.getFreeRegions());
+        assertEquals(3, arena.getReuses());
+        
+        // The regions of the blocks moved to another list stay in use.
+        for (int i = 0; i < 12; i++) {
+            otherList.add(i);
+        }
+        
+        LinkedArrayBlockList<Integer> target = new LinkedArrayBlockList<>(5);
+        int freeRegions = arena.getFreeRegions();
+        target.appendAll(otherList);
+        assertEquals(freeRegions, arena.getFreeRegions());
+        
+        for (int i = 0; i < 12; i++) {
+            assertEquals(Integer.valueOf(i), target.get(i));
+        }
+        
+        // Writes to a region leave the neighbouring regions intact.
+        target.add(0, -1);
+        target.set(11, -2);
+        
+        for (int i = 0; i < 13; i++) {
+            int expected = i == 0 ? -1 : i == 11 ? -2 : i - 1;
+            assertEquals(Integer.valueOf(expected), target.get(i));
+        }
+    }
+    
+    /**
+     * Test of fill method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testFill() {
+        List<Integer> expected = new ArrayList<>();
+        
+        for (int i = 0; i < 23; i++) {
+            targetList.add(i);
+            expected.add(i);
+        }
+        
+        // Make the head block wrap around its storage array.
+        targetList.pollFirst(3, (e) -> {});
+        targetList.addAllFirst(Arrays.asList(0, 1, 2));
+        
+        targetList.fill(2, 19, -1);
+        Collections.fill(expected.subList(2, 19), -1);
+        assertEquals(expected, targetList);
+        
+        targetList.fill(5, 5, 100);
+        assertEquals(expected, targetList);
+        
+        try {
+            targetList.fill(3, 24, 0);
+            fail("A range past the end must be rejected.");
+        } catch (IndexOutOfBoundsException ex) {
+        
+        }
+    }
+    
+    /**
+     * Test of setRange method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testSetRange() {
+        List<Integer> expected = new ArrayList<>();
+        
+        for (int i = 0; i < 23; i++) {
+            targetList.add(i);
+            expected.add(i);
+        }
+        
+        Integer[] source = new Integer[20];
+        
+        for (int i = 0; i < source.length; i++) {
+            source[i] = 100 + i;
+        }
+        
+        targetList.setRange(4, source, 3, 14);
+        
+        for (int i = 0; i < 14; i++) {
+            expected.set(4 + i, source[3 + i]);
+        }
+        
+        assertEquals(expected, targetList);
+        
+        try {
+            targetList.setRange(10, source, 0, 14);
+            fail("A range past the end must be rejected.");
+        } catch (IndexOutOfBoundsException ex) {
+        
+        }
+    }
+    
+    /**
+     * Test of copyRange method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testCopyRange() {
+        List<Integer> expected = new ArrayList<>();
+        LinkedArrayBlockList<Integer> source = new LinkedArrayBlockList<>(7);
+        
+        for (int i = 0; i < 23; i++) {
+            targetList.add(i);
+            expected.add(i);
+            source.add(100 + i);
+        }
+        
+        targetList.copyRange(source, 2, 5, 15);
+        
+        for (int i = 0; i < 15; i++) {
+            expected.set(5 + i, source.get(2 + i));
+        }
+        
+        assertEquals(expected, targetList);
+        
+        // Overlapping ranges within the same list.
+        targetList.copyRange(targetList, 0, 3, 18);
+        List<Integer> copy = new ArrayList<>(expected.subList(0, 18));
+        
+        for (int i = 0; i < 18; i++) {
+            expected.set(3 + i, copy.get(i));
+        }
+        
+        assertEquals(expected, targetList);
+        
+        // Copy-on-write sharing must not leak writes into the clone.
+        LinkedArrayBlockList<Integer> clone = targetList.clone();
+        targetList.copyRange(source, 0, 0, 23);
+        assertEquals(expected, clone);
+        assertEquals(source, targetList);
+    }
+    
+    /**
+     * Test of enableChangeLog method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testEnableChangeLog() throws IOException {
+        Path file = Files.createTempFile("LinkedArrayBlockListTest", ".log");
+        BlockCodec<Integer> codec = new BlockCodec<Integer>() {
+            @Override
+            public void encode(Integer element, DataOutput output) 
+                    throws IOException {
+                output.writeInt(element);
+            }
+            
+            @Override
+            public Integer decode(DataInput input) throws IOException {
+                return input.readInt();
+            }
+        };
+        
+        for (int i = 0; i < 10; i++) {
+            targetList.add(i);
+        }
+        
+        targetList.enableChangeLog(file, codec, 1000);
+        
+        for (int i = 10; i < 30; i++) {
+            targetList.add(i);
+        }
+        
+        targetList.add(3, -3);
+        targetList.remove(7);
+        targetList.remove((Integer) 20);
+        targetList.set(5, -5);
+        targetList.fill(10, 13, -10);
+        targetList.setRange(0, new Integer[]{ 100, 101 }, 0, 2);
+        targetList.addAllFirst(Arrays.asList(-1, -2));
+        targetList.pollFirst(3, (e) -> {});
+        targetList.splitAt(25);
+        targetList.syncChangeLog();
+        List<Integer> synced = new ArrayList<>(targetList);
+        
+        // The records after the last sync are lost in a crash.
+        targetList.add(1000);
+        assertEquals(synced, LinkedArrayBlockList.recover(file, codec, 5));
+        
+        targetList.addAll(Arrays.asList(40, 41, 42));
+        targetList.drainTo(new Integer[2]);
+        targetList.syncChangeLog();
+        
+        assertEquals(targetList, LinkedArrayBlockList.recover(file, codec, 5));
+        
+        // A torn record at the end of the log is ignored.
+        targetList.add(50);
+        targetList.syncChangeLog();
+        List<Integer> beforeTornRecord = new ArrayList<>(targetList);
+        targetList.add(51);
+        targetList.syncChangeLog();
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 2));
+        
+        assertEquals(beforeTornRecord, 
+                     LinkedArrayBlockList.recover(file, codec, 7));
+        
+        targetList.checkpoint();
+        long checkpointLength = Files.size(file);
+        targetList.clear();
+        targetList.add(60);
+        targetList.disableChangeLog();
+        
+        assertTrue(Files.size(file) > checkpointLength);
+        assertEquals(new ArrayList<>(Arrays.asList(60)), 
+                     LinkedArrayBlockList.recover(file, codec, 5));
+        
+        Files.delete(file);
+    }
+    
+    /**
+     * Tests that a checkpoint survives a change log committing every record.
+     */
+    @Test
+    public void testChangeLogCheckpointWithoutGrouping() throws IOException {
+        Path file = Files.createTempFile("LinkedArrayBlockListTest", ".log");
+        BlockCodec<Integer> codec = new BlockCodec<Integer>() {
+            @Override
+            public void encode(Integer element, DataOutput output)
+                    throws IOException {
+                output.writeInt(element);
+            }
+            
+            @Override
+            public Integer decode(DataInput input) throws IOException {
+                return input.readInt();
+            }
+        };
+        
+        for (int i = 0; i < 11; i++) {
+            targetList.add(i);
+        }
+        
+        targetList.enableChangeLog(file, codec, 1);
+        assertEquals(targetList, LinkedArrayBlockList.recover(file, codec, 5));
+        
+        targetList.add(11);
+        targetList.checkpoint();
+        assertTrue(Files.size(file) > 0L);
+        assertEquals(targetList, LinkedArrayBlockList.recover(file, codec, 5));
+        
+        targetList.remove(3);
+        assertEquals(targetList, LinkedArrayBlockList.recover(file, codec, 5));
+        
+        targetList.disableChangeLog();
+        Files.delete(file);
+    }
+    
+    /**
+     * Tests that the change log records only the elements actually removed
+     * when an eviction listener fails partway.
+     */
+    @Test
+    public void testChangeLogFailingEvictionListener() throws IOException {
+        Path file = Files.createTempFile("LinkedArrayBlockListTest", ".log");
+        BlockCodec<Integer> codec = new BlockCodec<Integer>() {
+            @Override
+            public void encode(Integer element, DataOutput output)
+                    throws IOException {
+                output.writeInt(element);
+            }
+            
+            @Override
+            public Integer decode(DataInput input) throws IOException {
+                return input.readInt();
+            }
+        };
+        
+        for (int i = 0; i < 20; i++) {
+            targetList.add(i);
+        }
+        
+        targetList.enableChangeLog(file, codec, 1);
+        
+        try {
+            targetList.enableSlidingWindow(3, (array, from, to) -> {
+                if ((Integer) array[from] >= 10) {
+                    throw new IllegalStateException();
+                }
+            }, false);
+            fail("The eviction listener did not throw.");
+        } catch (IllegalStateException ex) {
+        }
+        
+        assertEquals(10, targetList.size());
+        assertEquals(targetList, LinkedArrayBlockList.recover(file, codec, 5));
+        
+        targetList.disableSlidingWindow();
+        targetList.disableChangeLog();
+        Files.delete(file);
+    }
+    
+    /**
+     * Test of select method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testSelect() {
+        Random random = new Random(13L);
+        LinkedArrayBlockList<Integer> list = new LinkedArrayBlockList<>(64);
+        
+        for (int i = 0; i < 300000; i++) {
+            list.add(random.nextInt(1000000));
+        }
+        
+        list.remove(1000); // Move a block head index.
+        List<Integer> sorted = new ArrayList<>(list);
+        Collections.sort(sorted);
+        List<Integer> before = new ArrayList<>(list);
+        
+        for (int k : new int[]{ 0, 1, 4567, 149999, 299000, 299998 }) {
+            assertEquals(sorted.get(k), 
+                         list.select(k, Comparator.naturalOrder()));
+        }
+        
+        assertEquals(before, new ArrayList<>(list));
+        
+        // Heavy duplicates.
+        LinkedArrayBlockList<Integer> duplicates = 
+                new LinkedArrayBlockList<>(10);
+        
+        for (int i = 0; i < 100000; i++) {
+            duplicates.add(random.nextInt(3));
+        }
+        
+        sorted = new ArrayList<>(duplicates);
+        Collections.sort(sorted);
+        
+        for (int k : new int[]{ 0, 33000, 50000, 99999 }) {
+            assertEquals(sorted.get(k), 
+                         duplicates.select(k, Comparator.naturalOrder()));
+        }
+        
+        for (int i = 0; i < 7; i++) {
+            targetList.add(i);
+        }
+        
+        assertEquals((Integer) 6, 
+                     targetList.select(0, Comparator.reverseOrder()));
+        
+        try {
+            list.select(list.size(), Comparator.naturalOrder());
+            fail("An out-of-range rank must be rejected.");
+        } catch (IndexOutOfBoundsException ex) {
+        
+        }
+    }
+    
+    /**
+     * Test of topK method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testTopK() {
+        Random random = new Random(17L);
+        LinkedArrayBlockList<Integer> list = new LinkedArrayBlockList<>(50);
+        
+        for (int i = 0; i < 100000; i++) {
+            list.add(random.nextInt(5000));
+        }
+        
+        List<Integer> sorted = new ArrayList<>(list);
+        sorted.sort(Comparator.reverseOrder());
+        
+        assertEquals(sorted.subList(0, 100), 
+                     list.topK(100, Comparator.naturalOrder()));
+        assertEquals(sorted.subList(0, 1), 
+                     list.topK(1, Comparator.naturalOrder()));
+        assertTrue(list.topK(0, Comparator.naturalOrder()).isEmpty());
+        
+        for (int i = 0; i < 5; i++) {
+            targetList.add(i % 2);
+        }
+        
+        assertEquals(Arrays.asList(1, 1, 0), 
+                     targetList.topK(3, Comparator.naturalOrder()));
+        assertEquals(Arrays.asList(0, 0, 0, 1, 1), 
+                     targetList.topK(10, Comparator.reverseOrder()));
+    }
+    
+    /**
+     * Test of percentiles method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testPercentiles() {
+        for (int i = 1; i <= 200000; i++) {
+            targetList.add(200001 - i);
+        }
+        
+        assertEquals(Arrays.asList(1, 50000, 100000, 150000, 200000), 
+                     targetList.percentiles(0.0, 25.0, 50.0, 75.0, 100.0));
+        assertEquals(Arrays.asList(200000, 50001), 
+                     targetList.percentiles(Comparator.reverseOrder(), 
+                                            0.0, 75.0));
+        
+        try {
+            targetList.percentiles(101.0);
+            fail("An out-of-range percentile must be rejected.");
+        } catch (IllegalArgumentException ex) {
+        
+        }
+        
+        targetList.clear();
+        
+        try {
+            targetList.percentiles(50.0);
+            fail("An empty list has no percentiles.");
+        } catch (NoSuchElementException ex) {
+        
+        }
+    }
+    
+    /**
+     * Test of enableConcurrentReads method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testEnableConcurrentReads() throws InterruptedException {
+        LinkedArrayBlockList<Integer> list = new LinkedArrayBlockList<>(16);
+        LinkedArrayBlockListReader<Integer> reader = 
+                list.enableConcurrentReads();
+        list.enableSlidingWindow(1000, null, true);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] readers = new Thread[3];
+        
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = new Thread(() -> {
+                try {
+                    while (!done.get()) {
+                        Object[] array = reader.toArray();
+                        
+                        // The window always holds consecutive integers.
+                        for (int i = 1; i < array.length; i++) {
+                            if ((Integer) array[i] != 
+                                    (Integer) array[i - 1] + 1) {
+                                throw new AssertionError(
+                                        "Inconsistent read: " + 
+                                        Arrays.toString(array));
+                            }
+                        }
+                        
+                        if (array.length > 0) {
+                            Integer first = reader.get(0);
+                            assertTrue(first >= (Integer) array[0]);
+                        }
+                    }
+                } catch (Throwable ex) {
+                    failure.compareAndSet(null, ex);
+                }
+            });
+            
+            readers[t].start();
+        }
+        
+        Integer[] batch = new Integer[7];
+        int next = 0;
+        
+        while (next < 200000) {
+            if (next % 3 == 0) {
+                for (int i = 0; i < batch.length; i++) {
+                    batch[i] = next++;
+                }
+                
+                list.addAll(batch);
+            } else {
+                list.add(next++);
+            }
+            
+            if (next % 1000 == 0) {
+                // A structural change that keeps the contents.
+                list.set(500, list.get(500));
+            }
+        }
+        
+        done.set(true);
+        
+        for (Thread thread : readers) {
+            thread.join();
+        }
+        
+        assertNull(failure.get());
+        assertEquals(1000, reader.size());
+        assertEquals((Integer) (next - 1000), reader.get(0));
+        assertEquals(Arrays.asList(next - 2, next - 1), 
+                     Arrays.asList(reader.toArray(998, 1000)));
+        
+        try {
+            reader.get(1000);
+            fail("An out-of-range index must be rejected.");
+        } catch (IndexOutOfBoundsException ex) {
+        
+        }
+        
+        list.disableConcurrentReads();
+        
+        try {
+            reader.toArray();
+            fail("A disabled reader must not read.");
+        } catch (IllegalStateException ex) {
+        
+        }
+        
+        // Disabling from within a modification releases its write lock.
+        LinkedArrayBlockList<Integer> windowList = 
+                new LinkedArrayBlockList<>(4);
+        AtomicBoolean disable = new AtomicBoolean(true);
+        windowList.enableSlidingWindow(4, (array, from, to) -> {
+            if (disable.getAndSet(false)) {
+                windowList.disableConcurrentReads();
+            }
+        }, false);
+        LinkedArrayBlockListReader<Integer> windowReader = 
+                windowList.enableConcurrentReads();
+        
+        for (int i = 0; i < 6; i++) {
+            windowList.add(i);
+        }
+        
+        try {
+            windowReader.get(0);
+            fail("A disabled reader must not read.");
+        } catch (IllegalStateException ex) {
+        
+        }
+        
+        windowReader = windowList.enableConcurrentReads();
+        windowList.add(6);
+        assertEquals((Integer) 3, windowReader.get(0));
+        assertEquals(4, windowReader.toArray().length);
+    }
+    
+    /**
+     * Tests that a structural modification near the tail does not block or 
+     * invalidate the concurrent reads of the head, even while in progress.
+     */
+    @Test
+    public void testConcurrentReadsOfUntouchedBlocks() {
+        LinkedArrayBlockList<Object> list = new LinkedArrayBlockList<>(16);
+        
+        for (int i = 0; i < 100; i++) {
+            list.add(i);
+        }
+        
+        list.enableElementIndex();
+        LinkedArrayBlockListReader<Object> reader = 
+                list.enableConcurrentReads();
+        AtomicBoolean armed = new AtomicBoolean(true);
+        AtomicReference<Object[]> head = new AtomicReference<>();
+        Object probe = new Object() {
+            
+            @Override
+            public int hashCode() {
+                // Indexing the element happens within the insertion.
+                if (armed.getAndSet(false)) {
+                    Thread thread = 
+                            new Thread(() -> head.set(reader.toArray(0, 16)));
+                    thread.start();
+                    
+                    try {
+                        thread.join(10000);
+                    } catch (InterruptedException ex) {
+                        throw new AssertionError(ex);
+                    }
+                }
+                
+                return 0;
+            }
+        };
+        
+        list.add(90, probe);
+        assertNotNull("The read of the head waited for the insertion.", 
+                      head.get());
+        
+        for (int i = 0; i < 16; i++) {
+            assertEquals(i, head.get()[i]);
+        }
+        
+        assertEquals(0, reader.getRetries());
+        assertEquals(probe, reader.get(90));
+        assertEquals(101, reader.size());
+        
+        // An edit of the head is an overlapping modification.
+        list.remove(0);
+        assertEquals(1, reader.get(0));
+    }
+    
+    /**
+     * Test of the collection constructor, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testCollectionConstructor() {
+        List<Integer> source = new ArrayList<>();
+        
+        for (int i = 0; i < 23; i++) {
+            source.add(i);
+        }
+        
+        LinkedArrayBlockList<Integer> list = 
+                new LinkedArrayBlockList<>(5, source);
+        
+        assertEquals(source, new ArrayList<>(list));
+        assertEquals(23, list.size());
+        assertEquals(5, list.getBlocks());
+        assertEquals(5, list.getHeadBlock().capacity);
+        assertEquals(4, list.getHeadBlock().nextBlock.nextBlock.nextBlock
+                            .nextBlock.capacity);
+        
+        list.add(23);
+        list.add(24);
+        source.add(23);
+        source.add(24);
+        
+        assertEquals(source, new ArrayList<>(list));
+        assertEquals(5, list.getBlocks());
+        
+        list = new LinkedArrayBlockList<>(Collections.emptyList());
+        
+        assertTrue(list.isEmpty());
+        assertEquals(0, list.getBlocks());
+        
+        list.add(1);
+        assertEquals((Integer) 1, list.get(0));
+    }
+    
+    /**
+     * Test of ensureCapacity method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testEnsureCapacity() {
+        targetList.add(0);
+        targetList.ensureCapacity(23);
+        
+        for (int i = 1; i < 23; i++) {
+            targetList.add(i);
+        }
+        
+        assertEquals(5, targetList.getBlocks());
+        
+        for (int i = 0; i < 23; i++) {
+            assertEquals((Integer) i, targetList.get(i));
+        }
+        
+        targetList.add(23);
+        targetList.add(24);
+        targetList.add(25);
+        int blocks = targetList.getBlocks();
+        
+        targetList.ensureCapacity(10); // No-op.
+        
+        assertEquals(blocks, targetList.getBlocks());
+        assertEquals(26, targetList.size());
+    }
+    
+    /**
+     * Test of main method, of class LinkedArrayBlockList.
+     */
+    @Test
+    public void testMain() {
+    
     }
 }
@@ -0,0 +1,272 @@
+package net.coderodde.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * This class tests the correctness of the 
+ * {@link net.coderodde.util.SortedLinkedArrayBlockList}.
+ * 
+ * @author Rodion "rodde" Efremov
+ */
+public class SortedLinkedArrayBlockListTest {
+    
+    private SortedLinkedArrayBlockList<Integer> targetList;
+    
+    @Before
+    public void setUp() {
+        targetList = new SortedLinkedArrayBlockList<>(Integer::compare, 4);
+    }
+
+    /**
+     * Test of add method, of class SortedLinkedArrayBlockList.
+     */
+    @Test
+    public void testAdd() {
+        int[] data = { 5, 1, 9, 3, 3, 7, 0, 8, 2, 6, 4, 3 };
+        
+        for (int element : data) {
+            targetList.add(element);
+        }
+        
+        assertEquals(data.length, targetList.size());
+        Iterator<Integer> iterator = targetList.iterator();
+        int[] expected = { 0, 1, 2, 3, 3, 3, 4, 5, 6, 7, 8, 9 };
+        
+        for (int element : expected) {
+            assertEquals((Integer) element, iterator.next());
+        }
+        
+        assertFalse(iterator.hasNext());
+    }
+    
+    /**
+     * Test of navigation methods, of class SortedLinkedArrayBlockList.
+     */
+    @Test
+    public void testNavigation() {
+        assertNull(targetList.floor(1));
+        assertNull(targetList.ceiling(1));
+        
+        for (int i = 0; i < 20; i += 2) {
+            targetList.add(i);
+        }
+        
+        assertEquals((Integer) 0, targetList.first());
+        assertEquals((Integer) 18, targetList.last());
+        assertEquals((Integer) 6, targetList.floor(7));
+        assertEquals((Integer) 6, targetList.floor(6));
+        assertEquals((Integer) 4, targetList.lower(6));
+        assertEquals((Integer) 8, targetList.ceiling(7));
+        assertEquals((Integer) 8, targetList.ceiling(8));
+        assertEquals((Integer) 10, targetList.higher(8));
+        assertNull(targetList.floor(-1));
+        assertNull(targetList.higher(18));
+        assertEquals(4, targetList.rank(7));
+        assertEquals(4, targetList.rank(8));
+        assertEquals(10, targetList.rank(100));
+        assertEquals((Integer) 14, targetList.select(7));
+    }
+
+    /**
+     * Compares the collection against a sorted {@code ArrayList} under random
+     * insertions and removals.
+     */
+    @Test
+    public void testAgainstSortedArrayList() {
+        Random random = new Random(13L);
+        List<Integer> referenceList = new ArrayList<>();
+        
+        for (int iteration = 0; iteration < 3000; iteration++) {
+            Integer element = random.nextInt(200);
+            
+            if (random.nextInt(3) == 0) {
+                assertEquals(referenceList.remove(element), 
+                             targetList.remove(element));
+            } else {
+                int index = Collections.binarySearch(referenceList, element);
+                referenceList.add(index < 0 ? -index - 1 : index, element);
+                targetList.add(element);
+            }
+            
+            assertEquals(referenceList.size(), targetList.size());
+            assertEquals(referenceList.contains(element), 
+                         targetList.contains(element));
+            
+            if (!referenceList.isEmpty()) {
+                int index = random.nextInt(referenceList.size());
+                assertEquals(referenceList.get(index), 
+                             targetList.select(index));
+            }
+        }
+        
+        assertEquals(referenceList, new ArrayList<>(targetList));
+    }
+    
+    /**
+     * Tests that an element rejected by the comparator leaves the collection
+     * unchanged.
+     */
+    @Test
+    public void testAddRejectedByComparator() {
+        SortedLinkedArrayBlockList<Integer> list = 
+                new SortedLinkedArrayBlockList<>();
+        
+        try {
+            list.add(null);
+            fail("The null element was not rejected.");
+        } catch (NullPointerException ex) {
+        }
+        
+        assertEquals(0, list.size());
+        assertFalse(list.iterator().hasNext());
+        
+        for (int i = 0; i < 100; i++) {
+            list.add(i);
+        }
+        
+        try {
+            list.add(null);
+            fail("The null element was not rejected.");
+        } catch (NullPointerException ex) {
+        }
+        
+        assertEquals(100, list.size());
+        
+        for (int i = 0; i < 100; i++) {
+            assertEquals((Integer) i, list.select(i));
+        }
+        
+        // A comparator failing after the target block is found.
+        SortedLinkedArrayBlockList<Integer> failingList = 
+                new SortedLinkedArrayBlockList<>((a, b) -> {
+                    if (a == 13 || b == 13) {
+                        throw new IllegalArgumentException();
+                    }
+                    
+                    return Integer.compare(a, b);
+                }, 4);
+        
+        for (int i = 0; i < 12; i++) {
+            failingList.add(i * 2);
+        }
+        
+        try {
+            failingList.add(13);
+            fail("The element was not rejected.");
+        } catch (IllegalArgumentException ex) {
+        }
+        
+        assertEquals(12, failingList.size());
+        failingList.add(15);
+        assertEquals(13, failingList.size());
+        assertEquals((Integer) 15, failingList.select(8));
+        assertEquals((Integer) 22, failingList.last());
+    }
+    
+    /**
+     * Tests that the equal elements are kept in insertion order.
+     */
+    @Test
+    public void testDuplicates() {
+        SortedLinkedArrayBlockList<int[]> list = 
+                new SortedLinkedArrayBlockList<>(
+                        Comparator.comparingInt((int[] a) -> a[0]), 4);
+        
+        for (int id = 0; id < 30; id++) {
+            list.add(new int[]{ id % 3, id });
+        }
+        
+        int previousKey = -1;
+        int previousId = -1;
+        
+        for (int[] element : list) {
+            if (element[0] == previousKey) {
+                assertTrue(element[1] > previousId);
+            } else {
+                assertTrue(element[0] > previousKey);
+            }
+            
+            previousKey = element[0];
+            previousId = element[1];
+        }
+        
+        int[] key = { 1, -1 };
+        assertEquals(10, list.rank(key));
+        assertEquals(1, list.ceiling(key)[1]);
+        assertEquals(28, list.floor(key)[1]);
+        assertEquals(27, list.lower(key)[1]);
+        assertEquals(2, list.higher(key)[1]);
+        
+        assertTrue(list.remove(key));
+        assertEquals(29, list.size());
+        assertEquals(4, list.ceiling(key)[1]);
+        
+        for (int i = 0; i < 9; i++) {
+            assertTrue(list.remove(key));
+        }
+        
+        assertFalse(list.contains(key));
+        assertFalse(list.remove(key));
+        assertEquals(20, list.size());
+        assertEquals(10, list.rank(key));
+        assertEquals(2, list.ceiling(key)[0]);
+    }
+    
+    /**
+     * Tests the boundary cases of the queries.
+     */
+    @Test
+    public void testEmptyAndClear() {
+        assertFalse(targetList.remove(1));
+        assertFalse(targetList.contains(1));
+        assertEquals(0, targetList.rank(1));
+        
+        try {
+            targetList.first();
+            fail("first() did not throw on an empty collection.");
+        } catch (NoSuchElementException ex) {
+        }
+        
+        try {
+            targetList.select(0);
+            fail("select(0) did not throw on an empty collection.");
+        } catch (IndexOutOfBoundsException ex) {
+        }
+        
+        for (int i = 0; i < 10; i++) {
+            targetList.add(i);
+        }
+        
+        targetList.clear();
+        assertEquals(0, targetList.size());
+        assertFalse(targetList.iterator().hasNext());
+        targetList.add(3);
+        assertEquals((Integer) 3, targetList.first());
+        assertEquals((Integer) 3, targetList.last());
+    }
+    
+    /**
+     * Tests that the iterator detects a concurrent modification.
+     */
+    @Test(expected = ConcurrentModificationException.class)
+    public void testIteratorConcurrentModification() {
+        for (int i = 0; i < 10; i++) {
+            targetList.add(i);
+        }
+        
+        Iterator<Integer> iterator = targetList.iterator();
+        iterator.next();
+        targetList.add(5);
+        iterator.next();
+    }
+}